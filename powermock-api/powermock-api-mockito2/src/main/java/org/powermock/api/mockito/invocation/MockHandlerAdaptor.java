@@ -26,6 +26,7 @@ import org.mockito.invocation.Invocation;
 import org.mockito.invocation.MockHandler;
 import org.mockito.mock.MockCreationSettings;
 import org.powermock.api.mockito.internal.invocation.InvocationControlAssertionError;
+import org.powermock.core.MockGateway;
 import org.powermock.core.MockRepository;
 
 import java.lang.reflect.Method;
@@ -60,6 +61,7 @@ public class MockHandlerAdaptor<T> {
         
         Invocation invocation = createInvocation(mock, method, arguments);
         
+        MockGateway.mockFrameworkInvocationStarted();
         try {
             return getMockHandler().handle(invocation);
         } catch (NotAMockException e) {
@@ -74,6 +76,8 @@ public class MockHandlerAdaptor<T> {
         } catch (MockitoAssertionError e) {
             InvocationControlAssertionError.updateErrorMessageForMethodInvocation(e);
             throw e;
+        } finally {
+            MockGateway.mockFrameworkInvocationFinished();
         }
     }
     
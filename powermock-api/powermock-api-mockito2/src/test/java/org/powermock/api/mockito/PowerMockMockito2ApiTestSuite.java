@@ -4,6 +4,7 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.powermock.api.mockito.internal.expectation.DefaultMethodExpectationSetupTestCase;
 import org.powermock.api.mockito.internal.mockcreation.MockCreatorTestCase;
+import org.powermock.api.mockito.invocation.MockHandlerAdaptorTestCase;
 import org.powermock.api.mockito.mockmaker.PowerMockMakerTestCase;
 
 
@@ -15,7 +16,8 @@ import org.powermock.api.mockito.mockmaker.PowerMockMakerTestCase;
 @Suite.SuiteClasses({
                         PowerMockMakerTestCase.class,
                         MockCreatorTestCase.class,
-                        DefaultMethodExpectationSetupTestCase.class
+                        DefaultMethodExpectationSetupTestCase.class,
+                        MockHandlerAdaptorTestCase.class
 })
 public class PowerMockMockito2ApiTestSuite {
 }
@@ -0,0 +1,127 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.api.mockito.invocation;
+
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.powermock.api.mockito.internal.mockcreation.DefaultMockCreator;
+import org.powermock.core.MockGateway;
+import org.powermock.core.MockRepository;
+import org.powermock.core.spi.MethodInvocationControl;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.assertj.core.api.Java6Assertions.catchThrowable;
+
+public class MockHandlerAdaptorTestCase {
+
+    private Probe probe;
+    private List<?> mock;
+    private MockHandlerAdaptor<?> mockHandlerAdaptor;
+
+    @Before
+    public void setUp() throws Exception {
+        probe = new Probe();
+        MockRepository.putInstanceMethodInvocationControl(probe, new ProbeInvocationControl());
+
+        mock = DefaultMockCreator.mock(List.class, false, false, null, Mockito.withSettings(), List.class.getMethod("size"));
+        mockHandlerAdaptor = ((MockitoMethodInvocationControl) MockRepository.getInstanceMethodInvocationControl(mock)).getMockHandlerAdaptor();
+    }
+
+    @After
+    public void tearDown() {
+        MockRepository.clear();
+    }
+
+    @Test
+    public void should_call_real_equals_from_inside_mock_handler() throws Throwable {
+        final List<Object> results = new ArrayList<Object>();
+        Mockito.when(mock.size()).thenAnswer(new Answer<Integer>() {
+            @Override
+            public Integer answer(final InvocationOnMock invocation) throws Throwable {
+                results.add(callEquals());
+                return 1;
+            }
+        });
+
+        final Object size = mockHandlerAdaptor.performIntercept(mock, List.class.getMethod("size"), new Object[0]);
+
+        assertThat(size).isEqualTo(1);
+        assertThat(results).containsExactly(MockGateway.PROCEED);
+        assertThat(callEquals()).isEqualTo(Boolean.TRUE);
+    }
+
+    @Test
+    public void should_reset_mock_framework_invocation_marker_when_mock_handler_throws() throws Throwable {
+        final IllegalStateException exception = new IllegalStateException("answer failed");
+        Mockito.when(mock.size()).thenThrow(exception);
+
+        final Throwable thrown = catchThrowable(new ThrowingCallable() {
+            @Override
+            public void call() throws Throwable {
+                mockHandlerAdaptor.performIntercept(mock, List.class.getMethod("size"), new Object[0]);
+            }
+        });
+
+        assertThat(thrown).isSameAs(exception);
+        assertThat(callEquals()).isEqualTo(Boolean.TRUE);
+    }
+
+    private Object callEquals() throws Throwable {
+        return MockGateway.methodCall(probe, "equals", new Object[]{new Object()}, new Class<?>[]{Object.class}, "boolean");
+    }
+
+    public static class Probe {
+
+        @Override
+        public boolean equals(final Object obj) {
+            return super.equals(obj);
+        }
+    }
+
+    private static class ProbeInvocationControl implements MethodInvocationControl {
+        @Override
+        public boolean isMocked(final Method method) {
+            return true;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) {
+            return Boolean.TRUE;
+        }
+
+        @Override
+        public Object replay(final Object... mocks) {
+            return null;
+        }
+
+        @Override
+        public Object reset(final Object... mocks) {
+            return null;
+        }
+    }
+}
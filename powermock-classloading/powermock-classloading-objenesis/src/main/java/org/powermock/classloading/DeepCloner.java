@@ -19,7 +19,6 @@ import org.powermock.api.support.ClassLoaderUtil;
 import org.powermock.api.support.SafeExceptionRethrower;
 import org.powermock.classloading.spi.DeepClonerSPI;
 import org.powermock.classloading.spi.DoNotClone;
-import org.powermock.core.ListMap;
 import org.powermock.reflect.Whitebox;
 import sun.misc.Unsafe;
 
@@ -34,6 +33,7 @@ import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.IdentityHashMap;
 import java.util.Map;
 
 /**
@@ -45,7 +45,7 @@ import java.util.Map;
 public class DeepCloner implements DeepClonerSPI {
 
 	private final ClassLoader targetCL;
-	private final Map<Object, Object> referenceMap = new ListMap<Object, Object>();
+	private final Map<Object, Object> referenceMap = new IdentityHashMap<Object, Object>();
 	private final Class<DoNotClone> doNotClone;
 
 	/**
@@ -31,6 +31,11 @@ import org.powermock.utils.ArrayUtil;
 public class PowerMockConfiguration implements Configuration<PowerMockConfiguration> {
     private String[] globalIgnore;
     private ByteCodeFramework byteCodeFramework;
+    private String byteCodeCacheDirectory;
+    private Integer sharedByteCodeCacheSize;
+    private Integer prewarmThreads;
+    private Integer classLoaderPoolSize;
+    private String classLoaderReinitializer;
     
     public String[] getGlobalIgnore() {
         return globalIgnore;
@@ -48,6 +53,68 @@ public class PowerMockConfiguration implements Configuration<PowerMockConfigurat
         this.byteCodeFramework = byteCodeFramework;
     }
     
+    /**
+     * @return the directory in which modified classes are cached between test runs or {@code null}
+     * if modified classes should not be cached.
+     */
+    public String getByteCodeCacheDirectory() {
+        return byteCodeCacheDirectory;
+    }
+    
+    public void setByteCodeCacheDirectory(final String byteCodeCacheDirectory) {
+        this.byteCodeCacheDirectory = byteCodeCacheDirectory;
+    }
+    
+    /**
+     * @return the maximum size in megabytes of the classes which are modified once and shared by all mock
+     * class loaders of the JVM, {@code 0} if they should not be shared or {@code null} for the default size.
+     * @see org.powermock.core.classloader.SharedByteCodeCache
+     */
+    public Integer getSharedByteCodeCacheSize() {
+        return sharedByteCodeCacheSize;
+    }
+    
+    public void setSharedByteCodeCacheSize(final Integer sharedByteCodeCacheSize) {
+        this.sharedByteCodeCacheSize = sharedByteCodeCacheSize;
+    }
+    
+    /**
+     * @return the number of threads which modify the classes prepared for test when a mock class loader is
+     * created or {@code null} if classes should be modified when they are loaded.
+     */
+    public Integer getPrewarmThreads() {
+        return prewarmThreads;
+    }
+    
+    public void setPrewarmThreads(final Integer prewarmThreads) {
+        this.prewarmThreads = prewarmThreads;
+    }
+    
+    /**
+     * @return the maximum number of mock class loaders which are kept to be reused by test classes with the
+     * same configuration or {@code null} if each test class gets new class loaders.
+     * @see org.powermock.core.classloader.MockClassLoaderPool
+     */
+    public Integer getClassLoaderPoolSize() {
+        return classLoaderPoolSize;
+    }
+    
+    public void setClassLoaderPoolSize(final Integer classLoaderPoolSize) {
+        this.classLoaderPoolSize = classLoaderPoolSize;
+    }
+    
+    /**
+     * @return the fully qualified name of the {@link org.powermock.core.spi.MockClassLoaderReinitializer}
+     * which is called before a pooled mock class loader is reused or {@code null}.
+     */
+    public String getClassLoaderReinitializer() {
+        return classLoaderReinitializer;
+    }
+    
+    public void setClassLoaderReinitializer(final String classLoaderReinitializer) {
+        this.classLoaderReinitializer = classLoaderReinitializer;
+    }
+    
     @Override
     public PowerMockConfiguration merge(final PowerMockConfiguration configuration) {
         if (configuration == null) {
@@ -63,6 +130,31 @@ public class PowerMockConfiguration implements Configuration<PowerMockConfigurat
             }else {
                 powerMockConfiguration.setByteCodeFramework(configuration.byteCodeFramework);
             }
+            if (configuration.byteCodeCacheDirectory == null) {
+                powerMockConfiguration.setByteCodeCacheDirectory(byteCodeCacheDirectory);
+            } else {
+                powerMockConfiguration.setByteCodeCacheDirectory(configuration.byteCodeCacheDirectory);
+            }
+            if (configuration.sharedByteCodeCacheSize == null) {
+                powerMockConfiguration.setSharedByteCodeCacheSize(sharedByteCodeCacheSize);
+            } else {
+                powerMockConfiguration.setSharedByteCodeCacheSize(configuration.sharedByteCodeCacheSize);
+            }
+            if (configuration.prewarmThreads == null) {
+                powerMockConfiguration.setPrewarmThreads(prewarmThreads);
+            } else {
+                powerMockConfiguration.setPrewarmThreads(configuration.prewarmThreads);
+            }
+            if (configuration.classLoaderPoolSize == null) {
+                powerMockConfiguration.setClassLoaderPoolSize(classLoaderPoolSize);
+            } else {
+                powerMockConfiguration.setClassLoaderPoolSize(configuration.classLoaderPoolSize);
+            }
+            if (configuration.classLoaderReinitializer == null) {
+                powerMockConfiguration.setClassLoaderReinitializer(classLoaderReinitializer);
+            } else {
+                powerMockConfiguration.setClassLoaderReinitializer(configuration.classLoaderReinitializer);
+            }
             
             return powerMockConfiguration;
         }
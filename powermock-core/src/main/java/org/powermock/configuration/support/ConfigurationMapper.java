@@ -122,6 +122,18 @@ class ConfigurationMapper<T extends Configuration> {
                 }
             }
         },
+        IntegerWriter {
+            @Override
+            public void writeProperty(final PropertyDescriptor pd, final Object target, final String value) {
+                try {
+                    if (value != null) {
+                        pd.getWriteMethod().invoke(target, Integer.valueOf(value.trim()));
+                    }
+                } catch (Exception e) {
+                    throw new PowerMockInternalException(e);
+                }
+            }
+        },
         EnumWriter {
             @Override
             public void writeProperty(final PropertyDescriptor pd, final Object target, final String value) {
@@ -150,6 +162,8 @@ class ConfigurationMapper<T extends Configuration> {
                 return ArrayWriter;
             } else if (Enum.class.isAssignableFrom(pd.getPropertyType())) {
                 return EnumWriter;
+            } else if (Integer.class.equals(pd.getPropertyType())) {
+                return IntegerWriter;
             } else {
                 return StringWriter;
             }
@@ -16,6 +16,7 @@
 package org.powermock.core;
 
 import java.util.AbstractSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.Map;
 
@@ -24,7 +25,15 @@ public class IdentityHashSet<E> extends AbstractSet<E> {
     protected final Map<E, Boolean> backedMap;
 
     public IdentityHashSet() {
-        this.backedMap = new ListMap<E, Boolean>();
+        this.backedMap = new IdentityHashMap<E, Boolean>();
+    }
+
+    /**
+     * Create a copy of {@code set}. Modifying the copy never affects the
+     * original.
+     */
+    public IdentityHashSet(IdentityHashSet<E> set) {
+        this.backedMap = new IdentityHashMap<E, Boolean>(set.backedMap);
     }
 
     @Override
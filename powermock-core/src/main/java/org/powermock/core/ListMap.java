@@ -23,6 +23,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+/**
+ * A map which compares its keys by identity and keeps its entries in a list.
+ *
+ * @deprecated PowerMock doesn't use this class any longer, because every
+ *             lookup is a linear scan. Use {@link java.util.IdentityHashMap}
+ *             instead.
+ */
+@Deprecated
 public class ListMap<K, V> implements Map<K, V> {
 
     private List<Map.Entry<K, V>> entries = new LinkedList<Entry<K, V>>();
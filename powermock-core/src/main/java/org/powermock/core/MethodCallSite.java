@@ -0,0 +1,117 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core;
+
+import org.powermock.reflect.internal.TypeUtils;
+
+import java.lang.reflect.Method;
+
+/**
+ * Describes a method call which is routed through the {@link MockGateway}.
+ * <p>
+ * When a class is modified by a mock class loader, the transformers store one
+ * instance for every instrumented method (or call to a system class) in a
+ * synthetic static field of the modified class. The instance is created the
+ * first time the method is called, so the {@link MockGateway} doesn't have to
+ * look up the method by name and signature and parse the return type on
+ * every call. Do not use this class directly.
+ */
+public final class MethodCallSite {
+
+    private final Class<?> declaringType;
+    private final String methodName;
+    private final Class<?>[] signature;
+    private final String returnTypeAsString;
+    private final Object defaultReturnValue;
+    private final boolean javaStandardMethod;
+    private final boolean getClassMethod;
+    private final boolean annotationMethod;
+
+    /**
+     * The method resolved for {@link #declaringType}. It's resolved lazily and
+     * may be resolved more than once by concurrent callers, since the result
+     * is always the same. The field is volatile, so a caller never sees a
+     * method which hasn't been fully published.
+     */
+    private volatile Method method;
+
+    public MethodCallSite(Class<?> declaringType, String methodName, Class<?>[] signature, String returnTypeAsString) {
+        this.declaringType = declaringType;
+        this.methodName = methodName;
+        this.signature = signature;
+        this.returnTypeAsString = returnTypeAsString;
+        this.defaultReturnValue = TypeUtils.getDefaultValue(returnTypeAsString);
+        this.javaStandardMethod = (methodName.equals("equals") && signature.length == 1)
+                                      || (methodName.equals("hashCode") && signature.length == 0)
+                                      || (methodName.equals("toString") && signature.length == 0);
+        this.getClassMethod = methodName.equals("getClass") && signature.length == 0;
+        this.annotationMethod = (methodName.equals("isAnnotationPresent") || methodName.equals("getAnnotation"))
+                                    && signature.length == 1;
+    }
+
+    public Class<?> getDeclaringType() {
+        return declaringType;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public Class<?>[] getSignature() {
+        return signature;
+    }
+
+    public String getReturnTypeAsString() {
+        return returnTypeAsString;
+    }
+
+    Object getDefaultReturnValue() {
+        return defaultReturnValue;
+    }
+
+    boolean isJavaStandardMethod() {
+        return javaStandardMethod;
+    }
+
+    boolean isGetClassMethod() {
+        return getClassMethod;
+    }
+
+    boolean isAnnotationMethod() {
+        return annotationMethod;
+    }
+
+    /**
+     * Get the method that should be invoked when the call is made on
+     * {@code objectType}. The method is only kept for the type declaring the
+     * call site, for example calls made on a subclass are resolved every time
+     * since the subclass may override the method.
+     */
+    Method getMethod(Class<?> objectType) {
+        if (objectType != declaringType) {
+            return MockInvocation.findMethodToInvoke(methodName, signature, objectType);
+        }
+        Method resolved = method;
+        if (resolved == null) {
+            resolved = MockInvocation.findMethodToInvoke(methodName, signature, objectType);
+            method = resolved;
+        }
+        return resolved;
+    }
+}
@@ -22,6 +22,7 @@ import org.powermock.reflect.internal.WhiteboxImpl;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 
 /**
@@ -32,13 +33,16 @@ import java.lang.reflect.Modifier;
 public class MockGateway {
 
     /**
-     * {@link #noMockito} is wrapped into it's own static class to make sure it is initialized not earlier than
-     * {@link #calledFromMockito()} is called for the first time.
+     * How many invocations the current thread is handling in a mock framework.
+     * See {@link #mockFrameworkInvocationStarted()}.
      */
-    private static final class NoMockito {
-        static final boolean noMockito = Package.getPackage("org.mockito") == null;
-        private NoMockito() {}
-    }
+    private static final ThreadLocal<Integer> MOCK_FRAMEWORK_INVOCATION_DEPTH = new ThreadLocal<Integer>() {
+        @Override
+        protected Integer initialValue() {
+            return 0;
+        }
+    };
+
     public static final Object PROCEED = new Object();
     public static final Object SUPPRESS = new Object();
 
@@ -58,6 +62,9 @@ public class MockGateway {
 
     @SuppressWarnings("UnusedDeclaration")
     public static Object newInstanceCall(Class<?> type, Object[] args, Class<?>[] sig) throws Throwable {
+        if (!MockRepository.isIntercepted(type)) {
+            return PROCEED;
+        }
         final NewInvocationControl<?> newInvocationControl = MockRepository.getNewInstanceControl(type);
         if (newInvocationControl != null) {
             /*
@@ -92,6 +99,9 @@ public class MockGateway {
     @SuppressWarnings("UnusedDeclaration")
     public static Object fieldCall(Object instanceOrClassContainingTheField, Class<?> classDefiningField,
                                    String fieldName, Class<?> fieldType) {
+        if (!MockRepository.isIntercepted(classDefiningField)) {
+            return PROCEED;
+        }
         if (MockRepository.shouldSuppressField(WhiteboxImpl.getField(classDefiningField, fieldName))) {
             return TypeUtils.getDefaultValue(fieldType);
         }
@@ -107,6 +117,9 @@ public class MockGateway {
 
     @SuppressWarnings("UnusedDeclaration")
     public static Object constructorCall(Class<?> type, Object[] args, Class<?>[] sig) throws Throwable {
+        if (!MockRepository.isIntercepted(type)) {
+            return PROCEED;
+        }
         final Constructor<?> constructor = WhiteboxImpl.getConstructor(type, sig);
         if (MockRepository.shouldSuppressConstructor(constructor)) {
             return null;
@@ -114,6 +127,25 @@ public class MockGateway {
         return PROCEED;
     }
     
+    /**
+     * Tells the gateway that the current thread starts handling an invocation
+     * in a mock framework. Until {@link #mockFrameworkInvocationFinished()} is
+     * called, {@code equals} calls made by the mock framework itself (for
+     * example when matching arguments) proceed to the real method instead of
+     * being intercepted again. Calls may be nested.
+     */
+    public static void mockFrameworkInvocationStarted() {
+        MOCK_FRAMEWORK_INVOCATION_DEPTH.set(MOCK_FRAMEWORK_INVOCATION_DEPTH.get() + 1);
+    }
+
+    /**
+     * Tells the gateway that the current thread has finished handling an
+     * invocation started with {@link #mockFrameworkInvocationStarted()}.
+     */
+    public static void mockFrameworkInvocationFinished() {
+        MOCK_FRAMEWORK_INVOCATION_DEPTH.set(MOCK_FRAMEWORK_INVOCATION_DEPTH.get() - 1);
+    }
+
     public static boolean suppressConstructorCall(Class<?> type, Object[] args, Class<?>[] sig) throws Throwable {
         return constructorCall(type, args, sig) != PROCEED;
     }
@@ -145,61 +177,87 @@ public class MockGateway {
         return doMethodCall(type, methodName, args, sig, returnTypeAsString);
     }
 
+    // used for instance methods with a generated call site
+    @SuppressWarnings("UnusedDeclaration")
+    public static Object methodCall(Object instance, MethodCallSite callSite, Object[] args) throws Throwable {
+        return doMethodCall(instance, callSite, args);
+    }
+
+    // used for static methods with a generated call site
+    @SuppressWarnings("UnusedDeclaration")
+    public static Object methodCall(Class<?> type, MethodCallSite callSite, Object[] args) throws Throwable {
+        return doMethodCall(type, callSite, args);
+    }
 
     private static Object doMethodCall(Object object, String methodName, Object[] args, Class<?>[] sig,
                                        String returnTypeAsString) throws Throwable {
-        if (!shouldMockMethod(methodName, sig)) {
+        if (!isIntercepted(object) || !shouldMockMethod(methodName, sig)) {
             return PROCEED;
         }
 
         MockInvocation mockInvocation = new MockInvocation(object, methodName, sig);
-        MethodInvocationControl methodInvocationControl = mockInvocation.getMethodInvocationControl();
-        Object returnValue = null;
-
-        // The following describes the equals non-static method.
+        return doMethodCall(object, args, mockInvocation.getMethod(), mockInvocation.getObjectType(),
+                            mockInvocation.getMethodInvocationControl(), TypeUtils.getDefaultValue(returnTypeAsString));
+    }
 
-        if (isEqualsMethod(mockInvocation) && !isStaticMethod(mockInvocation)) {
-            returnValue = tryHandleEqualsMethod(mockInvocation);
+    private static Object doMethodCall(Object object, MethodCallSite callSite, Object[] args) throws Throwable {
+        if (!isIntercepted(object) || !shouldMockMethod(callSite)) {
+            return PROCEED;
         }
 
-        if (returnValue != null) {
-            return returnValue;
+        final Class<?> objectType;
+        final MethodInvocationControl methodInvocationControl;
+        if (object instanceof Class<?>) {
+            objectType = (Class<?>) object;
+            methodInvocationControl = MockRepository.getStaticMethodInvocationControl(objectType);
+        } else {
+            objectType = WhiteboxImpl.getUnproxiedType(object.getClass()).getOriginalType();
+            methodInvocationControl = MockRepository.getInstanceMethodInvocationControl(object);
         }
-        return doMethodCall(object, args, returnTypeAsString, mockInvocation, methodInvocationControl);
+        return doMethodCall(object, args, callSite.getMethod(objectType), objectType, methodInvocationControl,
+                            callSite.getDefaultReturnValue());
     }
 
-    private static Object doMethodCall(Object object, Object[] args,
-                                       String returnTypeAsString,
-                                       MockInvocation mockInvocation,
-                                       MethodInvocationControl methodInvocationControl) throws Throwable {
+    private static Object doMethodCall(Object object, Object[] args, Method method, Class<?> objectType,
+                                       MethodInvocationControl methodInvocationControl,
+                                       Object defaultReturnValue) throws Throwable {
+        // The following describes the equals non-static method.
+
+        if (isEqualsMethod(method) && !isStaticMethod(method)) {
+            final Object returnValue = tryHandleEqualsMethod(method);
+            if (returnValue != null) {
+                return returnValue;
+            }
+        }
+
         Object returnValue;
 
         // At first should be checked that method not suppressed/stubbed, because otherwise for spies real
         // method is involved.
         // https://github.com/jayway/powermock/issues/327
 
-        if (MockRepository.shouldSuppressMethod(mockInvocation.getMethod(), mockInvocation.getObjectType())) {
-            returnValue = TypeUtils.getDefaultValue(returnTypeAsString);
-        } else if (MockRepository.shouldStubMethod(mockInvocation.getMethod())) {
-            returnValue = MockRepository.getMethodToStub(mockInvocation.getMethod());
-        } else if (methodInvocationControl != null && methodInvocationControl.isMocked(mockInvocation.getMethod()) && shouldMockThisCall()) {
-            returnValue = methodInvocationControl.invoke(object, mockInvocation.getMethod(), args);
+        if (MockRepository.shouldSuppressMethod(method, objectType)) {
+            returnValue = defaultReturnValue;
+        } else if (MockRepository.shouldStubMethod(method)) {
+            returnValue = MockRepository.getMethodToStub(method);
+        } else if (methodInvocationControl != null && methodInvocationControl.isMocked(method) && shouldMockThisCall()) {
+            returnValue = methodInvocationControl.invoke(object, method, args);
             if (returnValue == SUPPRESS) {
-                returnValue = TypeUtils.getDefaultValue(returnTypeAsString);
+                returnValue = defaultReturnValue;
             }
-        } else if (MockRepository.hasMethodProxy(mockInvocation.getMethod())) {
+        } else if (MockRepository.hasMethodProxy(method)) {
                 /*
                  * We must temporary remove the method proxy when invoking the
                  * invocation handler because if the invocation handler delegates
                  * the call we will end up here again and we'll get a
                  * StackOverflowError.
                  */
-            final InvocationHandler invocationHandler = MockRepository.removeMethodProxy(mockInvocation.getMethod());
+            final InvocationHandler invocationHandler = MockRepository.removeMethodProxy(method);
             try {
-                returnValue = invocationHandler.invoke(object, mockInvocation.getMethod(), args);
+                returnValue = invocationHandler.invoke(object, method, args);
             } finally {
                 // Set the method proxy again after the invocation
-                MockRepository.putMethodProxy(mockInvocation.getMethod(), invocationHandler);
+                MockRepository.putMethodProxy(method, invocationHandler);
             }
         } else {
             returnValue = PROCEED;
@@ -210,7 +268,7 @@ public class MockGateway {
     /*
      * Method handles exception cases with equals method.
      */
-    private static Object tryHandleEqualsMethod(MockInvocation mockInvocation) {
+    private static Object tryHandleEqualsMethod(Method method) {
 
         // Fix for Issue http://code.google.com/p/powermock/issues/detail?id=88
         // For some reason the method call to equals() on final methods is
@@ -220,13 +278,13 @@ public class MockGateway {
         // method to be called is a final equals() method. In that case the
         // original method is called by returning PROCEED.
 
-        if (mockInvocation.getMethod().getParameterTypes().length == 1
-                    && mockInvocation.getMethod().getParameterTypes()[0] == Object.class
-                    && Modifier.isFinal(mockInvocation.getMethod().getModifiers())) {
+        if (method.getParameterTypes().length == 1
+                    && method.getParameterTypes()[0] == Object.class
+                    && Modifier.isFinal(method.getModifiers())) {
             return PROCEED;
         }
 
-        if (calledFromMockito()){
+        if (calledFromMockFramework()){
             return PROCEED;
         }
 
@@ -234,25 +292,25 @@ public class MockGateway {
     }
 
 
-    private static boolean isEqualsMethod(MockInvocation mockInvocation) {
-        return "equals".equals(mockInvocation.getMethod().getName());
+    /**
+     * Cheap check done before anything else so calls to classes and instances
+     * which nothing is registered for don't pay for the method lookup.
+     */
+    private static boolean isIntercepted(Object object) {
+        final Class<?> type = object instanceof Class<?> ? (Class<?>) object : object.getClass();
+        return MockRepository.isIntercepted(type);
+    }
+
+    private static boolean isEqualsMethod(Method method) {
+        return "equals".equals(method.getName());
     }
 
-    private static boolean isStaticMethod(MockInvocation mockInvocation) {
-        return Modifier.isStatic(mockInvocation.getMethod().getModifiers());
+    private static boolean isStaticMethod(Method method) {
+        return Modifier.isStatic(method.getModifiers());
     }
 
-    private static boolean calledFromMockito() {
-        if (NoMockito.noMockito) {
-            return false;
-        }
-        StackTraceElement[] stackTrace = Thread.currentThread().getStackTrace();
-        for (StackTraceElement stackTraceElement : stackTrace) {
-            if (stackTraceElement.getClassName().startsWith("org.mockito.")){
-                return true;
-            }
-        }
-        return false;
+    private static boolean calledFromMockFramework() {
+        return MOCK_FRAMEWORK_INVOCATION_DEPTH.get() > 0;
     }
 
     private static boolean shouldMockMethod(String methodName, Class<?>[] sig) {
@@ -263,6 +321,14 @@ public class MockGateway {
         } else { return !(isAnnotationMethod(methodName, sig) && !MOCK_ANNOTATION_METHODS); }
     }
 
+    private static boolean shouldMockMethod(MethodCallSite callSite) {
+        if (callSite.isJavaStandardMethod() && !MOCK_STANDARD_METHODS) {
+            return false;
+        } else if (callSite.isGetClassMethod() && !MOCK_GET_CLASS_METHOD) {
+            return false;
+        } else { return !(callSite.isAnnotationMethod() && !MOCK_ANNOTATION_METHODS); }
+    }
+
     private static boolean isJavaStandardMethod(String methodName, Class<?>[] sig) {
         return (methodName.equals("equals") && sig.length == 1) || (methodName.equals("hashCode") && sig.length == 0)
                        || (methodName.equals("toString") && sig.length == 0);
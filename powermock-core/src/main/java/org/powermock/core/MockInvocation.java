@@ -6,8 +6,29 @@ import org.powermock.reflect.internal.WhiteboxImpl;
 import org.powermock.reflect.internal.proxy.UnproxiedType;
 
 import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 class MockInvocation {
+
+    /**
+     * Maximum number of resolved methods kept in {@link #METHOD_CACHE}. The
+     * whole cache is dropped when the limit is reached.
+     */
+    private static final int METHOD_CACHE_MAX_SIZE = 4096;
+
+    /**
+     * Resolved methods by (type, method name, signature). The type is compared
+     * by identity, so the same class loaded by different class loaders never
+     * shares an entry. Clearing a scope of the {@link MockRepository} removes
+     * the methods of the classes loaded by the mock class loader of the scope,
+     * so they are not kept reachable after the test while the methods resolved
+     * for tests running with other mock class loaders stay cached.
+     */
+    private static final ConcurrentMap<MethodKey, Method> METHOD_CACHE = new ConcurrentHashMap<MethodKey, Method>();
+
     private Object object;
     private String methodName;
     private Class<?>[] sig;
@@ -47,7 +68,32 @@ class MockInvocation {
         return method;
     }
     
-    private static Method findMethodToInvoke(String methodName, Class<?>[] sig, Class<?> objectType) {
+    static void clearMethodCache() {
+        METHOD_CACHE.clear();
+    }
+
+    static void clearMethodCache(MockRepository.Scope scope) {
+        for (Iterator<MethodKey> keys = METHOD_CACHE.keySet().iterator(); keys.hasNext(); ) {
+            if (MockRepository.findScope(keys.next().type.getClassLoader()) == scope) {
+                keys.remove();
+            }
+        }
+    }
+
+    static Method findMethodToInvoke(String methodName, Class<?>[] sig, Class<?> objectType) {
+        final MethodKey key = new MethodKey(objectType, methodName, sig);
+        Method method = METHOD_CACHE.get(key);
+        if (method == null) {
+            method = doFindMethodToInvoke(methodName, sig, objectType);
+            if (METHOD_CACHE.size() >= METHOD_CACHE_MAX_SIZE) {
+                METHOD_CACHE.clear();
+            }
+            METHOD_CACHE.put(key, method);
+        }
+        return method;
+    }
+
+    private static Method doFindMethodToInvoke(String methodName, Class<?>[] sig, Class<?> objectType) {
         /*
         * if invocationControl is null or the method is not mocked, invoke
         * original method or suppress the method code otherwise invoke the
@@ -72,4 +118,35 @@ class MockInvocation {
         }
         return method;
     }
+
+    private static final class MethodKey {
+        private final Class<?> type;
+        private final String methodName;
+        private final Class<?>[] sig;
+        private final int hashCode;
+
+        private MethodKey(Class<?> type, String methodName, Class<?>[] sig) {
+            this.type = type;
+            this.methodName = methodName;
+            this.sig = sig;
+            this.hashCode = 31 * (31 * type.hashCode() + methodName.hashCode()) + Arrays.hashCode(sig);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof MethodKey)) {
+                return false;
+            }
+            final MethodKey other = (MethodKey) o;
+            return type == other.type && methodName.equals(other.methodName) && Arrays.equals(sig, other.sig);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
 }
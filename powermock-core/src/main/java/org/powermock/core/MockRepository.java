@@ -15,6 +15,7 @@
  */
 package org.powermock.core;
 
+import org.powermock.core.classloader.MockClassLoader;
 import org.powermock.core.spi.MethodInvocationControl;
 import org.powermock.core.spi.NewInvocationControl;
 
@@ -27,76 +28,56 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Hold mock objects that should be used instead of the concrete implementation.
  * Mock transformers may use this class to gather information on which classes
  * and methods that are mocked.
+ * <p>
+ * The state is kept in a {@link Scope}. Every {@link MockClassLoader} has a
+ * scope of its own. State which belongs to a class (mocks of the class or of
+ * its instances, new instance controls, stubbed, proxied or suppressed members
+ * of the class) is kept in the scope of the mock class loader which loaded the
+ * class, either directly or through a child class loader, so it's found from
+ * any thread. Other state, and state which belongs to a class that hasn't been
+ * loaded by a mock class loader, is kept in the scope of the context class
+ * loader of the current thread if it's a mock class loader, otherwise in a
+ * scope which is shared by the whole JVM. All runners set the mock class loader
+ * of a test as context class loader while the test runs, so tests which run
+ * with different mock class loaders (for instance test chunks in different
+ * threads) don't see or clear each other's mocks. Only the classes which have
+ * their static initializers suppressed are shared by all scopes, because they
+ * are registered while a mock class loader is created.
+ * <p>
+ * The repository is consulted by the {@link MockGateway} for every intercepted
+ * call, so reads never take a lock. Apart from the instance mocks, all state is
+ * kept in copy-on-write collections: a write (performed while holding the
+ * monitor of the scope) copies the collection it modifies, applies the change to
+ * the copy and then publishes the copy through a {@code volatile} field. A
+ * collection is never modified after it has been published.
  */
 public class MockRepository {
 
-	private static Set<Object> objectsToAutomaticallyReplayAndVerify = new IdentityHashSet<Object>();
-
-	private static Map<Class<?>, NewInvocationControl<?>> newSubstitutions = new HashMap<Class<?>, NewInvocationControl<?>>();
-
-	/**
-	 * Holds info about general method invocation mocks for classes.
-	 */
-	private static Map<Class<?>, MethodInvocationControl> classMocks = new HashMap<Class<?>, MethodInvocationControl>();
-
-	/**
-	 * Holds info about general method invocation mocks for instances.
-	 */
-	private static Map<Object, MethodInvocationControl> instanceMocks = new ListMap<Object, MethodInvocationControl>();
-
 	/**
-	 * Holds info about which methods that should return a substitute/another
-	 * instance instead of the default instance.
+	 * The scope which is used when the context class loader of the current
+	 * thread isn't a mock class loader.
 	 */
-	private static Map<Method, Object> substituteReturnValues = new HashMap<Method, Object>();
+	private static final Scope SHARED_SCOPE = new Scope();
 
 	/**
-	 * Holds info about which methods that are proxied.
+	 * Stands for a {@code null} instance control, which concurrent maps can't
+	 * hold. An instance registered with a {@code null} control is still
+	 * intercepted.
 	 */
-	private static Map<Method, InvocationHandler> methodProxies = new HashMap<Method, InvocationHandler>();
+	private static final Object NULL_INSTANCE_CONTROL = new Object();
 
 	/**
 	 * Holds info about which class that should have their static initializers
 	 * suppressed.
 	 */
-	private static Set<String> suppressStaticInitializers = new HashSet<String>();
-
-	/**
-	 * Sometimes mock frameworks needs to store additional state. They can do
-	 * this using this key/value based approach.
-	 */
-	private static Map<String, Object> additionalState = new HashMap<String, Object>();
-
-	/**
-	 * Set of constructors that should be suppressed.
-	 */
-	private static final Set<Constructor<?>> suppressConstructor = new HashSet<Constructor<?>>();
-
-	/**
-	 * Set of methods that should be suppressed.
-	 */
-	private static final Set<Method> suppressMethod = new HashSet<Method>();
-
-	/**
-	 * Set of methods that should be suppressed.
-	 */
-	private static final Set<Field> suppressField = new HashSet<Field>();
-
-	/**
-	 * Set of field types that should always be suppressed regardless of
-	 * instance.
-	 */
-	private static final Set<String> suppressFieldTypes = new HashSet<String>();
-
-    /**
-     * Set of runnables that will be executed after the test (method) is completed.
-	 */
-	private static final Set<Runnable> afterMethodRunners = new HashSet<Runnable>();
+	private static volatile Set<String> suppressStaticInitializers = new HashSet<String>();
 
 	/**
 	 * Clear all state of the mock repository except for static initializers.
@@ -108,71 +89,76 @@ public class MockRepository {
 	 * but suppression of static initializers are different because this state
 	 * can only be set once per class per CL. That's why we cannot remove this
 	 * state.
+	 * <p>
+	 * Only the state of the scope of the context class loader of the current
+	 * thread is cleared, see {@link #clear(ClassLoader)}.
+	 */
+	public static void clear() {
+		scope().clear();
+	}
+
+	/**
+	 * Clear the state of the scope of a mock class loader like {@link #clear()}
+	 * does. Use it when the context class loader of the current thread may not
+	 * be the mock class loader whose state should be cleared.
+	 *
+	 * @param classLoader
+	 *            a mock class loader or a class loader whose parent is a mock
+	 *            class loader. If it's neither, the shared scope is cleared.
 	 */
-	public synchronized static void clear() {
-		newSubstitutions.clear();
-		classMocks.clear();
-		instanceMocks.clear();
-		objectsToAutomaticallyReplayAndVerify.clear();
-		additionalState.clear();
-		suppressConstructor.clear();
-		suppressMethod.clear();
-		substituteReturnValues.clear();
-		suppressField.clear();
-		suppressFieldTypes.clear();
-		methodProxies.clear();
-        for (Runnable runnable : afterMethodRunners) {
-            runnable.run();
-        }
-        afterMethodRunners.clear();
+	public static void clear(ClassLoader classLoader) {
+		final Scope scope = findScope(classLoader);
+		(scope == null ? SHARED_SCOPE : scope).clear();
 	}
 
 	/**
 	 * Removes an object from the MockRepository if it exists.
 	 */
 	public static void remove(Object mock) {
-		if (mock instanceof Class<?>) {
-			if (newSubstitutions.containsKey(mock)) {
-				newSubstitutions.remove(mock);
-			}
-			if (classMocks.containsKey(mock)) {
-				classMocks.remove(mock);
-			}
-		} else if (instanceMocks.containsKey(mock)) {
-			instanceMocks.remove(mock);
-		}
+		scopeOf(mock).remove(mock);
+	}
+
+	/**
+	 * Check whether or not calls to {@code type} (or to instances of
+	 * {@code type}) may have to be intercepted. When this method returns
+	 * {@code false} nothing has been registered which could affect such a call,
+	 * so the {@link MockGateway} can let the call proceed right away.
+	 */
+	public static boolean isIntercepted(Class<?> type) {
+		final Set<Class<?>> types = scope(type).interceptedTypes;
+		return types == null || types.contains(type);
 	}
 
-	public static synchronized MethodInvocationControl getStaticMethodInvocationControl(Class<?> type) {
-		return classMocks.get(type);
+	public static MethodInvocationControl getStaticMethodInvocationControl(Class<?> type) {
+		return scope(type).classMocks.get(type);
 	}
 
-	public static synchronized MethodInvocationControl putStaticMethodInvocationControl(Class<?> type, MethodInvocationControl invocationControl) {
-		return classMocks.put(type, invocationControl);
+	public static MethodInvocationControl putStaticMethodInvocationControl(Class<?> type, MethodInvocationControl invocationControl) {
+		return scope(type).putStaticMethodInvocationControl(type, invocationControl);
 	}
 
-	public static synchronized MethodInvocationControl removeClassMethodInvocationControl(Class<?> type) {
-		return classMocks.remove(type);
+	public static MethodInvocationControl removeClassMethodInvocationControl(Class<?> type) {
+		return scope(type).removeClassMethodInvocationControl(type);
 	}
 
-	public static synchronized MethodInvocationControl getInstanceMethodInvocationControl(Object instance) {
-		return instanceMocks.get(instance);
+	public static MethodInvocationControl getInstanceMethodInvocationControl(Object instance) {
+		return toInstanceControl(scopeOf(instance).instanceMocks.get(new IdentityKey(instance)));
 	}
 
-	public static synchronized MethodInvocationControl putInstanceMethodInvocationControl(Object instance, MethodInvocationControl invocationControl) {
-		return instanceMocks.put(instance, invocationControl);
+	public static MethodInvocationControl putInstanceMethodInvocationControl(Object instance, MethodInvocationControl invocationControl) {
+		return scopeOf(instance).putInstanceMethodInvocationControl(instance, invocationControl);
 	}
 
-	public static synchronized MethodInvocationControl removeInstanceMethodInvocationControl(Class<?> type) {
-		return classMocks.remove(type);
+	public static MethodInvocationControl removeInstanceMethodInvocationControl(Class<?> type) {
+		return removeClassMethodInvocationControl(type);
 	}
 
-	public static synchronized NewInvocationControl<?> getNewInstanceControl(Class<?> type) {
-		return newSubstitutions.get(type);
+	public static NewInvocationControl<?> getNewInstanceControl(Class<?> type) {
+		return scope(type).newSubstitutions.get(type);
 	}
 
-	public static synchronized NewInvocationControl<?> putNewInstanceControl(Class<?> type, NewInvocationControl<?> control) {
-		return newSubstitutions.put(type, control);
+	public static NewInvocationControl<?> putNewInstanceControl(Class<?> type, NewInvocationControl<?> control) {
+		return scope(type).putNewInstanceControl(type, control);
 	}
 
 	/**
@@ -184,7 +170,9 @@ public class MockRepository {
 	 *            its static initializers suppressed.
 	 */
 	public static synchronized void addSuppressStaticInitializer(String className) {
-		suppressStaticInitializers.add(className);
+		final Set<String> initializers = copyOf(suppressStaticInitializers);
+		initializers.add(className);
+		suppressStaticInitializers = initializers;
 	}
 
 	/**
@@ -196,7 +184,9 @@ public class MockRepository {
 	 *            longer have its static initializers suppressed.
 	 */
 	public static synchronized void removeSuppressStaticInitializer(String className) {
-		suppressStaticInitializers.remove(className);
+		final Set<String> initializers = copyOf(suppressStaticInitializers);
+		initializers.remove(className);
+		suppressStaticInitializers = initializers;
 	}
 
 	/**
@@ -208,22 +198,22 @@ public class MockRepository {
 	 *            {@code className} should have its static initializers
 	 *            suppressed, {@code false} otherwise.
 	 */
-	public static synchronized boolean shouldSuppressStaticInitializerFor(String className) {
+	public static boolean shouldSuppressStaticInitializerFor(String className) {
 		return suppressStaticInitializers.contains(className);
 	}
 
 	/**
 	 * @return All classes that should be automatically replayed or verified.
 	 */
-	public static synchronized Set<Object> getObjectsToAutomaticallyReplayAndVerify() {
-		return Collections.unmodifiableSet(objectsToAutomaticallyReplayAndVerify);
+	public static Set<Object> getObjectsToAutomaticallyReplayAndVerify() {
+		return Collections.unmodifiableSet(scope().objectsToAutomaticallyReplayAndVerify);
 	}
 
 	/**
 	 * Add classes that should be automatically replayed or verified.
 	 */
-	public static synchronized void addObjectsToAutomaticallyReplayAndVerify(Object... objects) {
-		Collections.addAll(objectsToAutomaticallyReplayAndVerify, objects);
+	public static void addObjectsToAutomaticallyReplayAndVerify(Object... objects) {
+		scope().addObjectsToAutomaticallyReplayAndVerify(objects);
 	}
 
 	/**
@@ -237,24 +227,24 @@ public class MockRepository {
 	 * @return The previous object under the specified <tt>key</tt> or
 	 *         {@code null}.
 	 */
-	public static synchronized Object putAdditionalState(String key, Object value) {
-		return additionalState.put(key, value);
+	public static Object putAdditionalState(String key, Object value) {
+		return scope().putAdditionalState(key, value);
 	}
 
-	public static synchronized Object removeAdditionalState(String key) {
-		return additionalState.remove(key);
+	public static Object removeAdditionalState(String key) {
+		return scope().removeAdditionalState(key);
 	}
 
-	public static synchronized InvocationHandler removeMethodProxy(Method method) {
-		return methodProxies.remove(method);
+	public static InvocationHandler removeMethodProxy(Method method) {
+		return scope(method.getDeclaringClass()).removeMethodProxy(method);
 	}
 
 	/**
 	 * Retrieve state based on the supplied key.
 	 */
 	@SuppressWarnings("unchecked")
-	public static synchronized <T> T getAdditionalState(String key) {
-		return (T) additionalState.get(key);
+	public static <T> T getAdditionalState(String key) {
+		return (T) scope().additionalState.get(key);
 	}
 
 	/**
@@ -263,8 +253,8 @@ public class MockRepository {
 	 * @param method
 	 *            The method to suppress.
 	 */
-	public static synchronized void addMethodToSuppress(Method method) {
-		suppressMethod.add(method);
+	public static void addMethodToSuppress(Method method) {
+		scope(method.getDeclaringClass()).addMethodToSuppress(method);
 	}
 
 	/**
@@ -273,8 +263,8 @@ public class MockRepository {
 	 * @param field
 	 *            The field to suppress.
 	 */
-	public static synchronized void addFieldToSuppress(Field field) {
-		suppressField.add(field);
+	public static void addFieldToSuppress(Field field) {
+		scope(field.getDeclaringClass()).addFieldToSuppress(field);
 	}
 
 	/**
@@ -284,8 +274,8 @@ public class MockRepository {
 	 *            The fully-qualified name to a type. All fields of this type
 	 *            will be suppressed.
 	 */
-	public static synchronized void addFieldTypeToSuppress(String fieldType) {
-		suppressFieldTypes.add(fieldType);
+	public static void addFieldTypeToSuppress(String fieldType) {
+		scope().addFieldTypeToSuppress(fieldType);
 	}
 
 	/**
@@ -294,23 +284,23 @@ public class MockRepository {
 	 * @param constructor
 	 *            The constructor to suppress.
 	 */
-	public static synchronized void addConstructorToSuppress(Constructor<?> constructor) {
-		suppressConstructor.add(constructor);
+	public static void addConstructorToSuppress(Constructor<?> constructor) {
+		scope(constructor.getDeclaringClass()).addConstructorToSuppress(constructor);
 	}
 
 	/**
 	 * @return {@code true} if the <tt>method</tt> should be proxied.
 	 */
-	public static synchronized boolean hasMethodProxy(Method method) {
-		return methodProxies.containsKey(method);
+	public static boolean hasMethodProxy(Method method) {
+		return scope(method.getDeclaringClass()).methodProxies.containsKey(method);
 	}
 
 	/**
 	 * @return {@code true} if the <tt>method</tt> should be suppressed.
 	 */
-	public static synchronized boolean shouldSuppressMethod(Method method,
+	public static boolean shouldSuppressMethod(Method method,
 			Class<?> objectType) throws ClassNotFoundException {
-		for (Method suppressedMethod : suppressMethod) {
+		for (Method suppressedMethod : scope(method.getDeclaringClass()).suppressMethod) {
 			Class<?> suppressedMethodClass = suppressedMethod
 					.getDeclaringClass();
 			if (suppressedMethodClass.getClass().isAssignableFrom(
@@ -327,32 +317,33 @@ public class MockRepository {
 	/**
 	 * @return {@code true} if the <tt>field</tt> should be suppressed.
 	 */
-	public static synchronized boolean shouldSuppressField(Field field) {
-		return suppressField.contains(field) || suppressFieldTypes.contains(field.getType().getName());
+	public static boolean shouldSuppressField(Field field) {
+		return scope(field.getDeclaringClass()).suppressField.contains(field)
+				|| scope().suppressFieldTypes.contains(field.getType().getName());
 	}
 
 	/**
 	 * @return {@code true} if the <tt>constructor</tt> should be
 	 *         suppressed.
 	 */
-	public static synchronized boolean shouldSuppressConstructor(Constructor<?> constructor) {
-		return suppressConstructor.contains(constructor);
+	public static boolean shouldSuppressConstructor(Constructor<?> constructor) {
+		return scope(constructor.getDeclaringClass()).suppressConstructor.contains(constructor);
 	}
 
 	/**
 	 * @return {@code true} if the <tt>method</tt> has a substitute return
 	 *         value.
 	 */
-	public static synchronized boolean shouldStubMethod(Method method) {
-		return substituteReturnValues.containsKey(method);
+	public static boolean shouldStubMethod(Method method) {
+		return scope(method.getDeclaringClass()).substituteReturnValues.containsKey(method);
 	}
 
 	/**
 	 * @return The substitute return value for a particular method, may be
 	 *         {@code null}.
 	 */
-	public static synchronized Object getMethodToStub(Method method) {
-		return substituteReturnValues.get(method);
+	public static Object getMethodToStub(Method method) {
+		return scope(method.getDeclaringClass()).substituteReturnValues.get(method);
 	}
 
 	/**
@@ -361,15 +352,15 @@ public class MockRepository {
 	 * 
 	 * @return The previous substitute value if any.
 	 */
-	public static synchronized Object putMethodToStub(Method method, Object value) {
-		return substituteReturnValues.put(method, value);
+	public static Object putMethodToStub(Method method, Object value) {
+		return scope(method.getDeclaringClass()).putMethodToStub(method, value);
 	}
 
 	/**
 	 * @return The proxy for a particular method, may be {@code null}.
 	 */
-	public static synchronized InvocationHandler getMethodProxy(Method method) {
-		return methodProxies.get(method);
+	public static InvocationHandler getMethodProxy(Method method) {
+		return scope(method.getDeclaringClass()).methodProxies.get(method);
 	}
 
 	/**
@@ -378,15 +369,368 @@ public class MockRepository {
 	 * 
 	 * @return The method proxy if any.
 	 */
-	public static synchronized InvocationHandler putMethodProxy(Method method, InvocationHandler invocationHandler) {
-		return methodProxies.put(method, invocationHandler);
+	public static InvocationHandler putMethodProxy(Method method, InvocationHandler invocationHandler) {
+		return scope(method.getDeclaringClass()).putMethodProxy(method, invocationHandler);
 	}
 
     /**
      * Add a {@link Runnable} that will be executed after each test
      * @param runnable - an instance of {@link Runnable} that will be executed.
      */
-    public static synchronized void addAfterMethodRunner(Runnable runnable) {
-        afterMethodRunners.add(runnable);
+    public static void addAfterMethodRunner(Runnable runnable) {
+        scope().addAfterMethodRunner(runnable);
     }
+
+	/**
+	 * @return the scope of the context class loader of the current thread if
+	 *         it's a mock class loader, otherwise the shared scope.
+	 */
+	private static Scope scope() {
+		final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		if (classLoader instanceof MockClassLoader) {
+			return ((MockClassLoader) classLoader).getMockRepositoryScope();
+		}
+		return SHARED_SCOPE;
+	}
+
+	/**
+	 * @return the scope of the mock class loader which loaded {@code type}, or
+	 *         the current scope if {@code type} hasn't been loaded by a mock
+	 *         class loader.
+	 */
+	private static Scope scope(Class<?> type) {
+		final Scope scope = findScope(type.getClassLoader());
+		return scope == null ? scope() : scope;
+	}
+
+	private static Scope scopeOf(Object mock) {
+		if (mock == null) {
+			return scope();
+		}
+		return scope(mock instanceof Class<?> ? (Class<?>) mock : mock.getClass());
+	}
+
+	/**
+	 * @return the scope of {@code classLoader} or of its closest parent which is
+	 *         a mock class loader, or {@code null} if there is none.
+	 */
+	static Scope findScope(ClassLoader classLoader) {
+		while (classLoader != null) {
+			if (classLoader instanceof MockClassLoader) {
+				return ((MockClassLoader) classLoader).getMockRepositoryScope();
+			}
+			classLoader = classLoader.getParent();
+		}
+		return null;
+	}
+
+	private static MethodInvocationControl toInstanceControl(Object value) {
+		return value == NULL_INSTANCE_CONTROL ? null : (MethodInvocationControl) value;
+	}
+
+	private static <K, V> Map<K, V> copyOf(Map<K, V> map) {
+		return new HashMap<K, V>(map);
+	}
+
+	private static <E> Set<E> copyOf(Set<E> set) {
+		return new HashSet<E>(set);
+	}
+
+	/**
+	 * The state of the repository for the tests which run with one mock class
+	 * loader. Every {@link MockClassLoader} has a scope of its own.
+	 */
+	public static final class Scope {
+
+		private volatile IdentityHashSet<Object> objectsToAutomaticallyReplayAndVerify = new IdentityHashSet<Object>();
+
+		private volatile Map<Class<?>, NewInvocationControl<?>> newSubstitutions = new HashMap<Class<?>, NewInvocationControl<?>>();
+
+		/**
+		 * Holds info about general method invocation mocks for classes.
+		 */
+		private volatile Map<Class<?>, MethodInvocationControl> classMocks = new HashMap<Class<?>, MethodInvocationControl>();
+
+		/**
+		 * Holds info about general method invocation mocks for instances. The
+		 * instances are compared by identity so that {@code hashCode} and
+		 * {@code equals} of a mock are never invoked. Suites may create a lot of
+		 * instance mocks, so unlike the other collections this map isn't copied on
+		 * write; it's a concurrent map which is only modified while holding the
+		 * monitor of the scope. The values are controls or
+		 * {@link #NULL_INSTANCE_CONTROL}.
+		 */
+		private volatile ConcurrentMap<IdentityKey, Object> instanceMocks = new ConcurrentHashMap<IdentityKey, Object>();
+
+		/**
+		 * The number of mocked instances per class. Only accessed while holding
+		 * the monitor of the scope.
+		 */
+		private final Map<Class<?>, Integer> instanceMockTypes = new HashMap<Class<?>, Integer>();
+
+		/**
+		 * Holds info about which methods that should return a substitute/another
+		 * instance instead of the default instance.
+		 */
+		private volatile Map<Method, Object> substituteReturnValues = new HashMap<Method, Object>();
+
+		/**
+		 * Holds info about which methods that are proxied.
+		 */
+		private volatile Map<Method, InvocationHandler> methodProxies = new HashMap<Method, InvocationHandler>();
+
+		/**
+		 * Sometimes mock frameworks needs to store additional state. They can do
+		 * this using this key/value based approach.
+		 */
+		private volatile Map<String, Object> additionalState = new HashMap<String, Object>();
+
+		/**
+		 * Set of constructors that should be suppressed.
+		 */
+		private volatile Set<Constructor<?>> suppressConstructor = new HashSet<Constructor<?>>();
+
+		/**
+		 * Set of methods that should be suppressed.
+		 */
+		private volatile Set<Method> suppressMethod = new HashSet<Method>();
+
+		/**
+		 * Set of methods that should be suppressed.
+		 */
+		private volatile Set<Field> suppressField = new HashSet<Field>();
+
+		/**
+		 * Set of field types that should always be suppressed regardless of
+		 * instance.
+		 */
+		private volatile Set<String> suppressFieldTypes = new HashSet<String>();
+
+		/**
+		 * Set of runnables that will be executed after the test (method) is completed.
+		 * Only accessed while holding the monitor of the scope.
+		 */
+		private final Set<Runnable> afterMethodRunners = new HashSet<Runnable>();
+
+		/**
+		 * Classes for which calls may have to be intercepted: classes with a mock
+		 * or new instance control, classes of mocked instances and classes with
+		 * suppressed constructors. It's {@code null} when calls to any class may
+		 * have to be intercepted, i.e. when a method is stubbed, proxied or
+		 * suppressed or when a field is suppressed. Updated on every write.
+		 */
+		private volatile Set<Class<?>> interceptedTypes = Collections.emptySet();
+
+		private synchronized void clear() {
+			newSubstitutions = new HashMap<Class<?>, NewInvocationControl<?>>();
+			classMocks = new HashMap<Class<?>, MethodInvocationControl>();
+			instanceMocks = new ConcurrentHashMap<IdentityKey, Object>();
+			instanceMockTypes.clear();
+			objectsToAutomaticallyReplayAndVerify = new IdentityHashSet<Object>();
+			additionalState = new HashMap<String, Object>();
+			suppressConstructor = new HashSet<Constructor<?>>();
+			suppressMethod = new HashSet<Method>();
+			substituteReturnValues = new HashMap<Method, Object>();
+			suppressField = new HashSet<Field>();
+			suppressFieldTypes = new HashSet<String>();
+			methodProxies = new HashMap<Method, InvocationHandler>();
+			interceptedTypes = Collections.emptySet();
+			MockInvocation.clearMethodCache(this);
+			for (Runnable runnable : afterMethodRunners) {
+				runnable.run();
+			}
+			afterMethodRunners.clear();
+		}
+
+		private synchronized void remove(Object mock) {
+			if (mock instanceof Class<?>) {
+				if (newSubstitutions.containsKey(mock)) {
+					final Map<Class<?>, NewInvocationControl<?>> substitutions = copyOf(newSubstitutions);
+					substitutions.remove(mock);
+					newSubstitutions = substitutions;
+				}
+				if (classMocks.containsKey(mock)) {
+					final Map<Class<?>, MethodInvocationControl> mocks = copyOf(classMocks);
+					mocks.remove(mock);
+					classMocks = mocks;
+				}
+			} else {
+				removeInstanceMock(mock);
+			}
+			updateInterceptedTypes();
+		}
+
+		private synchronized MethodInvocationControl putStaticMethodInvocationControl(Class<?> type, MethodInvocationControl invocationControl) {
+			final Map<Class<?>, MethodInvocationControl> mocks = copyOf(classMocks);
+			final MethodInvocationControl previous = mocks.put(type, invocationControl);
+			classMocks = mocks;
+			updateInterceptedTypes();
+			return previous;
+		}
+
+		private synchronized MethodInvocationControl removeClassMethodInvocationControl(Class<?> type) {
+			final Map<Class<?>, MethodInvocationControl> mocks = copyOf(classMocks);
+			final MethodInvocationControl previous = mocks.remove(type);
+			classMocks = mocks;
+			updateInterceptedTypes();
+			return previous;
+		}
+
+		private synchronized MethodInvocationControl putInstanceMethodInvocationControl(Object instance, MethodInvocationControl invocationControl) {
+			final Object previous = instanceMocks.put(new IdentityKey(instance),
+					invocationControl == null ? NULL_INSTANCE_CONTROL : invocationControl);
+			if (previous == null) {
+				final Integer count = instanceMockTypes.get(instance.getClass());
+				instanceMockTypes.put(instance.getClass(), count == null ? 1 : count + 1);
+			}
+			updateInterceptedTypes();
+			return toInstanceControl(previous);
+		}
+
+		/**
+		 * Must be called while holding the monitor of the scope.
+		 */
+		private MethodInvocationControl removeInstanceMock(Object instance) {
+			final Object previous = instanceMocks.remove(new IdentityKey(instance));
+			if (previous != null) {
+				final int count = instanceMockTypes.get(instance.getClass());
+				if (count == 1) {
+					instanceMockTypes.remove(instance.getClass());
+				} else {
+					instanceMockTypes.put(instance.getClass(), count - 1);
+				}
+			}
+			return toInstanceControl(previous);
+		}
+
+		private synchronized NewInvocationControl<?> putNewInstanceControl(Class<?> type, NewInvocationControl<?> control) {
+			final Map<Class<?>, NewInvocationControl<?>> substitutions = copyOf(newSubstitutions);
+			final NewInvocationControl<?> previous = substitutions.put(type, control);
+			newSubstitutions = substitutions;
+			updateInterceptedTypes();
+			return previous;
+		}
+
+		private synchronized void addObjectsToAutomaticallyReplayAndVerify(Object... objects) {
+			final IdentityHashSet<Object> replayAndVerify = new IdentityHashSet<Object>(objectsToAutomaticallyReplayAndVerify);
+			Collections.addAll(replayAndVerify, objects);
+			objectsToAutomaticallyReplayAndVerify = replayAndVerify;
+		}
+
+		private synchronized Object putAdditionalState(String key, Object value) {
+			final Map<String, Object> state = copyOf(additionalState);
+			final Object previous = state.put(key, value);
+			additionalState = state;
+			return previous;
+		}
+
+		private synchronized Object removeAdditionalState(String key) {
+			if (!additionalState.containsKey(key)) {
+				return null;
+			}
+			final Map<String, Object> state = copyOf(additionalState);
+			final Object previous = state.remove(key);
+			additionalState = state;
+			return previous;
+		}
+
+		private synchronized InvocationHandler removeMethodProxy(Method method) {
+			final Map<Method, InvocationHandler> proxies = copyOf(methodProxies);
+			final InvocationHandler previous = proxies.remove(method);
+			methodProxies = proxies;
+			updateInterceptedTypes();
+			return previous;
+		}
+
+		private synchronized void addMethodToSuppress(Method method) {
+			final Set<Method> methods = copyOf(suppressMethod);
+			methods.add(method);
+			suppressMethod = methods;
+			updateInterceptedTypes();
+		}
+
+		private synchronized void addFieldToSuppress(Field field) {
+			final Set<Field> fields = copyOf(suppressField);
+			fields.add(field);
+			suppressField = fields;
+			updateInterceptedTypes();
+		}
+
+		private synchronized void addFieldTypeToSuppress(String fieldType) {
+			final Set<String> fieldTypes = copyOf(suppressFieldTypes);
+			fieldTypes.add(fieldType);
+			suppressFieldTypes = fieldTypes;
+			updateInterceptedTypes();
+		}
+
+		private synchronized void addConstructorToSuppress(Constructor<?> constructor) {
+			final Set<Constructor<?>> constructors = copyOf(suppressConstructor);
+			constructors.add(constructor);
+			suppressConstructor = constructors;
+			updateInterceptedTypes();
+		}
+
+		private synchronized Object putMethodToStub(Method method, Object value) {
+			final Map<Method, Object> returnValues = copyOf(substituteReturnValues);
+			final Object previous = returnValues.put(method, value);
+			substituteReturnValues = returnValues;
+			updateInterceptedTypes();
+			return previous;
+		}
+
+		private synchronized InvocationHandler putMethodProxy(Method method, InvocationHandler invocationHandler) {
+			final Map<Method, InvocationHandler> proxies = copyOf(methodProxies);
+			final InvocationHandler previous = proxies.put(method, invocationHandler);
+			methodProxies = proxies;
+			updateInterceptedTypes();
+			return previous;
+		}
+
+		private synchronized void addAfterMethodRunner(Runnable runnable) {
+			afterMethodRunners.add(runnable);
+		}
+
+		/**
+		 * Must be called while holding the monitor of the scope after a
+		 * collection consulted by {@link MockRepository#isIntercepted(Class)} has been
+		 * published.
+		 */
+		private void updateInterceptedTypes() {
+			if (!substituteReturnValues.isEmpty() || !methodProxies.isEmpty() || !suppressMethod.isEmpty()
+					|| !suppressField.isEmpty() || !suppressFieldTypes.isEmpty()) {
+				interceptedTypes = null;
+				return;
+			}
+			final Set<Class<?>> types = new HashSet<Class<?>>(classMocks.keySet());
+			types.addAll(newSubstitutions.keySet());
+			types.addAll(instanceMockTypes.keySet());
+			for (Constructor<?> constructor : suppressConstructor) {
+				types.add(constructor.getDeclaringClass());
+			}
+			interceptedTypes = types;
+		}
+	}
+
+	/**
+	 * Wraps an instance so that it's hashed and compared by identity.
+	 */
+	private static final class IdentityKey {
+		private final Object instance;
+		private final int hashCode;
+
+		private IdentityKey(Object instance) {
+			this.instance = instance;
+			this.hashCode = System.identityHashCode(instance);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof IdentityKey && ((IdentityKey) o).instance == instance;
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
 }
@@ -41,36 +41,31 @@ public class WildcardMatcher {
             throw new IllegalArgumentException("text cannot be null");
         }
 
-        text += '\0';
-        pattern += '\0';
-
-        int N = pattern.length();
-
-        boolean[] states = new boolean[N + 1];
-        boolean[] old = new boolean[N + 1];
-        old[0] = true;
-
-        for (int i = 0; i < text.length(); i++) {
-            char c = text.charAt(i);
-            states = new boolean[N + 1]; // initialized to false
-            for (int j = 0; j < N; j++) {
-                char p = pattern.charAt(j);
-
-                // hack to handle *'s that match 0 characters
-                if (old[j] && (p == WILDCARD))
-                    old[j + 1] = true;
-
-                if (old[j] && (p == c))
-                    states[j + 1] = true;
-                if (old[j] && (p == WILDCARD))
-                    states[j] = true;
-                if (old[j] && (p == WILDCARD))
-                    states[j + 1] = true;
+        int t = 0;
+        int p = 0;
+        // Position of the last wildcard in the pattern and of the text it was
+        // matched against, so the wildcard can consume one more character when
+        // the rest of the pattern doesn't match.
+        int wildcard = -1;
+        int wildcardMatch = 0;
+        while (t < text.length()) {
+            if (p < pattern.length() && pattern.charAt(p) == WILDCARD) {
+                wildcard = p++;
+                wildcardMatch = t;
+            } else if (p < pattern.length() && pattern.charAt(p) == text.charAt(t)) {
+                p++;
+                t++;
+            } else if (wildcard >= 0) {
+                p = wildcard + 1;
+                t = ++wildcardMatch;
+            } else {
+                return false;
             }
-            old = states;
         }
-        return states[N];
-
+        while (p < pattern.length() && pattern.charAt(p) == WILDCARD) {
+            p++;
+        }
+        return p == pattern.length();
     }
 
     public static boolean matchesAny(Collection<String> patterns, String text) {
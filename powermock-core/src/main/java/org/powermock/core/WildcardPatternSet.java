@@ -0,0 +1,162 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A set of wildcard patterns (see {@link WildcardMatcher}) compiled to be
+ * matched against many texts, for example the names of all classes loaded by a
+ * mock class loader.
+ * <p>
+ * Exact names ({@code org.MyClass}) and prefix patterns ({@code org.powermock.*})
+ * are stored in a trie so all of them are matched in a single pass over the text.
+ * Suffix ({@code *.MyClass}) and infix ({@code *CGLIB$$*}) patterns are matched
+ * with {@link String#endsWith(String)} and {@link String#contains(CharSequence)},
+ * all other patterns fall back to {@link WildcardMatcher#matches(String, String)}.
+ * <p>
+ * Instances are immutable and can be shared between threads.
+ */
+public final class WildcardPatternSet {
+
+    private static final char WILDCARD = '*';
+
+    private final Node trie = new Node();
+    private final List<String> suffixes = new ArrayList<String>();
+    private final List<String> infixes = new ArrayList<String>();
+    private final List<String> patterns = new ArrayList<String>();
+
+    public WildcardPatternSet(String... patterns) {
+        this(Arrays.asList(patterns));
+    }
+
+    public WildcardPatternSet(Collection<String> patterns) {
+        for (String pattern : patterns) {
+            add(pattern);
+        }
+    }
+
+    /**
+     * @param text the text to be tested for matches.
+     * @return {@code true} if the text matches at least one of the patterns,
+     * {@code false} otherwise.
+     */
+    public boolean matches(String text) {
+        if (text == null) {
+            throw new IllegalArgumentException("text cannot be null");
+        }
+        return matchesTrie(text) || matchesSuffix(text) || matchesInfix(text) || matchesPattern(text);
+    }
+
+    private void add(String pattern) {
+        final int firstWildcard = pattern.indexOf(WILDCARD);
+        if (firstWildcard < 0) {
+            trie.descendant(pattern).exact = true;
+        } else if (isWildcardsOnly(pattern, firstWildcard)) {
+            trie.descendant(pattern.substring(0, firstWildcard)).prefix = true;
+        } else if (firstWildcard == 0 && pattern.indexOf(WILDCARD, 1) < 0) {
+            suffixes.add(pattern.substring(1));
+        } else if (firstWildcard == 0 && pattern.indexOf(WILDCARD, 1) == pattern.length() - 1) {
+            infixes.add(pattern.substring(1, pattern.length() - 1));
+        } else {
+            patterns.add(pattern);
+        }
+    }
+
+    private static boolean isWildcardsOnly(String pattern, int from) {
+        for (int i = from; i < pattern.length(); i++) {
+            if (pattern.charAt(i) != WILDCARD) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean matchesTrie(String text) {
+        Node node = trie;
+        for (int i = 0; i < text.length(); i++) {
+            if (node.prefix) {
+                return true;
+            }
+            node = node.child(text.charAt(i));
+            if (node == null) {
+                return false;
+            }
+        }
+        return node.prefix || node.exact;
+    }
+
+    private boolean matchesSuffix(String text) {
+        for (String suffix : suffixes) {
+            if (text.endsWith(suffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean matchesInfix(String text) {
+        for (String infix : infixes) {
+            if (text.contains(infix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean matchesPattern(String text) {
+        for (String pattern : patterns) {
+            if (WildcardMatcher.matches(text, pattern)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class Node {
+        private Map<Character, Node> children;
+        private boolean exact;
+        private boolean prefix;
+
+        private Node child(char c) {
+            return children == null ? null : children.get(c);
+        }
+
+        private Node descendant(String path) {
+            Node node = this;
+            for (int i = 0; i < path.length(); i++) {
+                if (node.children == null) {
+                    node.children = new HashMap<Character, Node>();
+                }
+                Node child = node.children.get(path.charAt(i));
+                if (child == null) {
+                    child = new Node();
+                    node.children.put(path.charAt(i), child);
+                }
+                node = child;
+            }
+            return node;
+        }
+    }
+}
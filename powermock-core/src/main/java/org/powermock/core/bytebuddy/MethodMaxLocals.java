@@ -19,6 +19,7 @@
 package org.powermock.core.bytebuddy;
 
 import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.jar.asm.ClassReader;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -26,6 +27,50 @@ import java.util.Map;
 
 public class MethodMaxLocals {
     
+    /**
+     * Read the max locals of all methods from the method table of the class file, without
+     * visiting the instructions of the methods like {@link MaxLocalsExtractor} does.
+     */
+    public static MethodMaxLocals read(final ClassReader classReader) {
+        final MethodMaxLocals methodMaxLocals = new MethodMaxLocals();
+        final char[] buffer = new char[classReader.getMaxStringLength()];
+        
+        int offset = classReader.header + 6;
+        offset += 2 + 2 * classReader.readUnsignedShort(offset);
+        
+        int fieldsCount = classReader.readUnsignedShort(offset);
+        offset += 2;
+        while (fieldsCount-- > 0) {
+            offset = skipAttributes(classReader, offset + 6);
+        }
+        
+        int methodsCount = classReader.readUnsignedShort(offset);
+        offset += 2;
+        while (methodsCount-- > 0) {
+            final String name = classReader.readUTF8(offset + 2, buffer);
+            final String descriptor = classReader.readUTF8(offset + 4, buffer);
+            offset += 6;
+            int attributesCount = classReader.readUnsignedShort(offset);
+            offset += 2;
+            while (attributesCount-- > 0) {
+                if ("Code".equals(classReader.readUTF8(offset, buffer))) {
+                    methodMaxLocals.add(name, descriptor, classReader.readUnsignedShort(offset + 8));
+                }
+                offset += 6 + classReader.readInt(offset + 2);
+            }
+        }
+        return methodMaxLocals;
+    }
+    
+    private static int skipAttributes(final ClassReader classReader, int offset) {
+        int attributesCount = classReader.readUnsignedShort(offset);
+        offset += 2;
+        while (attributesCount-- > 0) {
+            offset += 6 + classReader.readInt(offset + 2);
+        }
+        return offset;
+    }
+    
     private final Map<String, Integer> methodMaxLocals;
     
     MethodMaxLocals() {
@@ -37,8 +82,11 @@ public class MethodMaxLocals {
     }
     
     public int getMethodMaxLocal(final MethodDescription instrumentedMethod) {
-        final String key = instrumentedMethod.getInternalName() + instrumentedMethod.getDescriptor();
-        final Integer maxLocals = methodMaxLocals.get(key);
+        return getMethodMaxLocal(instrumentedMethod.getInternalName(), instrumentedMethod.getDescriptor());
+    }
+    
+    public int getMethodMaxLocal(final String name, final String descriptor) {
+        final Integer maxLocals = methodMaxLocals.get(name + descriptor);
         return maxLocals == null ? 0 : maxLocals;
     }
 }
@@ -0,0 +1,120 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core.classloader;
+
+import org.powermock.core.transformers.MockTransformer;
+import org.powermock.core.transformers.MockTransformerChain;
+import org.powermock.core.transformers.TestClassTransformer;
+import org.powermock.core.transformers.javassist.AbstractJavaAssistMockTransformer;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import static org.powermock.core.transformers.support.FilterPredicates.isInstanceOf;
+
+/**
+ * Creates the keys under which modified classes are cached by the {@link SharedByteCodeCache}
+ * and the {@link PersistentByteCodeCache}.
+ * <p>
+ * A key is derived from the name and the original class file of a class, the transformers (and
+ * their {@link org.powermock.core.transformers.TransformStrategy} and mock gateway) that modify the class and
+ * whether the static initializer of the class is suppressed. The PowerMock version and the version of the
+ * modifications are part of every key, so classes cached on disk by another PowerMock version are never used.
+ */
+final class ByteCodeCacheKey {
+
+    /**
+     * Version of the modifications made by the built-in transformers. It has to be increased whenever a
+     * transformer changes the way it modifies classes, since snapshot builds share the PowerMock version.
+     */
+    private static final String FORMAT_VERSION = "2";
+    private static final String POWERMOCK_VERSION = getPowerMockVersion();
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private ByteCodeCacheKey() {
+    }
+
+    /**
+     * @return a fingerprint of the types, strategies and mock gateways of the transformers in the chain or
+     * {@code null} if the chain contains transformers which may depend on other state, in which
+     * case the classes modified by the chain cannot be cached.
+     */
+    static String fingerprint(final MockTransformerChain mockTransformerChain) {
+        final StringBuilder fingerprint = new StringBuilder();
+        for (MockTransformer transformer : mockTransformerChain.filter(isInstanceOf(MockTransformer.class))) {
+            fingerprint.append(transformer.getClass().getName());
+            if (transformer instanceof AbstractJavaAssistMockTransformer) {
+                final AbstractJavaAssistMockTransformer javassistTransformer = (AbstractJavaAssistMockTransformer) transformer;
+                fingerprint.append(':').append(javassistTransformer.getStrategy());
+                if (javassistTransformer.getMockGetawayClass() != null) {
+                    fingerprint.append(':').append(javassistTransformer.getMockGetawayClass().getName());
+                }
+            } else if (!(transformer instanceof TestClassTransformer)) {
+                return null;
+            }
+            fingerprint.append(';');
+        }
+        return fingerprint.toString();
+    }
+
+    static String create(final String className, final byte[] originalClass, final String transformersFingerprint,
+                         final boolean suppressStaticInitializer) {
+        return create(POWERMOCK_VERSION, className, originalClass, transformersFingerprint, suppressStaticInitializer);
+    }
+
+    static String create(final String powerMockVersion, final String className, final byte[] originalClass,
+                         final String transformersFingerprint, final boolean suppressStaticInitializer) {
+        final MessageDigest digest = newDigest();
+        digest.update(FORMAT_VERSION.getBytes(UTF_8));
+        digest.update((byte) 0);
+        digest.update(powerMockVersion.getBytes(UTF_8));
+        digest.update((byte) 0);
+        digest.update(className.getBytes(UTF_8));
+        digest.update((byte) 0);
+        digest.update(originalClass);
+        digest.update(transformersFingerprint.getBytes(UTF_8));
+        digest.update((byte) (suppressStaticInitializer ? 1 : 0));
+        return toHex(digest.digest());
+    }
+
+    private static String getPowerMockVersion() {
+        final Package powerMockPackage = ByteCodeCacheKey.class.getPackage();
+        final String version = powerMockPackage == null ? null : powerMockPackage.getImplementationVersion();
+        return version == null ? "unknown" : version;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not supported by the JVM.", e);
+        }
+    }
+
+    private static String toHex(final byte[] bytes) {
+        final char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+            hex[2 * i + 1] = HEX_DIGITS[bytes[i] & 0xF];
+        }
+        return new String(hex);
+    }
+}
@@ -6,8 +6,10 @@ import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.core.classloader.annotations.PrepareOnlyThisForTest;
 import org.powermock.core.classloader.annotations.SuppressStaticInitializationFor;
 import org.powermock.core.classloader.annotations.UseClassPathAdjuster;
+import org.powermock.core.classloader.bytebuddy.ByteBuddyMockClassLoader;
 import org.powermock.core.classloader.javassist.JavassistMockClassLoader;
 import org.powermock.core.transformers.MockTransformerChainFactory;
+import org.powermock.core.transformers.bytebuddy.ByteBuddyMockTransformerChainFactory;
 import org.powermock.core.transformers.javassist.JavassistMockTransformerChainFactory;
 
 import java.lang.reflect.AnnotatedElement;
@@ -25,6 +27,45 @@ public enum ByteCodeFramework {
         MockTransformerChainFactory createTransformerChainFactory() {
             return new JavassistMockTransformerChainFactory();
         }
+    },
+    
+    /**
+     * Modifies classes with ASM visitors instead of compiling source code, see {@link ByteBuddyMockClassLoader}.
+     */
+    ByteBuddy {
+        @Override
+        MockClassLoader createClassloader(final MockClassLoaderConfiguration configuration,
+                                          final UseClassPathAdjuster useClassPathAdjuster) {
+            return new ByteBuddyMockClassLoader(configuration, useClassPathAdjuster);
+        }
+        
+        @Override
+        MockTransformerChainFactory createTransformerChainFactory() {
+            return new ByteBuddyMockTransformerChainFactory();
+        }
+    },
+    
+    /**
+     * The default of the annotations: the byte code framework configured by {@code powermock.byte-code-framework}, or
+     * Javassist if none is configured.
+     */
+    Configured {
+        @Override
+        MockClassLoader createClassloader(final MockClassLoaderConfiguration configuration,
+                                          final UseClassPathAdjuster useClassPathAdjuster) {
+            return resolve().createClassloader(configuration, useClassPathAdjuster);
+        }
+        
+        @Override
+        MockTransformerChainFactory createTransformerChainFactory() {
+            return resolve().createTransformerChainFactory();
+        }
+        
+        @Override
+        ByteCodeFramework resolve() {
+            final ByteCodeFramework configured = GlobalConfiguration.powerMockConfiguration().getByteCodeFramework();
+            return configured == null || configured == Configured ? Javassist : configured;
+        }
     };
     
     public static ByteCodeFramework getByteCodeFrameworkForMethod(final Class<?> testClass, final Method method) {
@@ -46,7 +87,7 @@ public enum ByteCodeFramework {
         ByteCodeFramework byteCodeFramework = getByteCodeFramework(testClass);
         
         if (byteCodeFramework == null){
-            byteCodeFramework = GlobalConfiguration.powerMockConfiguration().getByteCodeFramework();
+            byteCodeFramework = Configured.resolve();
         }
         
         return byteCodeFramework;
@@ -54,17 +95,24 @@ public enum ByteCodeFramework {
     
     private static ByteCodeFramework getByteCodeFramework(final AnnotatedElement element) {
         if (element.isAnnotationPresent(PrepareForTest.class)) {
-            return element.getAnnotation(PrepareForTest.class).byteCodeFramework();
+            return element.getAnnotation(PrepareForTest.class).byteCodeFramework().resolve();
         } else if (element.isAnnotationPresent(PrepareOnlyThisForTest.class)) {
-            return element.getAnnotation(PrepareOnlyThisForTest.class).byteCodeFramework();
+            return element.getAnnotation(PrepareOnlyThisForTest.class).byteCodeFramework().resolve();
         } else if (element.isAnnotationPresent(PrepareEverythingForTest.class)) {
-            return element.getAnnotation(PrepareEverythingForTest.class).byteCodeFramework();
+            return element.getAnnotation(PrepareEverythingForTest.class).byteCodeFramework().resolve();
         } else if (element.isAnnotationPresent(SuppressStaticInitializationFor.class)){
-            return element.getAnnotation(SuppressStaticInitializationFor.class).byteCodeFramework();
+            return element.getAnnotation(SuppressStaticInitializationFor.class).byteCodeFramework().resolve();
         }
         return null;
     }
     
+    /**
+     * @return the byte code framework which is actually used, i.e. this one unless it's {@link #Configured}.
+     */
+    ByteCodeFramework resolve() {
+        return this;
+    }
+    
     abstract MockClassLoader createClassloader(MockClassLoaderConfiguration configuration, final UseClassPathAdjuster useClassPathAdjuster);
     
     abstract MockTransformerChainFactory createTransformerChainFactory();
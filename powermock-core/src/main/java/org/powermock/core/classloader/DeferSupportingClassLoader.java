@@ -159,7 +159,7 @@ abstract class DeferSupportingClassLoader extends ClassLoader {
         return clazz;
     }
     
-    private boolean shouldDefer(String name) {
+    protected boolean shouldDefer(String name) {
         return configuration.shouldDefer(name);
     }
     
@@ -16,20 +16,33 @@
  */
 package org.powermock.core.classloader;
 
+import org.powermock.core.MockRepository;
 import org.powermock.core.transformers.ClassWrapper;
 import org.powermock.core.transformers.ClassWrapperFactory;
 import org.powermock.core.transformers.MockTransformer;
 import org.powermock.core.transformers.MockTransformerChain;
+import org.powermock.core.transformers.TestClassTransformer;
 import org.powermock.core.transformers.javassist.support.JavaAssistClassWrapperFactory;
 import org.powermock.core.transformers.support.DefaultMockTransformerChain;
 import org.powermock.tests.utils.IgnorePackagesExtractor;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.ByteBuffer;
 import java.security.ProtectionDomain;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.powermock.core.transformers.support.FilterPredicates.isInstanceOf;
 
 /**
  * <p>
@@ -65,6 +78,10 @@ public abstract class MockClassLoader extends DeferSupportingClassLoader {
     protected ClassMarker classMarker;
     protected ClassWrapperFactory classWrapperFactory;
     private MockTransformerChain mockTransformerChain;
+    private PersistentByteCodeCache byteCodeCache;
+    private final ConcurrentMap<String, PrewarmedClass> prewarmedClasses;
+    private final List<TestClassChain> testClassChains;
+    private final MockRepository.Scope mockRepositoryScope;
     
     /**
      * Creates a new instance of the  based on the
@@ -91,7 +108,11 @@ public abstract class MockClassLoader extends DeferSupportingClassLoader {
     protected MockClassLoader(MockClassLoaderConfiguration configuration, final ClassWrapperFactory classWrapperFactory) {
         super(MockClassLoader.class.getClassLoader(), configuration);
         this.classWrapperFactory = classWrapperFactory;
+        this.byteCodeCache = PersistentByteCodeCache.fromConfiguration();
         this.mockTransformerChain = DefaultMockTransformerChain.newBuilder().build();
+        this.prewarmedClasses = new ConcurrentHashMap<String, PrewarmedClass>();
+        this.testClassChains = new CopyOnWriteArrayList<TestClassChain>();
+        this.mockRepositoryScope = new MockRepository.Scope();
     }
     
     @Override
@@ -114,74 +135,304 @@ public abstract class MockClassLoader extends DeferSupportingClassLoader {
         return mockTransformerChain;
     }
     
-    protected Class<?> loadUnmockedClass(final String name, final ProtectionDomain protectionDomain) throws ClassNotFoundException {
-        String path = name.replace('.', '/').concat(".class");
-        URL res = deferTo.getResource(path);
-        if (res != null) {
-            try {
-                return defineClass(name, res, protectionDomain);
-            } catch (IOException e) {
-                throw new ClassNotFoundException(name, e);
+    /**
+     * @return the state which the {@link MockRepository} keeps for tests running with this class loader as context
+     * class loader.
+     */
+    public MockRepository.Scope getMockRepositoryScope() {
+        return mockRepositoryScope;
+    }
+    
+    /**
+     * Let one more test class use this class loader. The test class, the classes nested within it and its
+     * super types are modified by the given chain, all other classes by the chain of this class loader.
+     *
+     * @param testClass            the test class.
+     * @param mockTransformerChain the chain which is created for the test class.
+     */
+    public void addTestClass(final Class<?> testClass, final MockTransformerChain mockTransformerChain) {
+        getConfiguration().addClassesToModify(testClass.getName());
+        testClassChains.add(new TestClassChain(testClass, mockTransformerChain));
+    }
+    
+    /**
+     * @return the chain which modifies the class with the given name.
+     * @see #addTestClass(Class, MockTransformerChain)
+     */
+    protected MockTransformerChain getMockTransformerChain(final String name) {
+        if (name != null) {
+            for (TestClassChain testClassChain : testClassChains) {
+                if (testClassChain.isTestClassOrNestedClassOrSuperType(name)) {
+                    return testClassChain.mockTransformerChain;
+                }
             }
-        } else {
+        }
+        return mockTransformerChain;
+    }
+    
+    boolean isLoaded(final String name) {
+        return findLoadedClass(name) != null;
+    }
+    
+    protected Class<?> loadUnmockedClass(final String name, final ProtectionDomain protectionDomain) throws ClassNotFoundException {
+        final Class<?> loadedClass = defineOriginalClass(name, protectionDomain);
+        if (loadedClass == null) {
             throw new ClassNotFoundException(name);
         }
+        return loadedClass;
     }
     
-    private Class<?> defineClass(String name, URL url, final ProtectionDomain protectionDomain) throws IOException {
-        byte[] b = readClass(url);
-        return defineClass(name, b, 0, b.length, protectionDomain);
+    /**
+     * Define a class from its class file as it is, without parsing it.
+     *
+     * @return the class or {@code null} if the class file isn't found on the class path.
+     */
+    protected Class<?> defineOriginalClass(final String name, final ProtectionDomain protectionDomain) throws ClassNotFoundException {
+        final URL url = deferTo.getResource(name.replace('.', '/').concat(".class"));
+        if (url == null) {
+            return null;
+        }
+        final byte[] clazz;
+        try {
+            clazz = readClass(url);
+        } catch (IOException e) {
+            throw new ClassNotFoundException(name, e);
+        }
+        return defineClass(name, protectionDomain, clazz);
     }
     
+    /**
+     * Reads the class file straight into an array of its size, if the size is known, so the bytes
+     * aren't copied again.
+     */
     private byte[] readClass(final URL url) throws IOException {
         final URLConnection connection = url.openConnection();
+        final int contentLength = connection.getContentLength();
         
         final InputStream in = connection.getInputStream();
-        ByteArrayOutputStream tmpOut = null;
-        
         try {
-            
-            final int contentLength = connection.getContentLength();
-            
-            // To avoid having to resize the array over and over and over as
-            // bytes are written to the array, provide an accurate estimate of
-            // the ultimate size of the byte array
-            
-            if (contentLength != -1) {
-                tmpOut = new ByteArrayOutputStream(contentLength);
-            } else {
-                tmpOut = new ByteArrayOutputStream(16384);
-            }
-            
-            byte[] buf = new byte[512];
-            while (true) {
-                int len = in.read(buf);
-                if (len == -1) {
-                    break;
+            byte[] clazz = new byte[contentLength > 0 ? contentLength : 8192];
+            int length = 0;
+            int read;
+            while ((read = in.read(clazz, length, clazz.length - length)) != -1) {
+                length += read;
+                if (length == clazz.length) {
+                    final int next = in.read();
+                    if (next == -1) {
+                        break;
+                    }
+                    clazz = Arrays.copyOf(clazz, clazz.length * 2);
+                    clazz[length++] = (byte) next;
                 }
-                tmpOut.write(buf, 0, len);
             }
-            return tmpOut.toByteArray();
+            return length == clazz.length ? clazz : Arrays.copyOf(clazz, length);
         } finally {
             in.close();
-            if (tmpOut != null) {
-                tmpOut.close();
-            }
         }
     }
     
     private Class<?> loadMockClass(String name, ProtectionDomain protectionDomain) throws ClassNotFoundException {
-        final byte[] clazz = defineAndTransformClass(name, protectionDomain);
+        final String key = getCacheKey(name);
+        if (key != null) {
+            return loadCachedMockClass(name, protectionDomain, key);
+        }
+        
+        final byte[] clazz = getModifiedClass(name, protectionDomain);
+    
+        return defineClass(name, protectionDomain, clazz);
+    }
+    
+    /**
+     * @return the key under which the modified class is cached or {@code null} if caching is disabled
+     * or the class cannot be cached.
+     */
+    private String getCacheKey(String name) {
+        if ((SharedByteCodeCache.isEnabled() || byteCodeCache != null) && !isTransformedForTestClass(name) && isCacheable(name)) {
+            final String fingerprint = ByteCodeCacheKey.fingerprint(getMockTransformerChain(name));
+            final byte[] originalClass = fingerprint == null ? null : readOriginalClass(name);
+            if (originalClass != null) {
+                return ByteCodeCacheKey.create(
+                    name, originalClass, fingerprint, MockRepository.shouldSuppressStaticInitializerFor(name)
+                );
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Take the class which has been modified ahead of time by {@link #prewarm(String[], int)} or
+     * modify it now. Classes are modified ahead of time as they are before other classes are modified,
+     * so a class which has been changed in this class loader since (see {@link #isCacheable(String)})
+     * is modified again.
+     */
+    private byte[] getModifiedClass(String name, ProtectionDomain protectionDomain) throws ClassNotFoundException {
+        final PrewarmedClass prewarmedClass = prewarmedClasses.remove(name);
+        if (prewarmedClass != null && prewarmedClass.isUpToDate(name) && isCacheable(name)) {
+            prepareForCachedClass(name);
+            return prewarmedClass.clazz;
+        }
+        return defineAndTransformClass(name, protectionDomain);
+    }
     
+    /**
+     * Load a modified class from the {@link SharedByteCodeCache}, the {@link PersistentByteCodeCache}
+     * or, if it hasn't been cached yet, modify and cache it.
+     */
+    private Class<?> loadCachedMockClass(String name, ProtectionDomain protectionDomain, String key) throws ClassNotFoundException {
+        byte[] clazz = SharedByteCodeCache.get(key);
+        if (clazz == null) {
+            final ByteBuffer persistedClass = byteCodeCache == null ? null : byteCodeCache.get(key);
+            if (persistedClass != null) {
+                clazz = new byte[persistedClass.remaining()];
+                persistedClass.get(clazz);
+                prepareForCachedClass(name);
+            } else {
+                clazz = getModifiedClass(name, protectionDomain);
+                if (byteCodeCache != null) {
+                    byteCodeCache.put(key, clazz);
+                }
+            }
+            SharedByteCodeCache.put(key, clazz);
+        } else {
+            prepareForCachedClass(name);
+        }
         return defineClass(name, protectionDomain, clazz);
     }
     
+    /**
+     * Classes which have been changed in this class loader while other classes were modified (e.g. a
+     * defer constructor has been added to a super class) have to be modified again, so they are neither
+     * taken from nor put into a cache.
+     *
+     * @param name the name of the class.
+     * @return {@code true} if the modified class may be cached.
+     */
+    protected boolean isCacheable(final String name) {
+        return true;
+    }
+    
+    /**
+     * Modify the given classes ahead of time on up to {@code threads} threads, instead of one after another
+     * when they are loaded. The modified classes are kept until they are loaded.
+     * <p>
+     * Classes which are already loaded or cached, classes which the test class transformer may change and
+     * classes which cannot be modified ahead of time are skipped. They are modified when they are loaded,
+     * just like classes which fail to be modified ahead of time.
+     *
+     * @param classNames the names of the classes to modify, names with wildcards are skipped.
+     * @param threads    the maximum number of threads which modify classes.
+     */
+    public void prewarm(final String[] classNames, final int threads) {
+        final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (final String name : classNames) {
+            if (shouldPrewarm(name)) {
+                tasks.add(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        prewarm(name);
+                        return null;
+                    }
+                });
+            }
+        }
+        if (tasks.isEmpty() || threads < 1) {
+            return;
+        }
+        
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, tasks.size()));
+        try {
+            executor.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    private boolean shouldPrewarm(final String name) {
+        return name.indexOf('*') < 0
+                   && getConfiguration().shouldMockClass(name)
+                   && !prewarmedClasses.containsKey(name)
+                   && findLoadedClass(name) == null
+                   && !isTransformedForTestClass(name)
+                   && !isCached(name);
+    }
+    
+    private boolean isCached(final String name) {
+        final String key = getCacheKey(name);
+        return key != null && (SharedByteCodeCache.contains(key) || byteCodeCache != null && byteCodeCache.contains(key));
+    }
+    
+    private void prewarm(final String name) throws Exception {
+        final boolean suppressStaticInitializer = MockRepository.shouldSuppressStaticInitializerFor(name);
+        final byte[] clazz = transformClassAheadOfTime(name);
+        if (clazz != null) {
+            prewarmedClasses.put(name, new PrewarmedClass(clazz, suppressStaticInitializer));
+        }
+    }
+    
+    /**
+     * Modify a class without changing the state of this class loader, so several classes can be modified
+     * at the same time. The class is defined later like a cached class, see
+     * {@link #prepareForCachedClass(String)}.
+     *
+     * @param name the name of the class to modify.
+     * @return the modified class or {@code null} if the class loader cannot modify classes ahead of time.
+     * @throws Exception if the class cannot be modified.
+     */
+    protected byte[] transformClassAheadOfTime(final String name) throws Exception {
+        return null;
+    }
+    
+    /**
+     * Called before a modified class which has been found in a cache is defined, instead of
+     * {@link #defineAndTransformClass(String, ProtectionDomain)}. Class loaders have to make the
+     * changes to other classes here, which the modification of the class would have made.
+     *
+     * @param name the name of the cached class.
+     */
+    protected void prepareForCachedClass(final String name) throws ClassNotFoundException {
+    }
+    
+    /**
+     * Classes which are modified by a {@link TestClassTransformer} depend on the test methods
+     * which run in this class loader, so they are never cached.
+     */
+    private boolean isTransformedForTestClass(String name) {
+        for (MockTransformer transformer : getMockTransformerChain(name).filter(isInstanceOf(TestClassTransformer.class))) {
+            if (((TestClassTransformer) transformer).mayTransform(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private byte[] readOriginalClass(String name) {
+        final URL url = deferTo.getResource(name.replace('.', '/').concat(".class"));
+        if (url == null) {
+            return null;
+        }
+        try {
+            return readClass(url);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+    
     public Class<?> defineClass(final String name, final ProtectionDomain protectionDomain, final byte[] clazz) {
         return defineClass(name, clazz, 0, clazz.length, protectionDomain);
     }
     
     protected <T> ClassWrapper<T> transformClass(ClassWrapper<T> wrappedType) throws Exception {
-        wrappedType = mockTransformerChain.transform(wrappedType);
+        return transformClass(null, wrappedType, classMarker);
+    }
+    
+    protected <T> ClassWrapper<T> transformClass(String name, ClassWrapper<T> wrappedType) throws Exception {
+        return transformClass(name, wrappedType, classMarker);
+    }
+    
+    protected <T> ClassWrapper<T> transformClass(String name, ClassWrapper<T> wrappedType, final ClassMarker classMarker) throws Exception {
+        wrappedType = getMockTransformerChain(name).transform(wrappedType);
         
         if (classMarker != null) {
             classMarker.mark(wrappedType);
@@ -190,4 +441,38 @@ public abstract class MockClassLoader extends DeferSupportingClassLoader {
     }
     
     protected abstract byte[] defineAndTransformClass(final String name, final ProtectionDomain protectionDomain) throws ClassNotFoundException;
+    
+    private static class PrewarmedClass {
+        
+        private final byte[] clazz;
+        private final boolean suppressStaticInitializer;
+        
+        private PrewarmedClass(final byte[] clazz, final boolean suppressStaticInitializer) {
+            this.clazz = clazz;
+            this.suppressStaticInitializer = suppressStaticInitializer;
+        }
+        
+        /**
+         * @return {@code false} if the suppression of the static initializer has changed since the
+         * class was modified.
+         */
+        private boolean isUpToDate(final String name) {
+            return suppressStaticInitializer == MockRepository.shouldSuppressStaticInitializerFor(name);
+        }
+    }
+    
+    private static class TestClassChain {
+        
+        private final Class<?> testClass;
+        private final MockTransformerChain mockTransformerChain;
+        
+        private TestClassChain(final Class<?> testClass, final MockTransformerChain mockTransformerChain) {
+            this.testClass = testClass;
+            this.mockTransformerChain = mockTransformerChain;
+        }
+        
+        private boolean isTestClassOrNestedClassOrSuperType(final String name) {
+            return TestClassTransformer.isTestClassOrNestedClassOrSuperType(name, testClass);
+        }
+    }
 }
@@ -17,15 +17,19 @@
 
 package org.powermock.core.classloader;
 
+import org.powermock.core.MockRepository;
 import org.powermock.core.classloader.annotations.UseClassPathAdjuster;
 import org.powermock.core.transformers.MockTransformer;
 import org.powermock.core.transformers.MockTransformerChain;
 import org.powermock.core.transformers.MockTransformerChainFactory;
 import org.powermock.core.transformers.TestClassAwareTransformer;
+import org.powermock.core.transformers.TestClassTransformer;
 import org.powermock.utils.ArrayUtil;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.TreeSet;
 
 import static org.powermock.core.transformers.support.FilterPredicates.isInstanceOf;
 import static org.powermock.utils.Asserts.internalAssertNotNull;
@@ -46,8 +50,8 @@ public class MockClassLoaderBuilder {
     private Class<?> testClass;
     
     private MockClassLoaderBuilder(final ByteCodeFramework byteCodeFramework) {
-        this.byteCodeFramework = byteCodeFramework;
-        transformerChainFactory = byteCodeFramework.createTransformerChainFactory();
+        this.byteCodeFramework = byteCodeFramework.resolve();
+        transformerChainFactory = this.byteCodeFramework.createTransformerChainFactory();
         extraMockTransformers = new ArrayList<MockTransformer>();
     }
 
@@ -62,7 +66,7 @@ public class MockClassLoaderBuilder {
         return classLoader;
     }
     
-    private MockTransformerChain createTransformerChain() {
+    MockTransformerChain createTransformerChain() {
         final MockTransformerChain mockTransformerChain = transformerChainFactory.createDefaultChain(extraMockTransformers);
         
         final Iterable<MockTransformer> testAwareTransformer = mockTransformerChain.filter(isInstanceOf(TestClassAwareTransformer.class));
@@ -73,6 +77,55 @@ public class MockClassLoaderBuilder {
         return mockTransformerChain;
     }
     
+    /**
+     * Create a key which is the same for all builders which build equal class loaders for different test
+     * classes: the byte-code framework, the classes to modify without the test class, those of them
+     * which have their static initializers suppressed, the packages to ignore and the class path adjuster.
+     * Test class transformers are left out, since they only modify the test class, which is modified by
+     * its own chain in a pooled class loader. Other extra transformers may depend on state which the key
+     * cannot capture, so class loaders which use them are not pooled.
+     *
+     * @return the key under which the class loader is pooled or {@code null} if it cannot be pooled.
+     * @see MockClassLoaderPool
+     */
+    String createPoolKey() {
+        internalAssertNotNull(testClass, "Test class is null during building classloader. ");
+        
+        for (MockTransformer extraMockTransformer : extraMockTransformers) {
+            if (!(extraMockTransformer instanceof TestClassTransformer)) {
+                return null;
+            }
+        }
+        
+        final TreeSet<String> classes = asSortedSet(classesToModify);
+        classes.remove(testClass.getName());
+        
+        final StringBuilder key = new StringBuilder(byteCodeFramework.name());
+        key.append('\n').append(classes);
+        key.append('\n').append(getSuppressedStaticInitializers(classes));
+        key.append('\n').append(asSortedSet(packagesToIgnore));
+        key.append('\n').append(useClassPathAdjuster == null ? null : useClassPathAdjuster.value().getName());
+        return key.toString();
+    }
+    
+    private static TreeSet<String> getSuppressedStaticInitializers(final TreeSet<String> classes) {
+        final TreeSet<String> suppressed = new TreeSet<String>();
+        for (String className : classes) {
+            if (MockRepository.shouldSuppressStaticInitializerFor(className)) {
+                suppressed.add(className);
+            }
+        }
+        return suppressed;
+    }
+    
+    private static TreeSet<String> asSortedSet(final String[] values) {
+        final TreeSet<String> sortedSet = new TreeSet<String>();
+        if (values != null) {
+            sortedSet.addAll(Arrays.asList(values));
+        }
+        return sortedSet;
+    }
+    
     public MockClassLoaderBuilder addIgnorePackage(String[] packagesToIgnore) {
         this.packagesToIgnore = ArrayUtil.addAll(this.packagesToIgnore, packagesToIgnore);
         return this;
@@ -19,7 +19,7 @@
 package org.powermock.core.classloader;
 
 import org.powermock.core.ClassReplicaCreator;
-import org.powermock.core.WildcardMatcher;
+import org.powermock.core.WildcardPatternSet;
 import org.powermock.core.spi.PowerMockPolicy;
 import org.powermock.core.spi.support.InvocationSubstitute;
 import org.powermock.utils.ArrayUtil;
@@ -56,6 +56,8 @@ public class MockClassLoaderConfiguration {
         "org.jacoco.agent.rt.*"
     };
     
+    private static final WildcardPatternSet PATTERNS_TO_BE_DEFERRED = new WildcardPatternSet(PACKAGES_TO_BE_DEFERRED);
+    
     /*
      * Classes not deferred but loaded by the mock class loader but they're not
      * modified.
@@ -79,7 +81,9 @@ public class MockClassLoaderConfiguration {
     };
     
     private final Set<String> modify = Collections.synchronizedSet(new HashSet<String>());
+    private volatile WildcardPatternSet modifyPatterns = new WildcardPatternSet();
     private String[] deferPackages;
+    private volatile CompiledPackages compiledDeferPackages;
     
     /**
      * Create an instance of configuration without any classes to mock or ignore.
@@ -133,15 +137,18 @@ public class MockClassLoaderConfiguration {
     public final void addClassesToModify(String... classes) {
         if (classes != null) {
             for (String clazz : classes) {
-                if (!shouldDefer(PACKAGES_TO_BE_DEFERRED, clazz)) {
+                if (!deferConditionMatches(PATTERNS_TO_BE_DEFERRED, clazz)) {
                     modify.add(clazz);
                 }
             }
+            synchronized (modify) {
+                modifyPatterns = new WildcardPatternSet(modify);
+            }
         }
     }
     
     boolean shouldDefer(String className) {
-        return shouldDefer(deferPackages, className);
+        return deferConditionMatches(getDeferPatterns(), className);
     }
     
     boolean shouldMockClass(String className) {
@@ -152,27 +159,22 @@ public class MockClassLoaderConfiguration {
         return ArrayUtil.clone(deferPackages);
     }
     
-    private boolean shouldDefer(String[] packages, String name) {
-        for (String packageToCheck : packages) {
-            if (deferConditionMatches(name, packageToCheck)) {
-                return true;
-            }
-        }
-        return false;
-    }
-    
-    private boolean deferConditionMatches(String name, String packageName) {
-        final boolean wildcardMatch = WildcardMatcher.matches(name, packageName);
-        return wildcardMatch && !(shouldLoadUnmodifiedClass(name) || shouldModifyClass(name));
+    private boolean deferConditionMatches(WildcardPatternSet packages, String name) {
+        return packages.matches(name) && !(shouldLoadUnmodifiedClass(name) || shouldModifyClass(name));
     }
     
-    private boolean shouldIgnore(String[] packages, String name) {
-        for (String ignore : packages) {
-            if (WildcardMatcher.matches(name, ignore)) {
-                return true;
-            }
+    /**
+     * The defer packages compiled to a pattern set. The packages are compiled again
+     * whenever {@link #deferPackages} has been replaced.
+     */
+    private WildcardPatternSet getDeferPatterns() {
+        final String[] packages = deferPackages;
+        CompiledPackages compiled = compiledDeferPackages;
+        if (compiled == null || compiled.packages != packages) {
+            compiled = new CompiledPackages(packages);
+            compiledDeferPackages = compiled;
         }
-        return false;
+        return compiled.patterns;
     }
     
     private boolean shouldLoadUnmodifiedClass(String className) {
@@ -201,7 +203,7 @@ public class MockClassLoaderConfiguration {
     }
     
     private boolean shouldIgnore(String className) {
-        return shouldIgnore(deferPackages, className);
+        return getDeferPatterns().matches(className);
     }
     
     boolean shouldModify(String className) {
@@ -215,7 +217,7 @@ public class MockClassLoaderConfiguration {
              * classes added by prepared for test should (i.e. those added in "modify")
              * have precedence over ignored packages.
              */
-            return WildcardMatcher.matchesAny(modify, className);
+            return modifyPatterns.matches(className);
         }
     }
     
@@ -236,4 +238,14 @@ public class MockClassLoaderConfiguration {
         }
         return PACKAGES_TO_BE_DEFERRED;
     }
+    
+    private static class CompiledPackages {
+        private final String[] packages;
+        private final WildcardPatternSet patterns;
+        
+        private CompiledPackages(String[] packages) {
+            this.packages = packages;
+            this.patterns = new WildcardPatternSet(packages);
+        }
+    }
 }
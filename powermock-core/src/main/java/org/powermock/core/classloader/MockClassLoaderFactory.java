@@ -17,10 +17,12 @@
 
 package org.powermock.core.classloader;
 
+import org.powermock.configuration.GlobalConfiguration;
 import org.powermock.core.classloader.annotations.MockPolicy;
 import org.powermock.core.classloader.annotations.PrepareEverythingForTest;
 import org.powermock.core.classloader.annotations.SuppressStaticInitializationFor;
 import org.powermock.core.classloader.annotations.UseClassPathAdjuster;
+import org.powermock.core.spi.MockClassLoaderReinitializer;
 import org.powermock.core.spi.PowerMockPolicy;
 import org.powermock.core.transformers.MockTransformer;
 import org.powermock.tests.utils.ArrayMerger;
@@ -113,6 +115,8 @@ public class MockClassLoaderFactory {
     
         initialize(mockLoader);
         
+        prewarm(mockLoader, classesToLoadByMockClassloader);
+        
         return mockLoader;
     }
     
@@ -132,19 +136,61 @@ public class MockClassLoaderFactory {
                                                   final String[] classesToLoadByMockClassloader,
                                                   final UseClassPathAdjuster useClassPathAdjuster,
                                                   final MockTransformer... extraMockTransformer) {
-        return MockClassLoaderBuilder.create(byteCodeFramework)
-                                     .forTestClass(testClass)
-                                     .addIgnorePackage(packagesToIgnore)
-                                     .addClassesToModify(classesToLoadByMockClassloader)
-                                     .addClassPathAdjuster(useClassPathAdjuster)
-                                     .addExtraMockTransformers(extraMockTransformer)
-                                     .build();
+        final MockClassLoaderBuilder builder = MockClassLoaderBuilder.create(byteCodeFramework)
+                                                                     .forTestClass(testClass)
+                                                                     .addIgnorePackage(packagesToIgnore)
+                                                                     .addClassesToModify(classesToLoadByMockClassloader)
+                                                                     .addClassPathAdjuster(useClassPathAdjuster)
+                                                                     .addExtraMockTransformers(extraMockTransformer);
+        
+        final Integer poolSize = GlobalConfiguration.powerMockConfiguration().getClassLoaderPoolSize();
+        if (poolSize == null || poolSize < 1 || testClass.isAnnotationPresent(MockPolicy.class)) {
+            return builder.build();
+        }
+        
+        final String key = builder.createPoolKey();
+        if (key == null) {
+            return builder.build();
+        }
+        MockClassLoader mockLoader = MockClassLoaderPool.reuse(key, testClass, builder.createTransformerChain());
+        if (mockLoader != null) {
+            reinitialize(mockLoader);
+        } else {
+            mockLoader = builder.build();
+            MockClassLoaderPool.put(key, mockLoader, testClass, poolSize);
+        }
+        return mockLoader;
+    }
+    
+    private void reinitialize(final MockClassLoader mockLoader) {
+        final String reinitializerClassName = GlobalConfiguration.powerMockConfiguration().getClassLoaderReinitializer();
+        if (reinitializerClassName == null) {
+            return;
+        }
+        final MockClassLoaderReinitializer reinitializer;
+        try {
+            reinitializer = (MockClassLoaderReinitializer) Class.forName(reinitializerClassName).newInstance();
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to create mock class loader reinitializer: " + reinitializerClassName, e);
+        }
+        reinitializer.reinitialize(mockLoader, testClass);
     }
     
     private void initialize(final ClassLoader mockLoader) {
         new MockPolicyInitializerImpl(testClass).initialize(mockLoader);
     }
     
+    /**
+     * Modify the classes which are prepared for test on several threads right away, if it's enabled with the
+     * {@code powermock.prewarm-threads} configuration property.
+     */
+    private void prewarm(final ClassLoader mockLoader, final String[] classesToLoadByMockClassloader) {
+        final Integer threads = GlobalConfiguration.powerMockConfiguration().getPrewarmThreads();
+        if (threads != null && threads > 0 && mockLoader instanceof MockClassLoader) {
+            ((MockClassLoader) mockLoader).prewarm(classesToLoadByMockClassloader, threads);
+        }
+    }
+    
     private boolean isContextClassLoaderShouldBeUsed(String[] classesToLoadByMockClassloader) {
         return (classesToLoadByMockClassloader == null || classesToLoadByMockClassloader.length == 0) && !hasMockPolicyProvidedClasses(testClass);
     }
@@ -0,0 +1,220 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core.classloader;
+
+import org.powermock.core.transformers.MockTransformerChain;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of mock class loaders which are reused by test classes with the same configuration, so classes which
+ * are prepared for test by many test classes are only loaded and modified once.
+ * <p>
+ * A pooled class loader is used by another test class only if neither the test class nor one of its super
+ * types is used by a test class which already uses the class loader or has already been loaded by it. The
+ * test class, its nested classes and its super types are modified by the transformers which are created for
+ * the test class, see {@link MockClassLoader#addTestClass(Class, MockTransformerChain)}.
+ * <p>
+ * The pool is bounded by the number of class loaders. When it's exceeded, the least recently used class
+ * loaders are released. All class loaders are released when the memory pool which holds the class metadata
+ * (metaspace or permanent generation) is almost exhausted.
+ */
+public final class MockClassLoaderPool {
+    
+    /**
+     * The class loaders are released if the class metadata takes more than this fraction of its maximum size.
+     */
+    static final double MAXIMUM_CLASS_METADATA_USAGE = 0.75;
+    
+    private static final LinkedHashMap<String, PooledClassLoader> CLASS_LOADERS = new LinkedHashMap<String, PooledClassLoader>(16, 0.75f, true);
+    
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+    private static final AtomicLong RELEASES = new AtomicLong();
+    
+    private MockClassLoaderPool() {
+    }
+    
+    /**
+     * @return how many times a pooled class loader has been reused.
+     */
+    public static long getHitCount() {
+        return HITS.get();
+    }
+    
+    /**
+     * @return how many times no pooled class loader could be reused.
+     */
+    public static long getMissCount() {
+        return MISSES.get();
+    }
+    
+    /**
+     * @return how many class loaders have been released from the pool.
+     */
+    public static long getReleaseCount() {
+        return RELEASES.get();
+    }
+    
+    public static synchronized int getSize() {
+        return CLASS_LOADERS.size();
+    }
+    
+    /**
+     * Release all pooled class loaders and reset the counters.
+     */
+    public static synchronized void clear() {
+        CLASS_LOADERS.clear();
+        HITS.set(0);
+        MISSES.set(0);
+        RELEASES.set(0);
+    }
+    
+    /**
+     * @param key                  the canonical configuration of the class loader, see
+     *                             {@link MockClassLoaderBuilder#createPoolKey()}.
+     * @param testClass            the test class which wants to use the class loader.
+     * @param mockTransformerChain the chain which is created for the test class.
+     * @return the pooled class loader which has been prepared for the test class or {@code null} if there is
+     * no class loader the test class can use.
+     */
+    static synchronized MockClassLoader reuse(final String key, final Class<?> testClass,
+                                              final MockTransformerChain mockTransformerChain) {
+        final PooledClassLoader pooledClassLoader = CLASS_LOADERS.get(key);
+        if (pooledClassLoader == null || !pooledClassLoader.canBeUsedBy(testClass)) {
+            MISSES.incrementAndGet();
+            return null;
+        }
+        HITS.incrementAndGet();
+        pooledClassLoader.addTestClass(testClass, mockTransformerChain);
+        return pooledClassLoader.classLoader;
+    }
+    
+    /**
+     * Add a new class loader to the pool and release class loaders if the pool is exceeded.
+     *
+     * @param maximumSize the maximum number of pooled class loaders.
+     */
+    static synchronized void put(final String key, final MockClassLoader classLoader, final Class<?> testClass,
+                                 final int maximumSize) {
+        if (isClassMetadataAlmostExhausted()) {
+            release(0);
+        }
+        CLASS_LOADERS.put(key, new PooledClassLoader(classLoader, testClass));
+        release(maximumSize);
+    }
+    
+    private static void release(final int maximumSize) {
+        final Iterator<Map.Entry<String, PooledClassLoader>> leastRecentlyUsed = CLASS_LOADERS.entrySet().iterator();
+        while (CLASS_LOADERS.size() > maximumSize && leastRecentlyUsed.hasNext()) {
+            leastRecentlyUsed.next();
+            leastRecentlyUsed.remove();
+            RELEASES.incrementAndGet();
+        }
+    }
+    
+    private static boolean isClassMetadataAlmostExhausted() {
+        for (MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (isClassMetadata(memoryPool.getName())) {
+                final MemoryUsage usage = memoryPool.getUsage();
+                if (usage != null && usage.getMax() > 0 && usage.getUsed() > usage.getMax() * MAXIMUM_CLASS_METADATA_USAGE) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    private static boolean isClassMetadata(final String memoryPoolName) {
+        return memoryPoolName.contains("Metaspace") || memoryPoolName.contains("Perm Gen") || memoryPoolName.contains("Class Space");
+    }
+    
+    private static class PooledClassLoader {
+        
+        private final MockClassLoader classLoader;
+        private final List<Class<?>> testClasses;
+        
+        private PooledClassLoader(final MockClassLoader classLoader, final Class<?> testClass) {
+            this.classLoader = classLoader;
+            this.testClasses = new ArrayList<Class<?>>();
+            this.testClasses.add(testClass);
+        }
+        
+        private boolean canBeUsedBy(final Class<?> testClass) {
+            final Set<String> types = getTestClassAndSuperTypes(testClass);
+            for (String type : types) {
+                if (classLoader.isLoaded(type)) {
+                    return false;
+                }
+            }
+            for (Class<?> usingTestClass : testClasses) {
+                if (isNested(testClass, usingTestClass) || isNested(usingTestClass, testClass)) {
+                    return false;
+                }
+                for (String type : getTestClassAndSuperTypes(usingTestClass)) {
+                    if (types.contains(type)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        
+        private void addTestClass(final Class<?> testClass, final MockTransformerChain mockTransformerChain) {
+            testClasses.add(testClass);
+            classLoader.addTestClass(testClass, mockTransformerChain);
+        }
+        
+        private static boolean isNested(final Class<?> type, final Class<?> enclosingType) {
+            return type.getName().startsWith(enclosingType.getName() + '$');
+        }
+        
+        /**
+         * @return the names of the test class and its super types which may be modified for the test class.
+         * System classes are always deferred to the system class loader.
+         */
+        private static Set<String> getTestClassAndSuperTypes(final Class<?> testClass) {
+            final Set<String> types = new HashSet<String>();
+            addTypeAndSuperTypes(types, testClass);
+            return types;
+        }
+        
+        private static void addTypeAndSuperTypes(final Set<String> types, final Class<?> type) {
+            if (type == null || type.getName().startsWith("java.")) {
+                return;
+            }
+            if (types.add(type.getName())) {
+                for (Class<?> interfaceType : type.getInterfaces()) {
+                    addTypeAndSuperTypes(types, interfaceType);
+                }
+                addTypeAndSuperTypes(types, type.getSuperclass());
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core.classloader;
+
+import org.powermock.configuration.GlobalConfiguration;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Cache of modified classes which is kept on disk, so classes don't have to be modified
+ * again by other test classes or later test runs.
+ * <p>
+ * The cache is disabled by default. It's enabled by setting the
+ * {@code powermock.byte-code-cache-directory} property in the PowerMock configuration file, for
+ * example to {@code build/powermock-cache}.
+ * <p>
+ * A cached class is found by a {@link ByteCodeCacheKey}, which is used as file name. Classes
+ * referred to by a modified class aren't part of the key, so the cache directory should be
+ * deleted when the PowerMock version or the class path changes.
+ */
+final class PersistentByteCodeCache {
+
+    private final File directory;
+
+    PersistentByteCodeCache(final File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @return the cache configured in the PowerMock configuration or {@code null} if
+     * modified classes shouldn't be cached.
+     */
+    static PersistentByteCodeCache fromConfiguration() {
+        final String directory = GlobalConfiguration.powerMockConfiguration().getByteCodeCacheDirectory();
+        return directory == null || directory.trim().length() == 0 ? null : new PersistentByteCodeCache(new File(directory.trim()));
+    }
+
+    /**
+     * @return the cached modified class mapped into memory or {@code null} if the class
+     * hasn't been cached or cannot be read.
+     */
+    ByteBuffer get(final String key) {
+        final File file = fileFor(key);
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            final RandomAccessFile in = new RandomAccessFile(file, "r");
+            try {
+                final FileChannel channel = in.getChannel();
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return {@code true} if the class has been cached.
+     */
+    boolean contains(final String key) {
+        return fileFor(key).isFile();
+    }
+
+    /**
+     * Store a modified class. The class is written to a temporary file first, which is renamed
+     * afterwards, so that concurrent test runs never read a partially written class. A class
+     * that cannot be written is silently not cached.
+     */
+    void put(final String key, final byte[] modifiedClass) {
+        final File file = fileFor(key);
+        final File parent = file.getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs() && !parent.isDirectory()) {
+            return;
+        }
+        try {
+            final File temporaryFile = File.createTempFile(key, ".tmp", parent);
+            try {
+                final FileOutputStream out = new FileOutputStream(temporaryFile);
+                try {
+                    out.write(modifiedClass);
+                } finally {
+                    out.close();
+                }
+                if (!temporaryFile.renameTo(file)) {
+                    // Another test run has cached the class in the meantime.
+                    temporaryFile.delete();
+                }
+            } catch (IOException e) {
+                temporaryFile.delete();
+            }
+        } catch (IOException e) {
+            // the class isn't cached
+        }
+    }
+
+    private File fileFor(final String key) {
+        return new File(new File(directory, key.substring(0, 2)), key.substring(2) + ".class");
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core.classloader;
+
+import org.powermock.configuration.GlobalConfiguration;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of modified classes which is shared by all mock class loaders of a JVM, so a class
+ * which is prepared for test by several test classes is only modified once.
+ * <p>
+ * The cache is bounded by the total size of the cached classes. When it's exceeded, the
+ * least recently used classes are evicted. The maximum size is read from the
+ * {@code powermock.shared-byte-code-cache-size} property (in megabytes) of the PowerMock configuration
+ * file when the cache is first used and can be changed with {@link #setMaximumSize(long)}. Setting the
+ * maximum size to {@code 0} disables the cache.
+ */
+public final class SharedByteCodeCache {
+
+    /**
+     * The default maximum size of the cache in bytes.
+     */
+    public static final long DEFAULT_MAXIMUM_SIZE = 64L * 1024 * 1024;
+
+    private static final LinkedHashMap<String, byte[]> CLASSES = new LinkedHashMap<String, byte[]>(256, 0.75f, true);
+
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+    private static final AtomicLong EVICTIONS = new AtomicLong();
+
+    private static volatile long maximumSize = getConfiguredMaximumSize();
+    private static long size;
+
+    private SharedByteCodeCache() {
+    }
+
+    /**
+     * @return how many classes have been found in the cache.
+     */
+    public static long getHitCount() {
+        return HITS.get();
+    }
+
+    /**
+     * @return how many classes haven't been found in the cache.
+     */
+    public static long getMissCount() {
+        return MISSES.get();
+    }
+
+    /**
+     * @return how many classes have been evicted from the cache to keep it below its maximum size.
+     */
+    public static long getEvictionCount() {
+        return EVICTIONS.get();
+    }
+
+    /**
+     * @return the total size of the cached classes in bytes.
+     */
+    public static synchronized long getSize() {
+        return size;
+    }
+
+    public static long getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Set the maximum total size of the cached classes in bytes. Classes are evicted right
+     * away if the cache exceeds the new maximum size.
+     *
+     * @param maximumSize the maximum size in bytes, {@code 0} disables the cache.
+     */
+    public static synchronized void setMaximumSize(final long maximumSize) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("Maximum size cannot be negative.");
+        }
+        SharedByteCodeCache.maximumSize = maximumSize;
+        evict();
+    }
+
+    /**
+     * Remove all cached classes and reset the counters.
+     */
+    public static synchronized void clear() {
+        CLASSES.clear();
+        size = 0;
+        HITS.set(0);
+        MISSES.set(0);
+        EVICTIONS.set(0);
+    }
+
+    static boolean isEnabled() {
+        return maximumSize > 0;
+    }
+
+    /**
+     * @return the cached class, which must not be modified, or {@code null}.
+     */
+    static synchronized byte[] get(final String key) {
+        final byte[] modifiedClass = CLASSES.get(key);
+        if (modifiedClass == null) {
+            MISSES.incrementAndGet();
+        } else {
+            HITS.incrementAndGet();
+        }
+        return modifiedClass;
+    }
+
+    /**
+     * @return {@code true} if the class is cached. Unlike {@link #get(String)} it doesn't count as a hit or
+     * a miss.
+     */
+    static synchronized boolean contains(final String key) {
+        return CLASSES.containsKey(key);
+    }
+
+    static synchronized void put(final String key, final byte[] modifiedClass) {
+        if (modifiedClass.length > maximumSize) {
+            return;
+        }
+        final byte[] previous = CLASSES.put(key, modifiedClass);
+        if (previous != null) {
+            size -= previous.length;
+        }
+        size += modifiedClass.length;
+        evict();
+    }
+
+    private static long getConfiguredMaximumSize() {
+        final Integer megabytes = GlobalConfiguration.powerMockConfiguration().getSharedByteCodeCacheSize();
+        if (megabytes == null) {
+            return DEFAULT_MAXIMUM_SIZE;
+        }
+        if (megabytes < 0) {
+            throw new IllegalArgumentException("Maximum size of the shared byte code cache cannot be negative.");
+        }
+        return megabytes * 1024L * 1024;
+    }
+
+    private static void evict() {
+        final Iterator<Map.Entry<String, byte[]>> leastRecentlyUsed = CLASSES.entrySet().iterator();
+        while (size > maximumSize && leastRecentlyUsed.hasNext()) {
+            size -= leastRecentlyUsed.next().getValue().length;
+            leastRecentlyUsed.remove();
+            EVICTIONS.incrementAndGet();
+        }
+    }
+}
@@ -45,5 +45,5 @@ import java.lang.annotation.Target;
 @Documented
 @Inherited
 public @interface PrepareEverythingForTest {
-    ByteCodeFramework byteCodeFramework() default ByteCodeFramework.Javassist;
+    ByteCodeFramework byteCodeFramework() default ByteCodeFramework.Configured;
 }
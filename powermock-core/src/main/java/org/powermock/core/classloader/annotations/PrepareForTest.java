@@ -78,5 +78,5 @@ public @interface PrepareForTest {
 
     String[] fullyQualifiedNames() default "";
     
-    ByteCodeFramework byteCodeFramework() default ByteCodeFramework.Javassist;
+    ByteCodeFramework byteCodeFramework() default ByteCodeFramework.Configured;
 }
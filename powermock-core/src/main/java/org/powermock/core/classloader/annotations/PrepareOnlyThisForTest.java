@@ -73,5 +73,5 @@ public @interface PrepareOnlyThisForTest {
 
 	String[] fullyQualifiedNames() default "";
     
-    ByteCodeFramework byteCodeFramework() default ByteCodeFramework.Javassist;
+    ByteCodeFramework byteCodeFramework() default ByteCodeFramework.Configured;
 }
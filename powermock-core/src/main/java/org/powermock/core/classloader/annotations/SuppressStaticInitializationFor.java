@@ -43,5 +43,5 @@ import java.lang.annotation.Target;
 public @interface SuppressStaticInitializationFor {
 	String[] value() default "";
     
-    ByteCodeFramework byteCodeFramework() default ByteCodeFramework.Javassist;
+    ByteCodeFramework byteCodeFramework() default ByteCodeFramework.Configured;
 }
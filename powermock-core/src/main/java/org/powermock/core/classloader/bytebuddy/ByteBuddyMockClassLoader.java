@@ -0,0 +1,228 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core.classloader.bytebuddy;
+
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.ClassFileLocator;
+import net.bytebuddy.jar.asm.ClassReader;
+import net.bytebuddy.jar.asm.ClassVisitor;
+import net.bytebuddy.jar.asm.ClassWriter;
+import net.bytebuddy.jar.asm.MethodTooLargeException;
+import net.bytebuddy.jar.asm.Opcodes;
+import net.bytebuddy.jar.asm.Type;
+import net.bytebuddy.pool.TypePool;
+import net.bytebuddy.utility.OpenedClassReader;
+import org.powermock.core.classloader.MockClassLoader;
+import org.powermock.core.classloader.MockClassLoaderConfiguration;
+import org.powermock.core.classloader.PowerMockModified;
+import org.powermock.core.classloader.annotations.UseClassPathAdjuster;
+import org.powermock.core.transformers.ClassWrapper;
+import org.powermock.core.transformers.bytebuddy.support.ByteBuddyClass;
+import org.powermock.core.transformers.bytebuddy.support.ByteBuddyClassWrapperFactory;
+import org.powermock.core.transformers.bytebuddy.support.DeferConstructors;
+
+import java.io.IOException;
+import java.security.ProtectionDomain;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A mock class loader which modifies classes with the ByteBuddy transformers. A class is read once with ASM
+ * and written through the visitors of all transformers of the chain, so each class is walked only once.
+ * The types a class refers to are described by a {@link TypePool} of this class loader instead of being
+ * loaded.
+ * <p>
+ * ASM cannot add a defer constructor to a super class which has been loaded already, so this class loader
+ * keeps track of the classes which have a defer constructor. When a modified class gets a defer constructor,
+ * its super classes which aren't modified get one as well when they are loaded.
+ */
+public class ByteBuddyMockClassLoader extends MockClassLoader {
+    
+    private static final String POWER_MOCK_MODIFIED_INTERNAL_NAME = Type.getInternalName(PowerMockModified.class);
+    
+    private final TypePool typePool;
+    private final ClassFileLocator classFileLocator;
+    private final DeferConstructors deferConstructors;
+    private final Set<String> classesWithDeferConstructor;
+    private final Set<String> classesWhichNeedDeferConstructor;
+    
+    public ByteBuddyMockClassLoader(String[] classesToMock) {
+        this(classesToMock, new String[0], null);
+    }
+    
+    public ByteBuddyMockClassLoader(String[] classesToMock, String[] packagesToDefer,
+                                    UseClassPathAdjuster useClassPathAdjuster) {
+        this(new MockClassLoaderConfiguration(classesToMock, packagesToDefer), useClassPathAdjuster);
+    }
+    
+    public ByteBuddyMockClassLoader(MockClassLoaderConfiguration configuration) {
+        this(configuration, null);
+    }
+    
+    /**
+     * @param useClassPathAdjuster is ignored, the class path adjusters are specific to Javassist.
+     */
+    public ByteBuddyMockClassLoader(MockClassLoaderConfiguration configuration,
+                                    UseClassPathAdjuster useClassPathAdjuster) {
+        super(configuration, new ByteBuddyClassWrapperFactory());
+        classFileLocator = ClassFileLocator.ForClassLoader.of(ByteBuddyMockClassLoader.class.getClassLoader());
+        typePool = new TypePool.Default(new TypePool.CacheProvider.Simple(), classFileLocator, TypePool.Default.ReaderMode.FAST);
+        deferConstructors = new LoadedDeferConstructors();
+        classesWithDeferConstructor = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        classesWhichNeedDeferConstructor = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    }
+    
+    @Override
+    protected Class<?> loadUnmockedClass(final String name, final ProtectionDomain protectionDomain) throws ClassNotFoundException {
+        if (!classesWhichNeedDeferConstructor.contains(name)) {
+            return super.loadUnmockedClass(name, protectionDomain);
+        }
+        
+        final ClassReader classReader = OpenedClassReader.of(readClass(name));
+        if ((classReader.getAccess() & Opcodes.ACC_INTERFACE) != 0) {
+            return super.loadUnmockedClass(name, protectionDomain);
+        }
+        final ClassWriter classWriter = new ClassWriter(classReader, 0);
+        classReader.accept(new DeferConstructorClassVisitor(classWriter, Opcodes.ACC_PUBLIC), 0);
+        classesWithDeferConstructor.add(name);
+        return defineClass(name, protectionDomain, classWriter.toByteArray());
+    }
+    
+    @Override
+    protected byte[] defineAndTransformClass(final String name, final ProtectionDomain protectionDomain) throws ClassNotFoundException {
+        final TypePool.Resolution resolution = typePool.describe(name);
+        if (!resolution.isResolved()) {
+            throw new ClassNotFoundException(name);
+        }
+        final TypeDescription type = resolution.resolve();
+        final ClassReader classReader = OpenedClassReader.of(readClass(name));
+        
+        final Set<String> tooLargeMethods = new HashSet<String>();
+        try {
+            while (true) {
+                final ByteBuddyClass clazz = transform(
+                    name, ByteBuddyClass.of(type, classReader, typePool, deferConstructors, tooLargeMethods)
+                );
+                try {
+                    final byte[] bytes = write(clazz);
+                    if (clazz.isDeferConstructorAdded()) {
+                        addDeferConstructorsToSuperClasses(type);
+                    }
+                    return bytes;
+                } catch (MethodTooLargeException e) {
+                    // write the class again with the body of the method replaced by the MethodSizeMockTransformer
+                    if (!tooLargeMethods.add(e.getMethodName() + e.getDescriptor())) {
+                        throw e;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to transform class with name " + name + ". Reason: " + e.getMessage(), e);
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private ByteBuddyClass transform(final String name, final ByteBuddyClass clazz) throws Exception {
+        final ClassWrapper<ByteBuddyClass> wrappedType = classWrapperFactory.wrap(clazz);
+        return transformClass(name, wrappedType).unwrap();
+    }
+    
+    private byte[] write(final ByteBuddyClass clazz) {
+        final ClassReader classReader = clazz.getClassReader();
+        final ClassWriter classWriter = new TypePoolClassWriter(classReader, typePool, ClassWriter.COMPUTE_FRAMES);
+        
+        ClassVisitor classVisitor = new MarkClassVisitor(classWriter);
+        if (clazz.isDeferConstructorAdded()) {
+            classVisitor = new DeferConstructorClassVisitor(classVisitor, clazz.getDeferConstructorModifiers());
+        }
+        classReader.accept(clazz.wrap(classVisitor), ClassReader.SKIP_FRAMES);
+        return classWriter.toByteArray();
+    }
+    
+    /**
+     * The defer constructor calls the defer constructor of the super class, so the super classes which
+     * aren't loaded yet get one when they are loaded.
+     */
+    private void addDeferConstructorsToSuperClasses(final TypeDescription type) {
+        classesWithDeferConstructor.add(type.getName());
+        TypeDescription.Generic superClass = type.getSuperClass();
+        while (superClass != null && !superClass.represents(Object.class)) {
+            final TypeDescription superType = superClass.asErasure();
+            classesWhichNeedDeferConstructor.add(superType.getName());
+            superClass = superType.getSuperClass();
+        }
+    }
+    
+    private byte[] readClass(final String name) throws ClassNotFoundException {
+        try {
+            final ClassFileLocator.Resolution resolution = classFileLocator.locate(name);
+            if (!resolution.isResolved()) {
+                throw new ClassNotFoundException(name);
+            }
+            return resolution.resolve();
+        } catch (IOException e) {
+            throw new ClassNotFoundException(name, e);
+        }
+    }
+    
+    /**
+     * A class has or will get a defer constructor if it has been loaded with a defer constructor, or if it
+     * isn't loaded yet, is loaded by this class loader and its super class has or will get one.
+     */
+    private class LoadedDeferConstructors implements DeferConstructors {
+        
+        @Override
+        public boolean hasDeferConstructor(final TypeDescription type) {
+            final String name = type.getName();
+            if (type.isInterface() || shouldDefer(name)) {
+                return false;
+            }
+            if (findLoadedClass(name) != null) {
+                return classesWithDeferConstructor.contains(name);
+            }
+            final TypeDescription.Generic superClass = type.getSuperClass();
+            return superClass != null && (superClass.represents(Object.class) || hasDeferConstructor(superClass.asErasure()));
+        }
+    }
+    
+    /**
+     * Marks the class as modified by PowerMock, see {@link PowerMockModified}.
+     */
+    private static class MarkClassVisitor extends ClassVisitor {
+        
+        private MarkClassVisitor(final ClassVisitor classVisitor) {
+            super(OpenedClassReader.ASM_API, classVisitor);
+        }
+        
+        @Override
+        public void visit(final int version, final int access, final String name, final String signature,
+                          final String superName, final String[] interfaces) {
+            if (Arrays.asList(interfaces).contains(POWER_MOCK_MODIFIED_INTERNAL_NAME)) {
+                super.visit(version, access, name, signature, superName, interfaces);
+            } else {
+                final String[] markedInterfaces = Arrays.copyOf(interfaces, interfaces.length + 1);
+                markedInterfaces[interfaces.length] = POWER_MOCK_MODIFIED_INTERNAL_NAME;
+                super.visit(version, access, name, signature, superName, markedInterfaces);
+            }
+        }
+    }
+}
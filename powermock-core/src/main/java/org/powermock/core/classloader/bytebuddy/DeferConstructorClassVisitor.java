@@ -0,0 +1,78 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core.classloader.bytebuddy;
+
+import net.bytebuddy.jar.asm.ClassVisitor;
+import net.bytebuddy.jar.asm.MethodVisitor;
+import net.bytebuddy.jar.asm.Opcodes;
+import net.bytebuddy.utility.OpenedClassReader;
+
+import static org.powermock.core.transformers.bytebuddy.support.TransformerHelper.CONSTRUCTOR_NAME;
+import static org.powermock.core.transformers.bytebuddy.support.TransformerHelper.DEFER_CONSTRUCTOR_DESCRIPTOR;
+import static org.powermock.core.transformers.bytebuddy.support.TransformerHelper.OBJECT_INTERNAL_NAME;
+import static org.powermock.core.transformers.bytebuddy.support.TransformerHelper.isDeferConstructor;
+
+/**
+ * Adds a defer constructor to the visited class unless it already has one. The defer constructor calls the
+ * default constructor of {@link Object} or the defer constructor of the super class.
+ */
+class DeferConstructorClassVisitor extends ClassVisitor {
+    
+    private final int modifiers;
+    private String superName;
+    private boolean hasDeferConstructor;
+    
+    DeferConstructorClassVisitor(final ClassVisitor classVisitor, final int modifiers) {
+        super(OpenedClassReader.ASM_API, classVisitor);
+        this.modifiers = modifiers;
+    }
+    
+    @Override
+    public void visit(final int version, final int access, final String name, final String signature,
+                      final String superName, final String[] interfaces) {
+        this.superName = superName;
+        super.visit(version, access, name, signature, superName, interfaces);
+    }
+    
+    @Override
+    public MethodVisitor visitMethod(final int access, final String name, final String descriptor,
+                                     final String signature, final String[] exceptions) {
+        hasDeferConstructor |= isDeferConstructor(name, descriptor);
+        return super.visitMethod(access, name, descriptor, signature, exceptions);
+    }
+    
+    @Override
+    public void visitEnd() {
+        if (!hasDeferConstructor) {
+            final MethodVisitor mv = super.visitMethod(modifiers, CONSTRUCTOR_NAME, DEFER_CONSTRUCTOR_DESCRIPTOR, null, null);
+            mv.visitCode();
+            mv.visitVarInsn(Opcodes.ALOAD, 0);
+            if (OBJECT_INTERNAL_NAME.equals(superName)) {
+                mv.visitMethodInsn(Opcodes.INVOKESPECIAL, superName, CONSTRUCTOR_NAME, "()V", false);
+            } else {
+                mv.visitInsn(Opcodes.ACONST_NULL);
+                mv.visitMethodInsn(Opcodes.INVOKESPECIAL, superName, CONSTRUCTOR_NAME, DEFER_CONSTRUCTOR_DESCRIPTOR, false);
+            }
+            mv.visitInsn(Opcodes.RETURN);
+            mv.visitMaxs(2, 2);
+            mv.visitEnd();
+        }
+        super.visitEnd();
+    }
+}
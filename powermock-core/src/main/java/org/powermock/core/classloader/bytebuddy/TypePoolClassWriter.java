@@ -0,0 +1,73 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core.classloader.bytebuddy;
+
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.jar.asm.ClassReader;
+import net.bytebuddy.jar.asm.ClassWriter;
+import net.bytebuddy.pool.TypePool;
+
+/**
+ * A class writer which looks up the common super class of two types in a {@link TypePool}, instead of
+ * loading the types like {@link ClassWriter} does. The types may not be loaded yet while a class is
+ * written, and loading them would load them with the wrong class loader.
+ */
+class TypePoolClassWriter extends ClassWriter {
+    
+    private static final String OBJECT_INTERNAL_NAME = "java/lang/Object";
+    
+    private final TypePool typePool;
+    
+    TypePoolClassWriter(final ClassReader classReader, final TypePool typePool, final int flags) {
+        super(classReader, flags);
+        this.typePool = typePool;
+    }
+    
+    @Override
+    protected String getCommonSuperClass(final String type1, final String type2) {
+        final TypeDescription first = describe(type1);
+        final TypeDescription second = describe(type2);
+        if (first.isAssignableFrom(second)) {
+            return type1;
+        }
+        if (second.isAssignableFrom(first)) {
+            return type2;
+        }
+        if (first.isInterface() || second.isInterface()) {
+            return OBJECT_INTERNAL_NAME;
+        }
+        TypeDescription superClass = first;
+        do {
+            final TypeDescription.Generic generic = superClass.getSuperClass();
+            if (generic == null) {
+                return OBJECT_INTERNAL_NAME;
+            }
+            superClass = generic.asErasure();
+        } while (!superClass.isAssignableFrom(second));
+        return superClass.getInternalName();
+    }
+    
+    private TypeDescription describe(final String internalName) {
+        final TypePool.Resolution resolution = typePool.describe(internalName.replace('/', '.'));
+        if (!resolution.isResolved()) {
+            throw new TypeNotPresentException(internalName.replace('/', '.'), null);
+        }
+        return resolution.resolve();
+    }
+}
@@ -19,19 +19,44 @@
 package org.powermock.core.classloader.javassist;
 
 import javassist.ClassClassPath;
+import javassist.ClassPath;
 import javassist.ClassPool;
+import javassist.CtClass;
 import org.powermock.core.classloader.annotations.UseClassPathAdjuster;
 
+import java.lang.ref.SoftReference;
+
+/**
+ * Creates the {@link ClassPool} of a {@link JavassistMockClassLoader}.
+ * <p>
+ * The class pools of all mock class loaders share a parent class pool, so classes which are
+ * deferred to the system class loader (like JDK and testing framework classes) are only read
+ * and parsed once. The class pool of a mock class loader only finds the classes which are
+ * loaded by the mock class loader itself, since modifying a class may change other classes
+ * defined by the same class loader (e.g. its super classes). The shared pool is softly
+ * referenced, it's released when no class pool refers to it any longer and memory is needed.
+ * <p>
+ * The classes of the shared pool are read by several threads, so they are never modified. Classes
+ * which have to be changed, like deferred super classes which get a defer constructor, are copied
+ * into the class pool of the mock class loader first.
+ */
 class ClassPoolFactory {
+    
+    private static SoftReference<ClassPool> sharedClassPool = new SoftReference<ClassPool>(null);
+    
     private UseClassPathAdjuster useClassPathAdjuster;
     
     ClassPoolFactory(UseClassPathAdjuster useClassPathAdjuster) {
         this.useClassPathAdjuster = useClassPathAdjuster;
     }
     
-    ClassPool create() {
-        ClassPool classPool = new ClassPool();
-        classPool.appendClassPath(new ClassClassPath(this.getClass()));
+    /**
+     * @param classPath the class path which finds the classes loaded by the mock class loader.
+     */
+    MockClassPool create(ClassPath classPath) {
+        MockClassPool classPool = new MockClassPool(getSharedClassPool());
+        classPool.childFirstLookup = true;
+        classPool.appendClassPath(classPath);
         
         if (useClassPathAdjuster != null) {
             try {
@@ -45,4 +70,33 @@ class ClassPoolFactory {
         
         return classPool;
     }
+    
+    /**
+     * The class pool of a mock class loader.
+     */
+    static class MockClassPool extends ClassPool {
+        
+        private MockClassPool(final ClassPool parent) {
+            super(parent);
+        }
+        
+        /**
+         * @return {@code true} if the class has been read into this class pool (not into its parent)
+         * and has been modified since, for instance because a defer constructor has been added to it.
+         */
+        boolean isModified(final String className) {
+            final CtClass clazz = getCached(className);
+            return clazz != null && clazz.isModified();
+        }
+    }
+    
+    static synchronized ClassPool getSharedClassPool() {
+        ClassPool classPool = sharedClassPool.get();
+        if (classPool == null) {
+            classPool = new ClassPool();
+            classPool.appendClassPath(new ClassClassPath(ClassPoolFactory.class));
+            sharedClassPool = new SoftReference<ClassPool>(classPool);
+        }
+        return classPool;
+    }
 }
@@ -18,6 +18,9 @@
 
 package org.powermock.core.classloader.javassist;
 
+import javassist.CannotCompileException;
+import javassist.ClassClassPath;
+import javassist.ClassPath;
 import javassist.ClassPool;
 import javassist.CtClass;
 import javassist.NotFoundException;
@@ -27,14 +30,20 @@ import org.powermock.core.classloader.annotations.UseClassPathAdjuster;
 import org.powermock.core.transformers.ClassWrapper;
 import org.powermock.core.transformers.javassist.support.JavaAssistClassWrapperFactory;
 
+import java.io.InputStream;
+import java.net.URL;
 import java.security.ProtectionDomain;
 
+import static org.powermock.core.transformers.javassist.support.TransformerHelper.addNewDeferConstructor;
+import static org.powermock.core.transformers.javassist.support.TransformerHelper.getModifiableClass;
+
 public class JavassistMockClassLoader extends MockClassLoader {
     
     public static final String CGLIB_ENHANCER = "net.sf.cglib.proxy.Enhancer$EnhancerKey$$KeyFactoryByCGLIB$$";
     public static final String CGLIB_METHOD_WRAPPER = "net.sf.cglib.core.MethodWrapper$MethodWrapperKey$$KeyFactoryByCGLIB";
     
-    private final ClassPool classPool;
+    private final ClassPoolFactory classPoolFactory;
+    private final ClassPoolFactory.MockClassPool classPool;
     
     public JavassistMockClassLoader(String[] classesToMock) {
         this(classesToMock, new String[0], null);
@@ -52,14 +61,27 @@ public class JavassistMockClassLoader extends MockClassLoader {
     public JavassistMockClassLoader(MockClassLoaderConfiguration configuration,
                                     UseClassPathAdjuster useClassPathAdjuster) {
         super(configuration, new JavaAssistClassWrapperFactory());
-        classPool = new ClassPoolFactory(useClassPathAdjuster).create();
+        classPoolFactory = new ClassPoolFactory(useClassPathAdjuster);
+        classPool = classPoolFactory.create(new LoadedClassesClassPath());
         classMarker = JavaAssistClassMarkerFactory.createClassMarker(classPool);
     }
     
     
+    /**
+     * Classes which are loaded but not modified are defined from their class file as it is, unless they
+     * have been changed in the class pool while other classes were modified (e.g. a defer constructor has
+     * been added to a super class). Only those and classes which aren't found on the class path are
+     * written by Javassist.
+     */
     @Override
     protected Class<?> loadUnmockedClass(String name, ProtectionDomain protectionDomain)
         throws ClassFormatError, ClassNotFoundException {
+        if (!classPool.isModified(name)) {
+            final Class<?> loadedClass = defineOriginalClass(name, protectionDomain);
+            if (loadedClass != null) {
+                return loadedClass;
+            }
+        }
         byte bytes[] = null;
         try {
             /*
@@ -99,7 +121,7 @@ public class JavassistMockClassLoader extends MockClassLoader {
             
             ClassWrapper<CtClass> wrappedType = classWrapperFactory.wrap(type);
             
-            wrappedType = transformClass(wrappedType);
+            wrappedType = transformClass(name, wrappedType);
             
             type = wrappedType.unwrap();
 
@@ -121,4 +143,74 @@ public class JavassistMockClassLoader extends MockClassLoader {
         return clazz;
     }
     
+    @Override
+    protected boolean isCacheable(final String name) {
+        final CtClass type = classPool.getOrNull(name);
+        return type == null || !type.isModified();
+    }
+    
+    /**
+     * The class is modified in a class pool of its own, so the changes which its modification makes to
+     * other classes don't leak into the class pool of this class loader while other classes are modified
+     * on other threads. They are made again by {@link #prepareForCachedClass(String)} when the class is
+     * loaded.
+     * <p>
+     * The class is modified just like an unchanged class of the class pool of this class loader, so the
+     * result is the same as when the class is modified while it's loaded and it can be cached.
+     */
+    @Override
+    protected byte[] transformClassAheadOfTime(final String name) throws Exception {
+        final ClassPool isolatedClassPool = classPoolFactory.create(new LoadedClassesClassPath());
+        
+        final CtClass type = isolatedClassPool.get(name);
+        
+        ClassWrapper<CtClass> wrappedType = classWrapperFactory.wrap(type);
+        
+        wrappedType = transformClass(name, wrappedType, JavaAssistClassMarkerFactory.createClassMarker(isolatedClassPool));
+        
+        return wrappedType.unwrap().toBytecode();
+    }
+    
+    /**
+     * Calls to super constructors of modified classes are replaced by calls to defer
+     * constructors, which are added to the super classes while the class is modified. The
+     * super classes are loaded by this class loader as well, so the defer constructors are
+     * added here if the class isn't modified again.
+     */
+    @Override
+    protected void prepareForCachedClass(final String name) throws ClassNotFoundException {
+        try {
+            final CtClass type = classPool.get(name);
+            if (type.isInterface()) {
+                return;
+            }
+            final CtClass superClass = type.getSuperclass();
+            if (superClass != null && !superClass.getName().startsWith("java.lang")) {
+                addNewDeferConstructor(getModifiableClass(classPool, superClass));
+            }
+        } catch (NotFoundException e) {
+            throw new ClassNotFoundException(name, e);
+        } catch (CannotCompileException e) {
+            throw new IllegalStateException("Failed to add defer constructors for super classes of " + name + ". Reason: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Class path which only finds the classes loaded by this class loader. All other classes are
+     * looked up in the class pool shared by all class loaders.
+     */
+    private class LoadedClassesClassPath implements ClassPath {
+        
+        private final ClassPath classPath = new ClassClassPath(JavassistMockClassLoader.class);
+        
+        @Override
+        public InputStream openClassfile(final String className) throws NotFoundException {
+            return shouldDefer(className) ? null : classPath.openClassfile(className);
+        }
+        
+        @Override
+        public URL find(final String className) {
+            return shouldDefer(className) ? null : classPath.find(className);
+        }
+    }
 }
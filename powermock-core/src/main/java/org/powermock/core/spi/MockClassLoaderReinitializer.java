@@ -0,0 +1,36 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core.spi;
+
+/**
+ * Resets the state which a test class leaves behind in a mock class loader, for example static fields of
+ * the classes which have been prepared for test, before the class loader is used by another test class.
+ * <p>
+ * Mock class loaders are only reused by test classes with the same configuration if the
+ * {@code powermock.class-loader-pool-size} configuration property is set. A reinitializer is configured with
+ * the {@code powermock.class-loader-reinitializer} property and must have a public default constructor.
+ */
+public interface MockClassLoaderReinitializer {
+    
+    /**
+     * @param classLoader the mock class loader which is reused.
+     * @param testClass   the test class which uses the class loader next.
+     */
+    void reinitialize(ClassLoader classLoader, Class<?> testClass);
+}
@@ -30,12 +30,12 @@ public enum MethodSignatures {
         
         @Override
         public String signatureFor(final MethodDescription method) {
-            return method.toGenericString();
+            return method.getDeclaringType().asErasure().getName() + '.' + method.getInternalName() + method.getDescriptor();
         }
         
         @Override
         public String signatureForReflection(final Method method) {
-            return method.toString();
+            return signatureFor(new MethodDescription.ForLoadedMethod(method));
         }
     }
     
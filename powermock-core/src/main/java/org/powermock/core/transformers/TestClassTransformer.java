@@ -73,4 +73,39 @@ public abstract class TestClassTransformer<T, M> implements MockTransformer<T> {
     protected Class<?> getTestClass() {
         return testClass;
     }
+    
+    /**
+     * @param className the name of a class.
+     * @return {@code true} if the transformer may modify the class, i.e. if the class
+     * is the test class, one of its super types or a class nested within the test class.
+     */
+    public boolean mayTransform(final String className) {
+        return isTestClassOrNestedClassOrSuperType(className, testClass);
+    }
+    
+    /**
+     * @return {@code true} if the class is the test class, one of its super types or a class nested within
+     * the test class.
+     */
+    public static boolean isTestClassOrNestedClassOrSuperType(final String className, final Class<?> testClass) {
+        if (className.startsWith(testClass.getName() + '$')) {
+            return true;
+        }
+        return isSuperTypeOf(className, testClass);
+    }
+    
+    private static boolean isSuperTypeOf(final String className, final Class<?> type) {
+        if (type == null) {
+            return false;
+        }
+        if (type.getName().equals(className)) {
+            return true;
+        }
+        for (Class<?> interfaceType : type.getInterfaces()) {
+            if (isSuperTypeOf(className, interfaceType)) {
+                return true;
+            }
+        }
+        return isSuperTypeOf(className, type.getSuperclass());
+    }
 }
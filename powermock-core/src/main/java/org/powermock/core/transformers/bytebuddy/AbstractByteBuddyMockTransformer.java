@@ -0,0 +1,51 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core.transformers.bytebuddy;
+
+import org.powermock.core.transformers.ClassWrapper;
+import org.powermock.core.transformers.MockTransformer;
+import org.powermock.core.transformers.TransformStrategy;
+import org.powermock.core.transformers.bytebuddy.support.ByteBuddyClass;
+
+public abstract class AbstractByteBuddyMockTransformer implements MockTransformer<ByteBuddyClass> {
+    
+    private final TransformStrategy strategy;
+    
+    public AbstractByteBuddyMockTransformer(final TransformStrategy strategy) {
+        this.strategy = strategy;
+    }
+    
+    @Override
+    public ClassWrapper<ByteBuddyClass> transform(final ClassWrapper<ByteBuddyClass> clazz) throws Exception {
+        final Object classImpl = clazz.unwrap();
+        if (classImpl instanceof ByteBuddyClass) {
+            return clazz.wrap(transform((ByteBuddyClass) classImpl));
+        }
+        return clazz;
+    }
+    
+    /**
+     * @return the class with the visitors which make the changes of the transformer.
+     */
+    public abstract ByteBuddyClass transform(ByteBuddyClass clazz) throws Exception;
+    
+    public TransformStrategy getStrategy() {
+        return strategy;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core.transformers.bytebuddy;
+
+import org.powermock.core.transformers.MockTransformer;
+import org.powermock.core.transformers.MockTransformerChain;
+import org.powermock.core.transformers.MockTransformerChainFactory;
+import org.powermock.core.transformers.TransformStrategy;
+import org.powermock.core.transformers.support.DefaultMockTransformerChain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates chains of the ByteBuddy transformers. The transformers only add visitors to the class, so the
+ * class is walked once for the whole chain when it's written.
+ */
+public class ByteBuddyMockTransformerChainFactory implements MockTransformerChainFactory {
+    
+    private static final TransformStrategy DEFAULT = TransformStrategy.CLASSLOADER;
+    
+    @Override
+    public MockTransformerChain createDefaultChain() {
+        return createDefaultChain(DEFAULT);
+    }
+    
+    @Override
+    public MockTransformerChain createDefaultChain(final TransformStrategy transformStrategy) {
+        return createChain(createDefaultTransformers(transformStrategy));
+    }
+    
+    @Override
+    public MockTransformerChain createDefaultChain(final List<MockTransformer> extraMockTransformers) {
+        final List<MockTransformer> transformers = createDefaultTransformers(DEFAULT);
+        transformers.addAll(extraMockTransformers);
+        return createChain(transformers);
+    }
+    
+    @Override
+    public MockTransformerChain createTestClassChain(final MockTransformer testClassTransformer) {
+        final List<MockTransformer> transformers = createDefaultTransformers(DEFAULT);
+        transformers.add(testClassTransformer);
+        return createChain(transformers);
+    }
+    
+    private MockTransformerChain createChain(final List<MockTransformer> transformers) {
+        return DefaultMockTransformerChain.newBuilder()
+                                          .append(transformers)
+                                          .build();
+    }
+    
+    private List<MockTransformer> createDefaultTransformers(final TransformStrategy transformStrategy) {
+        final List<MockTransformer> transformers = new ArrayList<MockTransformer>();
+        transformers.add(new ClassFinalModifierMockTransformer(transformStrategy));
+        transformers.add(new ConstructorsMockTransformer(transformStrategy));
+        transformers.add(new InstrumentMockTransformer(transformStrategy));
+        transformers.add(new PackagePrivateClassesMockTransformer(transformStrategy));
+        transformers.add(new StaticFinalFieldsMockTransformer(transformStrategy));
+        transformers.add(new StaticFinalNativeMethodMockTransformer(transformStrategy));
+        transformers.add(new SuppressStaticInitializerMockTransformer(transformStrategy));
+        transformers.add(new MethodSizeMockTransformer(transformStrategy));
+        return transformers;
+    }
+}
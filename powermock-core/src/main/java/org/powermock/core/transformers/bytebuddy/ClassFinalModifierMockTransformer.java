@@ -0,0 +1,74 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core.transformers.bytebuddy;
+
+import net.bytebuddy.jar.asm.ClassVisitor;
+import net.bytebuddy.jar.asm.Opcodes;
+import net.bytebuddy.utility.OpenedClassReader;
+import org.powermock.core.transformers.TransformStrategy;
+import org.powermock.core.transformers.bytebuddy.support.ByteBuddyClass;
+import org.powermock.core.transformers.bytebuddy.support.ClassVisitorWrapper;
+
+import static org.powermock.core.transformers.TransformStrategy.INST_REDEFINE;
+
+public class ClassFinalModifierMockTransformer extends AbstractByteBuddyMockTransformer {
+    
+    public ClassFinalModifierMockTransformer(final TransformStrategy strategy) {
+        super(strategy);
+    }
+    
+    @Override
+    public ByteBuddyClass transform(final ByteBuddyClass clazz) {
+        if (clazz.isInterface() || getStrategy() == INST_REDEFINE) {
+            return clazz;
+        }
+        
+        return clazz.withVisitor(new ClassVisitorWrapper() {
+            @Override
+            public ClassVisitor wrap(final ByteBuddyClass clazz, final ClassVisitor classVisitor) {
+                return new RemoveFinalClassVisitor(classVisitor);
+            }
+        });
+    }
+    
+    private static class RemoveFinalClassVisitor extends ClassVisitor {
+        
+        private String className;
+        
+        private RemoveFinalClassVisitor(final ClassVisitor classVisitor) {
+            super(OpenedClassReader.ASM_API, classVisitor);
+        }
+        
+        @Override
+        public void visit(final int version, final int access, final String name, final String signature,
+                          final String superName, final String[] interfaces) {
+            className = name;
+            super.visit(version, access & ~Opcodes.ACC_FINAL, name, signature, superName, interfaces);
+        }
+        
+        @Override
+        public void visitInnerClass(final String name, final String outerName, final String innerName, final int access) {
+            if (name.equals(className)) {
+                super.visitInnerClass(name, outerName, innerName, access & ~Opcodes.ACC_FINAL);
+            } else {
+                super.visitInnerClass(name, outerName, innerName, access);
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core.transformers.bytebuddy;
+
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.jar.asm.ClassVisitor;
+import net.bytebuddy.jar.asm.MethodVisitor;
+import net.bytebuddy.jar.asm.Opcodes;
+import net.bytebuddy.utility.OpenedClassReader;
+import org.powermock.core.MockGateway;
+import org.powermock.core.bytebuddy.MethodMaxLocals;
+import org.powermock.core.transformers.TestClassAwareTransformer;
+import org.powermock.core.transformers.TransformStrategy;
+import org.powermock.core.transformers.bytebuddy.support.ByteBuddyClass;
+import org.powermock.core.transformers.bytebuddy.support.ClassVisitorWrapper;
+import org.powermock.core.transformers.bytebuddy.support.PowerMockMethodVisitor;
+
+import static org.powermock.core.transformers.TransformStrategy.CLASSLOADER;
+import static org.powermock.core.transformers.bytebuddy.support.TransformerHelper.CONSTRUCTOR_NAME;
+import static org.powermock.core.transformers.bytebuddy.support.TransformerHelper.isTestClassOrNestedClass;
+
+/**
+ * Instrument new expressions, calls to system classes, constructor calls and field reads, see
+ * {@link PowerMockMethodVisitor}.
+ * <p>
+ * A class can be created without running the code of its constructors only if its super class has a defer
+ * constructor. Unlike Javassist, ASM cannot add a constructor to a super class which has been loaded already,
+ * so in class loader mode a defer constructor is added to each class whose super class has or will get one.
+ * The defer constructors of the test class and of the classes nested within it are not public.
+ */
+public class InstrumentMockTransformer extends AbstractByteBuddyMockTransformer implements TestClassAwareTransformer {
+    
+    private Class<?> mockGetawayClass;
+    private Class<?> testClass;
+    
+    public InstrumentMockTransformer(final TransformStrategy strategy) {
+        super(strategy);
+        this.mockGetawayClass = MockGateway.class;
+    }
+    
+    @Override
+    public void setTestClass(final Class<?> testClass) {
+        this.testClass = testClass;
+    }
+    
+    @Override
+    public ByteBuddyClass transform(final ByteBuddyClass clazz) {
+        ByteBuddyClass transformed = clazz;
+        if (shouldAddDeferConstructor(clazz)) {
+            final boolean testClassOrNestedClass = isTestClassOrNestedClass(testClass, clazz.getTypeDescription().getName());
+            transformed = transformed.withDeferConstructor(testClassOrNestedClass ? Opcodes.ACC_PROTECTED : Opcodes.ACC_PUBLIC);
+        }
+        
+        return transformed.withVisitor(new ClassVisitorWrapper() {
+            @Override
+            public ClassVisitor wrap(final ByteBuddyClass clazz, final ClassVisitor classVisitor) {
+                return new InstrumentClassVisitor(clazz, classVisitor);
+            }
+        });
+    }
+    
+    private boolean shouldAddDeferConstructor(final ByteBuddyClass clazz) {
+        if (getStrategy() != CLASSLOADER || clazz.isInterface()) {
+            return false;
+        }
+        final TypeDescription.Generic superClass = clazz.getTypeDescription().getSuperClass();
+        if (superClass == null) {
+            return false;
+        }
+        final TypeDescription superType = superClass.asErasure();
+        return superType.represents(Object.class) || clazz.hasDeferConstructor(superType);
+    }
+    
+    private class InstrumentClassVisitor extends ClassVisitor {
+        
+        private final ByteBuddyClass clazz;
+        private final MethodMaxLocals methodMaxLocals;
+        
+        private InstrumentClassVisitor(final ByteBuddyClass clazz, final ClassVisitor classVisitor) {
+            super(OpenedClassReader.ASM_API, classVisitor);
+            this.clazz = clazz;
+            this.methodMaxLocals = MethodMaxLocals.read(clazz.getClassReader());
+        }
+        
+        @Override
+        public MethodVisitor visitMethod(final int access, final String name, final String descriptor,
+                                         final String signature, final String[] exceptions) {
+            final MethodVisitor mv = super.visitMethod(access, name, descriptor, signature, exceptions);
+            if (mv == null || (access & (Opcodes.ACC_ABSTRACT | Opcodes.ACC_NATIVE)) != 0) {
+                return mv;
+            }
+            return new PowerMockMethodVisitor(
+                mv, getStrategy(), clazz, mockGetawayClass, CONSTRUCTOR_NAME.equals(name),
+                methodMaxLocals.getMethodMaxLocal(name, descriptor)
+            );
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core.transformers.bytebuddy;
+
+import net.bytebuddy.jar.asm.Label;
+import net.bytebuddy.jar.asm.MethodVisitor;
+import net.bytebuddy.jar.asm.Opcodes;
+import net.bytebuddy.jar.asm.Type;
+import org.powermock.core.MockGateway;
+import org.powermock.core.transformers.TransformStrategy;
+
+import static org.powermock.core.transformers.bytebuddy.support.TransformerHelper.getReturnTypeAsString;
+import static org.powermock.core.transformers.bytebuddy.support.TransformerHelper.invokeMockGateway;
+import static org.powermock.core.transformers.bytebuddy.support.TransformerHelper.loadProceed;
+import static org.powermock.core.transformers.bytebuddy.support.TransformerHelper.newArgumentsArray;
+import static org.powermock.core.transformers.bytebuddy.support.TransformerHelper.newSignatureArray;
+import static org.powermock.core.transformers.bytebuddy.support.TransformerHelper.pushClass;
+import static org.powermock.core.transformers.bytebuddy.support.TransformerHelper.unboxOrCast;
+
+abstract class MethodMockTransformer extends AbstractByteBuddyMockTransformer {
+    
+    private static final String INSTANCE_METHOD_CALL_DESCRIPTOR =
+        "(Ljava/lang/Object;Ljava/lang/String;[Ljava/lang/Object;[Ljava/lang/Class;Ljava/lang/String;)Ljava/lang/Object;";
+    
+    private static final String STATIC_METHOD_CALL_DESCRIPTOR =
+        "(Ljava/lang/Class;Ljava/lang/String;[Ljava/lang/Object;[Ljava/lang/Class;Ljava/lang/String;)Ljava/lang/Object;";
+    
+    private Class<?> mockGetawayClass;
+    
+    MethodMockTransformer(final TransformStrategy strategy) {
+        super(strategy);
+        this.mockGetawayClass = MockGateway.class;
+    }
+    
+    /**
+     * Write code which calls the mock gateway for the method and returns the value returned by the gateway,
+     * unless it's {@link MockGateway#PROCEED}. The code uses only the stack, so it can be written at the
+     * beginning of any method.
+     */
+    void writeMockGetawayCall(final MethodVisitor mv, final String owner, final int access, final String name,
+                              final String descriptor) {
+        final Type[] argumentTypes = Type.getArgumentTypes(descriptor);
+        final Type returnType = Type.getReturnType(descriptor);
+        final boolean isStatic = (access & Opcodes.ACC_STATIC) != 0;
+        
+        if (isStatic) {
+            pushClass(mv, Type.getObjectType(owner));
+        } else {
+            mv.visitVarInsn(Opcodes.ALOAD, 0);
+        }
+        mv.visitLdcInsn(name);
+        newArgumentsArray(mv, argumentTypes, isStatic ? 0 : 1);
+        newSignatureArray(mv, argumentTypes);
+        mv.visitLdcInsn(getReturnTypeAsString(returnType));
+        invokeMockGateway(
+            mv, mockGetawayClass, "methodCall", isStatic ? STATIC_METHOD_CALL_DESCRIPTOR : INSTANCE_METHOD_CALL_DESCRIPTOR
+        );
+        
+        final Label proceed = new Label();
+        mv.visitInsn(Opcodes.DUP);
+        loadProceed(mv);
+        mv.visitJumpInsn(Opcodes.IF_ACMPEQ, proceed);
+        unboxOrCast(mv, returnType);
+        mv.visitInsn(returnType.getOpcode(Opcodes.IRETURN));
+        mv.visitLabel(proceed);
+        mv.visitInsn(Opcodes.POP);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core.transformers.bytebuddy;
+
+import net.bytebuddy.jar.asm.ClassVisitor;
+import net.bytebuddy.jar.asm.MethodVisitor;
+import net.bytebuddy.jar.asm.Opcodes;
+import net.bytebuddy.jar.asm.Type;
+import net.bytebuddy.utility.OpenedClassReader;
+import org.powermock.core.transformers.TransformStrategy;
+import org.powermock.core.transformers.bytebuddy.support.ByteBuddyClass;
+import org.powermock.core.transformers.bytebuddy.support.ClassVisitorWrapper;
+import org.powermock.core.transformers.bytebuddy.support.ReplaceBodyMethodVisitor;
+
+import static org.powermock.core.transformers.bytebuddy.support.TransformerHelper.CLASS_INITIALIZER_NAME;
+import static org.powermock.core.transformers.bytebuddy.support.TransformerHelper.CONSTRUCTOR_NAME;
+import static org.powermock.core.transformers.bytebuddy.support.TransformerHelper.shouldSkipMethod;
+
+/**
+ * Replace the body of methods which exceeded the JVM limit of the code size by throwing an exception. The
+ * {@link org.powermock.core.classloader.bytebuddy.ByteBuddyMockClassLoader} finds such methods when it
+ * writes the class and transforms the class again.
+ */
+public class MethodSizeMockTransformer extends MethodMockTransformer {
+    
+    private static final String ILLEGAL_ACCESS_EXCEPTION = Type.getInternalName(IllegalAccessException.class);
+    
+    private static final String MESSAGE = "Method was too large and after instrumentation exceeded JVM limit. " +
+                                              "PowerMock modified the method to allow JVM to load the class. " +
+                                              "You can use PowerMock API to suppress or mock this method behaviour.";
+    
+    public MethodSizeMockTransformer(final TransformStrategy strategy) {
+        super(strategy);
+    }
+    
+    @Override
+    public ByteBuddyClass transform(final ByteBuddyClass clazz) {
+        return clazz.withVisitor(new ClassVisitorWrapper() {
+            @Override
+            public ClassVisitor wrap(final ByteBuddyClass clazz, final ClassVisitor classVisitor) {
+                return new MethodSizeClassVisitor(clazz, classVisitor);
+            }
+        });
+    }
+    
+    private class MethodSizeClassVisitor extends ClassVisitor {
+        
+        private final ByteBuddyClass clazz;
+        private String className;
+        
+        private MethodSizeClassVisitor(final ByteBuddyClass clazz, final ClassVisitor classVisitor) {
+            super(OpenedClassReader.ASM_API, classVisitor);
+            this.clazz = clazz;
+        }
+        
+        @Override
+        public void visit(final int version, final int access, final String name, final String signature,
+                          final String superName, final String[] interfaces) {
+            className = name;
+            super.visit(version, access, name, signature, superName, interfaces);
+        }
+        
+        @Override
+        public MethodVisitor visitMethod(final int access, final String name, final String descriptor,
+                                         final String signature, final String[] exceptions) {
+            final MethodVisitor mv = super.visitMethod(access, name, descriptor, signature, exceptions);
+            if (mv == null || CONSTRUCTOR_NAME.equals(name) || CLASS_INITIALIZER_NAME.equals(name)
+                    || shouldSkipMethod(access) || !clazz.isTooLarge(name, descriptor)) {
+                return mv;
+            }
+            
+            return new ReplaceBodyMethodVisitor(mv) {
+                @Override
+                protected void writeBody(final MethodVisitor mv) {
+                    writeMockGetawayCall(mv, className, access, name, descriptor);
+                    mv.visitTypeInsn(Opcodes.NEW, ILLEGAL_ACCESS_EXCEPTION);
+                    mv.visitInsn(Opcodes.DUP);
+                    mv.visitLdcInsn(MESSAGE);
+                    mv.visitMethodInsn(Opcodes.INVOKESPECIAL, ILLEGAL_ACCESS_EXCEPTION, CONSTRUCTOR_NAME, "(Ljava/lang/String;)V", false);
+                    mv.visitInsn(Opcodes.ATHROW);
+                }
+            };
+        }
+    }
+}
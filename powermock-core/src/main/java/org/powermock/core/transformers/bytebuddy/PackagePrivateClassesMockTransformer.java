@@ -0,0 +1,90 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core.transformers.bytebuddy;
+
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.jar.asm.ClassVisitor;
+import net.bytebuddy.jar.asm.Opcodes;
+import net.bytebuddy.utility.OpenedClassReader;
+import org.powermock.core.transformers.TransformStrategy;
+import org.powermock.core.transformers.bytebuddy.support.ByteBuddyClass;
+import org.powermock.core.transformers.bytebuddy.support.ClassVisitorWrapper;
+
+import static org.powermock.core.transformers.TransformStrategy.INST_REDEFINE;
+
+/**
+ * Set class modifier to public to allow for mocking of package private
+ * classes. This is needed because we've changed to CgLib naming policy
+ * to allow for mocking of signed classes.
+ */
+public class PackagePrivateClassesMockTransformer extends AbstractByteBuddyMockTransformer {
+    
+    public PackagePrivateClassesMockTransformer(final TransformStrategy strategy) {
+        super(strategy);
+    }
+    
+    @Override
+    public ByteBuddyClass transform(final ByteBuddyClass clazz) {
+        if (getStrategy() == INST_REDEFINE || !shouldMakePublic(clazz.getTypeDescription())) {
+            return clazz;
+        }
+        
+        return clazz.withVisitor(new ClassVisitorWrapper() {
+            @Override
+            public ClassVisitor wrap(final ByteBuddyClass clazz, final ClassVisitor classVisitor) {
+                return new MakePublicClassVisitor(classVisitor);
+            }
+        });
+    }
+    
+    private static boolean shouldMakePublic(final TypeDescription type) {
+        return type.isPackagePrivate()
+                   && isNotSystemClass(type.getName())
+                   && !(type.isInterface() && type.getDeclaringType() != null);
+    }
+    
+    private static boolean isNotSystemClass(final String name) {
+        return !name.startsWith("java.");
+    }
+    
+    private static class MakePublicClassVisitor extends ClassVisitor {
+        
+        private String className;
+        
+        private MakePublicClassVisitor(final ClassVisitor classVisitor) {
+            super(OpenedClassReader.ASM_API, classVisitor);
+        }
+        
+        @Override
+        public void visit(final int version, final int access, final String name, final String signature,
+                          final String superName, final String[] interfaces) {
+            className = name;
+            super.visit(version, access | Opcodes.ACC_PUBLIC, name, signature, superName, interfaces);
+        }
+        
+        @Override
+        public void visitInnerClass(final String name, final String outerName, final String innerName, final int access) {
+            if (name.equals(className)) {
+                super.visitInnerClass(name, outerName, innerName, access | Opcodes.ACC_PUBLIC);
+            } else {
+                super.visitInnerClass(name, outerName, innerName, access);
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core.transformers.bytebuddy;
+
+import net.bytebuddy.jar.asm.ClassVisitor;
+import net.bytebuddy.jar.asm.MethodVisitor;
+import net.bytebuddy.jar.asm.Opcodes;
+import net.bytebuddy.utility.OpenedClassReader;
+import org.powermock.core.MockGateway;
+import org.powermock.core.transformers.TransformStrategy;
+import org.powermock.core.transformers.bytebuddy.support.ByteBuddyClass;
+import org.powermock.core.transformers.bytebuddy.support.ClassVisitorWrapper;
+import org.powermock.core.transformers.bytebuddy.support.ReplaceBodyMethodVisitor;
+
+import static org.powermock.core.transformers.TransformStrategy.CLASSLOADER;
+import static org.powermock.core.transformers.bytebuddy.support.TransformerHelper.CLASS_INITIALIZER_NAME;
+
+public class SuppressStaticInitializerMockTransformer extends AbstractByteBuddyMockTransformer {
+    
+    public SuppressStaticInitializerMockTransformer(final TransformStrategy strategy) {
+        super(strategy);
+    }
+    
+    @Override
+    public ByteBuddyClass transform(final ByteBuddyClass clazz) {
+        if (getStrategy() != CLASSLOADER
+                || MockGateway.staticConstructorCall(clazz.getTypeDescription().getName()) == MockGateway.PROCEED) {
+            return clazz;
+        }
+        
+        return clazz.withVisitor(new ClassVisitorWrapper() {
+            @Override
+            public ClassVisitor wrap(final ByteBuddyClass clazz, final ClassVisitor classVisitor) {
+                return new ClassVisitor(OpenedClassReader.ASM_API, classVisitor) {
+                    @Override
+                    public MethodVisitor visitMethod(final int access, final String name, final String descriptor,
+                                                     final String signature, final String[] exceptions) {
+                        final MethodVisitor mv = super.visitMethod(access, name, descriptor, signature, exceptions);
+                        if (mv == null || !CLASS_INITIALIZER_NAME.equals(name)) {
+                            return mv;
+                        }
+                        return new ReplaceBodyMethodVisitor(mv) {
+                            @Override
+                            protected void writeBody(final MethodVisitor mv) {
+                                mv.visitInsn(Opcodes.RETURN);
+                            }
+                        };
+                    }
+                };
+            }
+        });
+    }
+}
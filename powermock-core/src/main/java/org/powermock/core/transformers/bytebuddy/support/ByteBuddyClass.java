@@ -0,0 +1,163 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core.transformers.bytebuddy.support;
+
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.jar.asm.ClassReader;
+import net.bytebuddy.jar.asm.ClassVisitor;
+import net.bytebuddy.pool.TypePool;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The representation of a class which is modified by ByteBuddy transformers. The class is immutable:
+ * transformers return a new instance which contains the {@link ClassVisitorWrapper}s that make their
+ * changes when the class is written by the {@link org.powermock.core.classloader.bytebuddy.ByteBuddyMockClassLoader}.
+ */
+public class ByteBuddyClass {
+    
+    private static final int NO_DEFER_CONSTRUCTOR = -1;
+    
+    public static ByteBuddyClass of(final TypeDescription typeDescription, final ClassReader classReader, final TypePool typePool,
+                                    final DeferConstructors deferConstructors, final Set<String> tooLargeMethods) {
+        return new ByteBuddyClass(
+            typeDescription, classReader, typePool, deferConstructors, tooLargeMethods,
+            Collections.<ClassVisitorWrapper>emptyList(), NO_DEFER_CONSTRUCTOR
+        );
+    }
+    
+    private final TypeDescription typeDescription;
+    private final ClassReader classReader;
+    private final TypePool typePool;
+    private final DeferConstructors deferConstructors;
+    private final Set<String> tooLargeMethods;
+    private final List<ClassVisitorWrapper> visitorWrappers;
+    private final int deferConstructorModifiers;
+    
+    private ByteBuddyClass(final TypeDescription typeDescription, final ClassReader classReader, final TypePool typePool,
+                           final DeferConstructors deferConstructors, final Set<String> tooLargeMethods,
+                           final List<ClassVisitorWrapper> visitorWrappers, final int deferConstructorModifiers) {
+        this.typeDescription = typeDescription;
+        this.classReader = classReader;
+        this.typePool = typePool;
+        this.deferConstructors = deferConstructors;
+        this.tooLargeMethods = tooLargeMethods;
+        this.visitorWrappers = visitorWrappers;
+        this.deferConstructorModifiers = deferConstructorModifiers;
+    }
+    
+    /**
+     * @return the description of the original class.
+     */
+    public TypeDescription getTypeDescription() {
+        return typeDescription;
+    }
+    
+    /**
+     * @return the reader of the original class file.
+     */
+    public ClassReader getClassReader() {
+        return classReader;
+    }
+    
+    /**
+     * @return the pool which describes the types the class refers to.
+     */
+    public TypePool getTypePool() {
+        return typePool;
+    }
+    
+    public boolean isInterface() {
+        return typeDescription.isInterface();
+    }
+    
+    /**
+     * @return {@code true} if the given type, usually a super class, has or will get a defer constructor.
+     */
+    public boolean hasDeferConstructor(final TypeDescription type) {
+        return deferConstructors.hasDeferConstructor(type);
+    }
+    
+    /**
+     * @return {@code true} if the method exceeded the JVM limit of the code size when the class was
+     * written before.
+     */
+    public boolean isTooLarge(final String name, final String descriptor) {
+        return tooLargeMethods.contains(name + descriptor);
+    }
+    
+    /**
+     * @return {@code true} if a defer constructor is added to the class when it's written.
+     */
+    public boolean isDeferConstructorAdded() {
+        return deferConstructorModifiers != NO_DEFER_CONSTRUCTOR;
+    }
+    
+    public int getDeferConstructorModifiers() {
+        return deferConstructorModifiers;
+    }
+    
+    /**
+     * @param modifiers the modifiers of the defer constructor.
+     * @return a class to which a defer constructor is added when it's written.
+     */
+    public ByteBuddyClass withDeferConstructor(final int modifiers) {
+        return new ByteBuddyClass(
+            typeDescription, classReader, typePool, deferConstructors, tooLargeMethods, visitorWrappers, modifiers
+        );
+    }
+    
+    /**
+     * @return a class which is changed by the given wrapper after it has been changed by all wrappers which
+     * have been added before.
+     */
+    public ByteBuddyClass withVisitor(final ClassVisitorWrapper visitorWrapper) {
+        final List<ClassVisitorWrapper> wrappers = new ArrayList<ClassVisitorWrapper>(visitorWrappers.size() + 1);
+        wrappers.addAll(visitorWrappers);
+        wrappers.add(visitorWrapper);
+        return new ByteBuddyClass(
+            typeDescription, classReader, typePool, deferConstructors, tooLargeMethods,
+            Collections.unmodifiableList(wrappers), deferConstructorModifiers
+        );
+    }
+    
+    /**
+     * Wrap the visitor with all visitors of the transformers. The events of the class reach the visitors in
+     * the order in which the wrappers have been added, so each transformer sees the changes of the
+     * transformers before it.
+     *
+     * @param classVisitor the visitor to which the changed class is written.
+     * @return the visitor to which the original class has to be read.
+     */
+    public ClassVisitor wrap(final ClassVisitor classVisitor) {
+        ClassVisitor wrapped = classVisitor;
+        for (int i = visitorWrappers.size() - 1; i >= 0; i--) {
+            wrapped = visitorWrappers.get(i).wrap(this, wrapped);
+        }
+        return wrapped;
+    }
+    
+    @Override
+    public String toString() {
+        return "ByteBuddyClass{" + "type=" + typeDescription.getName() + '}';
+    }
+}
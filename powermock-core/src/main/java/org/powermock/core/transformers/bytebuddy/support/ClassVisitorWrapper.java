@@ -0,0 +1,37 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core.transformers.bytebuddy.support;
+
+import net.bytebuddy.jar.asm.ClassVisitor;
+
+/**
+ * Wraps the visitor to which the events of a class are written with a visitor which changes the class.
+ * A ByteBuddy transformer doesn't change a class itself, but adds a wrapper to the {@link ByteBuddyClass}.
+ * All wrappers are applied when the class is written, so a class is read and written once for all
+ * transformers.
+ */
+public interface ClassVisitorWrapper {
+    
+    /**
+     * @param clazz        the class which is written with all changes of the transformer chain.
+     * @param classVisitor the visitor to which the changed class has to be written.
+     * @return a visitor which changes the class.
+     */
+    ClassVisitor wrap(ByteBuddyClass clazz, ClassVisitor classVisitor);
+}
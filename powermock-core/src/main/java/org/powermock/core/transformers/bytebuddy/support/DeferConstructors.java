@@ -0,0 +1,35 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core.transformers.bytebuddy.support;
+
+import net.bytebuddy.description.type.TypeDescription;
+
+/**
+ * Tells whether a class has a defer constructor, i.e. a constructor with a single
+ * {@link org.powermock.core.IndicateReloadClass} parameter which doesn't run any code of the class.
+ * ByteBuddy cannot add a defer constructor to a super class while a class is modified, so the class
+ * loader adds it when the super class is loaded.
+ */
+public interface DeferConstructors {
+    
+    /**
+     * @return {@code true} if the type has or will get a defer constructor when it's loaded.
+     */
+    boolean hasDeferConstructor(TypeDescription type);
+}
@@ -0,0 +1,476 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core.transformers.bytebuddy.support;
+
+import net.bytebuddy.description.field.FieldDescription;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.jar.asm.Handle;
+import net.bytebuddy.jar.asm.Label;
+import net.bytebuddy.jar.asm.MethodVisitor;
+import net.bytebuddy.jar.asm.Opcodes;
+import net.bytebuddy.jar.asm.Type;
+import net.bytebuddy.pool.TypePool;
+import net.bytebuddy.utility.OpenedClassReader;
+import org.powermock.core.MockGateway;
+import org.powermock.core.transformers.TransformStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.powermock.core.transformers.TransformStrategy.INST_REDEFINE;
+import static org.powermock.core.transformers.bytebuddy.support.TransformerHelper.CONSTRUCTOR_NAME;
+import static org.powermock.core.transformers.bytebuddy.support.TransformerHelper.DEFER_CONSTRUCTOR_DESCRIPTOR;
+import static org.powermock.core.transformers.bytebuddy.support.TransformerHelper.OBJECT_INTERNAL_NAME;
+import static org.powermock.core.transformers.bytebuddy.support.TransformerHelper.getReturnTypeAsString;
+import static org.powermock.core.transformers.bytebuddy.support.TransformerHelper.invokeMockGateway;
+import static org.powermock.core.transformers.bytebuddy.support.TransformerHelper.loadArguments;
+import static org.powermock.core.transformers.bytebuddy.support.TransformerHelper.loadProceed;
+import static org.powermock.core.transformers.bytebuddy.support.TransformerHelper.newArgumentsArray;
+import static org.powermock.core.transformers.bytebuddy.support.TransformerHelper.newSignatureArray;
+import static org.powermock.core.transformers.bytebuddy.support.TransformerHelper.pushClass;
+import static org.powermock.core.transformers.bytebuddy.support.TransformerHelper.shouldTreatAsSystemClassCall;
+import static org.powermock.core.transformers.bytebuddy.support.TransformerHelper.storeArguments;
+import static org.powermock.core.transformers.bytebuddy.support.TransformerHelper.unboxOrCast;
+
+/**
+ * The ASM counterpart of {@link org.powermock.core.transformers.javassist.support.PowerMockExpressionEditor}:
+ * it routes new expressions, calls to methods of system classes, calls to super and this constructors and
+ * reads of fields through the mock gateway.
+ * <p>
+ * The instructions which are inserted keep the values they need in local variables after the variables of
+ * the original method, so a visitor is created for each method with the number of local variables of the
+ * method.
+ */
+public class PowerMockMethodVisitor extends MethodVisitor {
+    
+    private static final String MOCK_GATEWAY_INTERNAL_NAME = Type.getInternalName(MockGateway.class);
+    private static final String CONSTRUCTOR_INTERNAL_NAME = "java/lang/reflect/Constructor";
+    private static final String WHITEBOX_INTERNAL_NAME = "org/powermock/reflect/internal/WhiteboxImpl";
+    
+    private static final String CLASS_CALL_DESCRIPTOR =
+        "(Ljava/lang/Class;[Ljava/lang/Object;[Ljava/lang/Class;)Ljava/lang/Object;";
+    private static final String METHOD_CALL_DESCRIPTOR =
+        "(Ljava/lang/Object;Ljava/lang/String;[Ljava/lang/Object;[Ljava/lang/Class;Ljava/lang/String;)Ljava/lang/Object;";
+    private static final String FIELD_CALL_DESCRIPTOR =
+        "(Ljava/lang/Object;Ljava/lang/Class;Ljava/lang/String;Ljava/lang/Class;)Ljava/lang/Object;";
+    private static final String NEW_INSTANCE_DESCRIPTOR = "(Ljava/lang/Class;)Ljava/lang/Object;";
+    
+    private final TransformStrategy strategy;
+    private final ByteBuddyClass clazz;
+    private final Class<?> mockGetawayClass;
+    private final boolean constructor;
+    private final int firstLocal;
+    private final List<NewInstruction> newInstructions;
+    
+    private NewInstruction lastNewInstruction;
+    private boolean constructorCallVisited;
+    
+    /**
+     * @param constructor {@code true} if the visited method is a constructor.
+     * @param maxLocals   the number of local variables of the original method.
+     */
+    public PowerMockMethodVisitor(final MethodVisitor methodVisitor, final TransformStrategy strategy, final ByteBuddyClass clazz,
+                                  final Class<?> mockGetawayClass, final boolean constructor, final int maxLocals) {
+        super(OpenedClassReader.ASM_API, methodVisitor);
+        this.strategy = strategy;
+        this.clazz = clazz;
+        this.mockGetawayClass = mockGetawayClass;
+        this.constructor = constructor;
+        this.firstLocal = maxLocals;
+        this.newInstructions = new ArrayList<NewInstruction>();
+    }
+    
+    @Override
+    public void visitInsn(final int opcode) {
+        if (opcode == Opcodes.DUP && lastNewInstruction != null) {
+            lastNewInstruction.duplicated = true;
+        }
+        lastNewInstruction = null;
+        super.visitInsn(opcode);
+    }
+    
+    @Override
+    public void visitIntInsn(final int opcode, final int operand) {
+        lastNewInstruction = null;
+        super.visitIntInsn(opcode, operand);
+    }
+    
+    @Override
+    public void visitVarInsn(final int opcode, final int var) {
+        lastNewInstruction = null;
+        super.visitVarInsn(opcode, var);
+    }
+    
+    @Override
+    public void visitTypeInsn(final int opcode, final String type) {
+        lastNewInstruction = null;
+        super.visitTypeInsn(opcode, type);
+        if (opcode == Opcodes.NEW) {
+            lastNewInstruction = new NewInstruction(type);
+            newInstructions.add(lastNewInstruction);
+        }
+    }
+    
+    @Override
+    public void visitJumpInsn(final int opcode, final Label label) {
+        lastNewInstruction = null;
+        super.visitJumpInsn(opcode, label);
+    }
+    
+    @Override
+    public void visitLdcInsn(final Object value) {
+        lastNewInstruction = null;
+        super.visitLdcInsn(value);
+    }
+    
+    @Override
+    public void visitIincInsn(final int var, final int increment) {
+        lastNewInstruction = null;
+        super.visitIincInsn(var, increment);
+    }
+    
+    @Override
+    public void visitTableSwitchInsn(final int min, final int max, final Label dflt, final Label... labels) {
+        lastNewInstruction = null;
+        super.visitTableSwitchInsn(min, max, dflt, labels);
+    }
+    
+    @Override
+    public void visitLookupSwitchInsn(final Label dflt, final int[] keys, final Label[] labels) {
+        lastNewInstruction = null;
+        super.visitLookupSwitchInsn(dflt, keys, labels);
+    }
+    
+    @Override
+    public void visitMultiANewArrayInsn(final String descriptor, final int numDimensions) {
+        lastNewInstruction = null;
+        super.visitMultiANewArrayInsn(descriptor, numDimensions);
+    }
+    
+    @Override
+    public void visitInvokeDynamicInsn(final String name, final String descriptor, final Handle bootstrapMethodHandle,
+                                       final Object... bootstrapMethodArguments) {
+        lastNewInstruction = null;
+        super.visitInvokeDynamicInsn(name, descriptor, bootstrapMethodHandle, bootstrapMethodArguments);
+    }
+    
+    @Override
+    public void visitFieldInsn(final int opcode, final String owner, final String name, final String descriptor) {
+        lastNewInstruction = null;
+        if (opcode == Opcodes.GETFIELD || opcode == Opcodes.GETSTATIC) {
+            final TypeDescription declaringType = findFieldDeclaringType(describe(owner), name);
+            if (declaringType != null) {
+                visitFieldRead(opcode, owner, name, descriptor, declaringType);
+                return;
+            }
+        }
+        super.visitFieldInsn(opcode, owner, name, descriptor);
+    }
+    
+    @Override
+    public void visitMethodInsn(final int opcode, final String owner, final String name, final String descriptor,
+                                final boolean isInterface) {
+        lastNewInstruction = null;
+        if (opcode == Opcodes.INVOKESPECIAL && CONSTRUCTOR_NAME.equals(name)) {
+            visitConstructorInvocation(owner, descriptor);
+        } else if (opcode != Opcodes.INVOKESPECIAL && owner.charAt(0) != '[') {
+            final Type declaringType = findSystemMethodDeclaringType(owner, name, descriptor);
+            if (declaringType != null) {
+                visitSystemMethodCall(opcode, owner, name, descriptor, isInterface, declaringType);
+            } else {
+                super.visitMethodInsn(opcode, owner, name, descriptor, isInterface);
+            }
+        } else {
+            super.visitMethodInsn(opcode, owner, name, descriptor, isInterface);
+        }
+    }
+    
+    private void visitConstructorInvocation(final String owner, final String descriptor) {
+        if (!newInstructions.isEmpty()) {
+            final NewInstruction newInstruction = newInstructions.remove(newInstructions.size() - 1);
+            if (newInstruction.duplicated && newInstruction.type.equals(owner)) {
+                visitNewExpression(owner, descriptor);
+            } else {
+                super.visitMethodInsn(Opcodes.INVOKESPECIAL, owner, CONSTRUCTOR_NAME, descriptor, false);
+            }
+        } else if (constructor && !constructorCallVisited) {
+            constructorCallVisited = true;
+            if (strategy != INST_REDEFINE && clazz.isDeferConstructorAdded() && !owner.startsWith("java/lang")) {
+                visitConstructorCall(owner, descriptor);
+            } else {
+                super.visitMethodInsn(Opcodes.INVOKESPECIAL, owner, CONSTRUCTOR_NAME, descriptor, false);
+            }
+        } else {
+            super.visitMethodInsn(Opcodes.INVOKESPECIAL, owner, CONSTRUCTOR_NAME, descriptor, false);
+        }
+    }
+    
+    /*
+     * Stack: uninitialized, uninitialized, arguments... -> instance
+     */
+    private void visitNewExpression(final String type, final String descriptor) {
+        final Type[] argumentTypes = Type.getArgumentTypes(descriptor);
+        final int result = storeArguments(mv, argumentTypes, firstLocal);
+        
+        pushClass(mv, Type.getObjectType(type));
+        newArgumentsArray(mv, argumentTypes, firstLocal);
+        newSignatureArray(mv, argumentTypes);
+        invokeMockGateway(mv, MockGateway.class, "newInstanceCall", CLASS_CALL_DESCRIPTOR);
+        mv.visitVarInsn(Opcodes.ASTORE, result);
+        
+        final Label mocked = new Label();
+        final Label cast = new Label();
+        final Label end = new Label();
+        mv.visitVarInsn(Opcodes.ALOAD, result);
+        loadProceed(mv);
+        mv.visitJumpInsn(Opcodes.IF_ACMPNE, mocked);
+        loadArguments(mv, argumentTypes, firstLocal);
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, type, CONSTRUCTOR_NAME, descriptor, false);
+        mv.visitJumpInsn(Opcodes.GOTO, end);
+        
+        mv.visitLabel(mocked);
+        mv.visitInsn(Opcodes.POP);
+        mv.visitInsn(Opcodes.POP);
+        mv.visitVarInsn(Opcodes.ALOAD, result);
+        mv.visitTypeInsn(Opcodes.INSTANCEOF, CONSTRUCTOR_INTERNAL_NAME);
+        mv.visitJumpInsn(Opcodes.IFEQ, cast);
+        pushClass(mv, Type.getObjectType(type));
+        mv.visitMethodInsn(Opcodes.INVOKESTATIC, WHITEBOX_INTERNAL_NAME, "newInstance", NEW_INSTANCE_DESCRIPTOR, false);
+        mv.visitVarInsn(Opcodes.ASTORE, result);
+        mv.visitLabel(cast);
+        mv.visitVarInsn(Opcodes.ALOAD, result);
+        mv.visitTypeInsn(Opcodes.CHECKCAST, type);
+        mv.visitLabel(end);
+    }
+    
+    /*
+     * Stack: uninitialized this, arguments... -> (empty)
+     */
+    private void visitConstructorCall(final String owner, final String descriptor) {
+        final Type[] argumentTypes = Type.getArgumentTypes(descriptor);
+        storeArguments(mv, argumentTypes, firstLocal);
+        
+        pushClass(mv, Type.getObjectType(owner));
+        newArgumentsArray(mv, argumentTypes, firstLocal);
+        newSignatureArray(mv, argumentTypes);
+        invokeMockGateway(mv, mockGetawayClass, "constructorCall", CLASS_CALL_DESCRIPTOR);
+        
+        final Label proceed = new Label();
+        final Label end = new Label();
+        loadProceed(mv);
+        mv.visitJumpInsn(Opcodes.IF_ACMPEQ, proceed);
+        final String superName = clazz.getClassReader().getSuperName();
+        if (OBJECT_INTERNAL_NAME.equals(superName)) {
+            mv.visitMethodInsn(Opcodes.INVOKESPECIAL, superName, CONSTRUCTOR_NAME, "()V", false);
+        } else {
+            mv.visitInsn(Opcodes.ACONST_NULL);
+            mv.visitMethodInsn(Opcodes.INVOKESPECIAL, superName, CONSTRUCTOR_NAME, DEFER_CONSTRUCTOR_DESCRIPTOR, false);
+        }
+        mv.visitJumpInsn(Opcodes.GOTO, end);
+        
+        mv.visitLabel(proceed);
+        loadArguments(mv, argumentTypes, firstLocal);
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, owner, CONSTRUCTOR_NAME, descriptor, false);
+        mv.visitLabel(end);
+    }
+    
+    /*
+     * Stack: (instance), arguments... -> (value)
+     */
+    private void visitSystemMethodCall(final int opcode, final String owner, final String name, final String descriptor,
+                                       final boolean isInterface, final Type declaringType) {
+        final Type[] argumentTypes = Type.getArgumentTypes(descriptor);
+        final Type returnType = Type.getReturnType(descriptor);
+        final boolean isStatic = opcode == Opcodes.INVOKESTATIC;
+        
+        int local = storeArguments(mv, argumentTypes, firstLocal);
+        final int instance = local;
+        if (!isStatic) {
+            mv.visitVarInsn(Opcodes.ASTORE, instance);
+            local++;
+        }
+        final int result = local;
+        
+        if (isStatic) {
+            pushClass(mv, declaringType);
+        } else {
+            final Label notNull = new Label();
+            mv.visitVarInsn(Opcodes.ALOAD, instance);
+            mv.visitInsn(Opcodes.DUP);
+            mv.visitJumpInsn(Opcodes.IFNONNULL, notNull);
+            mv.visitInsn(Opcodes.POP);
+            pushClass(mv, declaringType);
+            mv.visitLabel(notNull);
+        }
+        mv.visitLdcInsn(name);
+        newArgumentsArray(mv, argumentTypes, firstLocal);
+        newSignatureArray(mv, argumentTypes);
+        mv.visitLdcInsn(getReturnTypeAsString(returnType));
+        invokeMockGateway(mv, MockGateway.class, "methodCall", METHOD_CALL_DESCRIPTOR);
+        mv.visitVarInsn(Opcodes.ASTORE, result);
+        
+        final Label mocked = new Label();
+        final Label end = new Label();
+        mv.visitVarInsn(Opcodes.ALOAD, result);
+        loadProceed(mv);
+        mv.visitJumpInsn(Opcodes.IF_ACMPNE, mocked);
+        if (!isStatic) {
+            mv.visitVarInsn(Opcodes.ALOAD, instance);
+        }
+        loadArguments(mv, argumentTypes, firstLocal);
+        mv.visitMethodInsn(opcode, owner, name, descriptor, isInterface);
+        mv.visitJumpInsn(Opcodes.GOTO, end);
+        
+        mv.visitLabel(mocked);
+        if (returnType.getSort() != Type.VOID) {
+            mv.visitVarInsn(Opcodes.ALOAD, result);
+            unboxOrCast(mv, returnType);
+        }
+        mv.visitLabel(end);
+    }
+    
+    /*
+     * Stack: (instance) -> value
+     */
+    private void visitFieldRead(final int opcode, final String owner, final String name, final String descriptor,
+                                final TypeDescription declaringType) {
+        final Type fieldType = Type.getType(descriptor);
+        final boolean isStatic = opcode == Opcodes.GETSTATIC;
+        final int instance = firstLocal;
+        final int result = firstLocal + 1;
+        
+        if (isStatic) {
+            mv.visitInsn(Opcodes.ACONST_NULL);
+        } else {
+            mv.visitVarInsn(Opcodes.ASTORE, instance);
+            mv.visitVarInsn(Opcodes.ALOAD, instance);
+        }
+        pushClass(mv, Type.getType(declaringType.getDescriptor()));
+        mv.visitLdcInsn(name);
+        pushClass(mv, fieldType);
+        invokeMockGateway(mv, MockGateway.class, "fieldCall", FIELD_CALL_DESCRIPTOR);
+        mv.visitVarInsn(Opcodes.ASTORE, result);
+        
+        final Label mocked = new Label();
+        final Label end = new Label();
+        mv.visitVarInsn(Opcodes.ALOAD, result);
+        loadProceed(mv);
+        mv.visitJumpInsn(Opcodes.IF_ACMPNE, mocked);
+        if (!isStatic) {
+            mv.visitVarInsn(Opcodes.ALOAD, instance);
+        }
+        mv.visitFieldInsn(opcode, owner, name, descriptor);
+        mv.visitJumpInsn(Opcodes.GOTO, end);
+        
+        mv.visitLabel(mocked);
+        mv.visitVarInsn(Opcodes.ALOAD, result);
+        unboxOrCast(mv, fieldType);
+        mv.visitLabel(end);
+    }
+    
+    /**
+     * @return the type which declares the method if it's a system class, otherwise {@code null}.
+     */
+    private Type findSystemMethodDeclaringType(final String owner, final String name, final String descriptor) {
+        if (shouldTreatAsSystemClassCall(owner.replace('/', '.'))) {
+            return Type.getObjectType(owner);
+        }
+        final TypeDescription declaringType = findMethodDeclaringType(describe(owner), name, descriptor);
+        if (declaringType != null && shouldTreatAsSystemClassCall(declaringType.getName())) {
+            return Type.getType(declaringType.getDescriptor());
+        }
+        return null;
+    }
+    
+    private TypeDescription findMethodDeclaringType(final TypeDescription type, final String name, final String descriptor) {
+        if (type == null) {
+            return null;
+        }
+        try {
+            for (MethodDescription.InDefinedShape method : type.getDeclaredMethods()) {
+                if (method.getInternalName().equals(name) && method.getDescriptor().equals(descriptor)) {
+                    return type;
+                }
+            }
+            TypeDescription declaringType = findMethodDeclaringType(erasure(type.getSuperClass()), name, descriptor);
+            for (TypeDescription.Generic interfaceType : type.getInterfaces()) {
+                if (declaringType != null) {
+                    break;
+                }
+                declaringType = findMethodDeclaringType(interfaceType.asErasure(), name, descriptor);
+            }
+            return declaringType;
+        } catch (IllegalStateException e) {
+            /*
+             * The type or one of its super types cannot be found, the call is kept like the Javassist
+             * implementation does when it cannot find the method.
+             */
+            return null;
+        }
+    }
+    
+    /**
+     * @return the type which declares the field if it's not synthetic, otherwise {@code null}.
+     */
+    private TypeDescription findFieldDeclaringType(final TypeDescription type, final String name) {
+        if (type == null) {
+            return null;
+        }
+        try {
+            for (FieldDescription.InDefinedShape field : type.getDeclaredFields()) {
+                if (field.getName().equals(name)) {
+                    return field.isSynthetic() ? null : type;
+                }
+            }
+            for (TypeDescription.Generic interfaceType : type.getInterfaces()) {
+                final TypeDescription declaringType = findFieldDeclaringType(interfaceType.asErasure(), name);
+                if (declaringType != null) {
+                    return declaringType;
+                }
+            }
+            return findFieldDeclaringType(erasure(type.getSuperClass()), name);
+        } catch (IllegalStateException e) {
+            return null;
+        }
+    }
+    
+    private TypeDescription describe(final String internalName) {
+        final String name = internalName.replace('/', '.');
+        if (name.equals(clazz.getTypeDescription().getName())) {
+            return clazz.getTypeDescription();
+        }
+        final TypePool.Resolution resolution = clazz.getTypePool().describe(name);
+        return resolution.isResolved() ? resolution.resolve() : null;
+    }
+    
+    private static TypeDescription erasure(final TypeDescription.Generic type) {
+        return type == null ? null : type.asErasure();
+    }
+    
+    private static class NewInstruction {
+        
+        private final String type;
+        private boolean duplicated;
+        
+        private NewInstruction(final String type) {
+            this.type = type;
+        }
+    }
+}
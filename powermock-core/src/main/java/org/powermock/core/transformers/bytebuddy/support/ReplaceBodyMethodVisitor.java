@@ -0,0 +1,95 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core.transformers.bytebuddy.support;
+
+import net.bytebuddy.jar.asm.AnnotationVisitor;
+import net.bytebuddy.jar.asm.Attribute;
+import net.bytebuddy.jar.asm.MethodVisitor;
+import net.bytebuddy.jar.asm.TypePath;
+import net.bytebuddy.utility.OpenedClassReader;
+
+/**
+ * A method visitor which drops the code of the visited method and writes a new body instead of it.
+ * The annotations and parameters of the method are kept.
+ */
+public abstract class ReplaceBodyMethodVisitor extends MethodVisitor {
+    
+    private final MethodVisitor target;
+    private boolean inCode;
+    
+    public ReplaceBodyMethodVisitor(final MethodVisitor target) {
+        super(OpenedClassReader.ASM_API);
+        this.target = target;
+    }
+    
+    @Override
+    public void visitParameter(final String name, final int access) {
+        target.visitParameter(name, access);
+    }
+    
+    @Override
+    public AnnotationVisitor visitAnnotationDefault() {
+        return target.visitAnnotationDefault();
+    }
+    
+    @Override
+    public AnnotationVisitor visitAnnotation(final String descriptor, final boolean visible) {
+        return target.visitAnnotation(descriptor, visible);
+    }
+    
+    @Override
+    public AnnotationVisitor visitTypeAnnotation(final int typeRef, final TypePath typePath, final String descriptor, final boolean visible) {
+        return inCode ? null : target.visitTypeAnnotation(typeRef, typePath, descriptor, visible);
+    }
+    
+    @Override
+    public void visitAnnotableParameterCount(final int parameterCount, final boolean visible) {
+        target.visitAnnotableParameterCount(parameterCount, visible);
+    }
+    
+    @Override
+    public AnnotationVisitor visitParameterAnnotation(final int parameter, final String descriptor, final boolean visible) {
+        return target.visitParameterAnnotation(parameter, descriptor, visible);
+    }
+    
+    @Override
+    public void visitAttribute(final Attribute attribute) {
+        if (!inCode) {
+            target.visitAttribute(attribute);
+        }
+    }
+    
+    @Override
+    public void visitCode() {
+        inCode = true;
+    }
+    
+    @Override
+    public void visitEnd() {
+        target.visitCode();
+        writeBody(target);
+        target.visitMaxs(0, 0);
+        target.visitEnd();
+    }
+    
+    /**
+     * Write the instructions of the new body.
+     */
+    protected abstract void writeBody(MethodVisitor mv);
+}
@@ -0,0 +1,247 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core.transformers.bytebuddy.support;
+
+import net.bytebuddy.jar.asm.MethodVisitor;
+import net.bytebuddy.jar.asm.Opcodes;
+import net.bytebuddy.jar.asm.Type;
+import org.powermock.core.IndicateReloadClass;
+import org.powermock.core.MockGateway;
+
+/**
+ * Helpers which write the instructions the ByteBuddy transformers insert into methods.
+ */
+public class TransformerHelper {
+    
+    public static final String VOID = "";
+    
+    public static final String CONSTRUCTOR_NAME = "<init>";
+    
+    public static final String CLASS_INITIALIZER_NAME = "<clinit>";
+    
+    public static final String DEFER_CONSTRUCTOR_DESCRIPTOR = Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(IndicateReloadClass.class));
+    
+    public static final String OBJECT_INTERNAL_NAME = Type.getInternalName(Object.class);
+    
+    private static final String OBJECT_DESCRIPTOR = Type.getDescriptor(Object.class);
+    
+    private static final String MOCK_GATEWAY_INTERNAL_NAME = Type.getInternalName(MockGateway.class);
+    
+    public static boolean isDeferConstructor(final String name, final String descriptor) {
+        return CONSTRUCTOR_NAME.equals(name) && DEFER_CONSTRUCTOR_DESCRIPTOR.equals(descriptor);
+    }
+    
+    public static boolean shouldSkipMethod(final int access) {
+        final boolean synthetic = (access & Opcodes.ACC_SYNTHETIC) != 0 && (access & Opcodes.ACC_BRIDGE) == 0;
+        return synthetic || (access & Opcodes.ACC_ABSTRACT) != 0;
+    }
+    
+    public static boolean isNotSyntheticField(final int access) {
+        return (access & Opcodes.ACC_SYNTHETIC) == 0;
+    }
+    
+    public static boolean shouldTreatAsSystemClassCall(final String className) {
+        return className.startsWith("java.");
+    }
+    
+    /**
+     * @return {@code true} if the class is the test class or a class nested within it.
+     */
+    public static boolean isTestClassOrNestedClass(final Class<?> testClass, final String className) {
+        if (testClass == null) {
+            return false;
+        }
+        final String testClassName = testClass.getName();
+        return className.equals(testClassName) || className.startsWith(testClassName + '$');
+    }
+    
+    public static String getReturnTypeAsString(final Type returnType) {
+        return returnType.getSort() == Type.VOID ? VOID : returnType.getClassName();
+    }
+    
+    /**
+     * Push {@link MockGateway#PROCEED} on the stack.
+     */
+    public static void loadProceed(final MethodVisitor mv) {
+        mv.visitFieldInsn(Opcodes.GETSTATIC, MOCK_GATEWAY_INTERNAL_NAME, "PROCEED", OBJECT_DESCRIPTOR);
+    }
+    
+    public static void invokeMockGateway(final MethodVisitor mv, final Class<?> mockGetawayClass, final String name,
+                                         final String descriptor) {
+        mv.visitMethodInsn(Opcodes.INVOKESTATIC, Type.getInternalName(mockGetawayClass), name, descriptor, false);
+    }
+    
+    public static void pushInt(final MethodVisitor mv, final int value) {
+        if (value >= -1 && value <= 5) {
+            mv.visitInsn(Opcodes.ICONST_0 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            mv.visitIntInsn(Opcodes.BIPUSH, value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            mv.visitIntInsn(Opcodes.SIPUSH, value);
+        } else {
+            mv.visitLdcInsn(value);
+        }
+    }
+    
+    /**
+     * Push the {@link Class} which represents the type on the stack.
+     */
+    public static void pushClass(final MethodVisitor mv, final Type type) {
+        final String wrapper = getWrapperInternalName(type);
+        if (wrapper == null) {
+            mv.visitLdcInsn(type);
+        } else {
+            mv.visitFieldInsn(Opcodes.GETSTATIC, wrapper, "TYPE", "Ljava/lang/Class;");
+        }
+    }
+    
+    /**
+     * Replace the value of the type on top of the stack by an object, boxing primitive values.
+     */
+    public static void box(final MethodVisitor mv, final Type type) {
+        final String wrapper = getWrapperInternalName(type);
+        if (wrapper != null) {
+            mv.visitMethodInsn(
+                Opcodes.INVOKESTATIC, wrapper, "valueOf", Type.getMethodDescriptor(Type.getObjectType(wrapper), type), false
+            );
+        }
+    }
+    
+    /**
+     * Replace the object on top of the stack by a value of the type, i.e. takes care of casting the wrapper
+     * type to the primitive type if needed. The object is removed if the type is {@code void}.
+     */
+    public static void unboxOrCast(final MethodVisitor mv, final Type type) {
+        switch (type.getSort()) {
+            case Type.VOID:
+                mv.visitInsn(Opcodes.POP);
+                break;
+            case Type.BOOLEAN:
+                unbox(mv, "java/lang/Boolean", "booleanValue", type);
+                break;
+            case Type.CHAR:
+                unbox(mv, "java/lang/Character", "charValue", type);
+                break;
+            case Type.BYTE:
+            case Type.SHORT:
+            case Type.INT:
+            case Type.FLOAT:
+            case Type.LONG:
+            case Type.DOUBLE:
+                unbox(mv, "java/lang/Number", type.getClassName() + "Value", type);
+                break;
+            default:
+                if (!OBJECT_INTERNAL_NAME.equals(type.getInternalName())) {
+                    mv.visitTypeInsn(Opcodes.CHECKCAST, type.getInternalName());
+                }
+        }
+    }
+    
+    /**
+     * Pop values of the types from the stack into local variables.
+     *
+     * @return the index of the local variable after the stored values.
+     */
+    public static int storeArguments(final MethodVisitor mv, final Type[] types, final int firstLocal) {
+        int local = firstLocal;
+        for (Type type : types) {
+            local += type.getSize();
+        }
+        for (int i = types.length - 1; i >= 0; i--) {
+            local -= types[i].getSize();
+            mv.visitVarInsn(types[i].getOpcode(Opcodes.ISTORE), local);
+        }
+        return firstLocal + argumentsSize(types);
+    }
+    
+    public static void loadArguments(final MethodVisitor mv, final Type[] types, final int firstLocal) {
+        int local = firstLocal;
+        for (Type type : types) {
+            mv.visitVarInsn(type.getOpcode(Opcodes.ILOAD), local);
+            local += type.getSize();
+        }
+    }
+    
+    /**
+     * Push an {@code Object[]} with the (boxed) values of the local variables on the stack.
+     */
+    public static void newArgumentsArray(final MethodVisitor mv, final Type[] types, final int firstLocal) {
+        pushInt(mv, types.length);
+        mv.visitTypeInsn(Opcodes.ANEWARRAY, OBJECT_INTERNAL_NAME);
+        int local = firstLocal;
+        for (int i = 0; i < types.length; i++) {
+            mv.visitInsn(Opcodes.DUP);
+            pushInt(mv, i);
+            mv.visitVarInsn(types[i].getOpcode(Opcodes.ILOAD), local);
+            box(mv, types[i]);
+            mv.visitInsn(Opcodes.AASTORE);
+            local += types[i].getSize();
+        }
+    }
+    
+    /**
+     * Push a {@code Class[]} with the types on the stack.
+     */
+    public static void newSignatureArray(final MethodVisitor mv, final Type[] types) {
+        pushInt(mv, types.length);
+        mv.visitTypeInsn(Opcodes.ANEWARRAY, "java/lang/Class");
+        for (int i = 0; i < types.length; i++) {
+            mv.visitInsn(Opcodes.DUP);
+            pushInt(mv, i);
+            pushClass(mv, types[i]);
+            mv.visitInsn(Opcodes.AASTORE);
+        }
+    }
+    
+    public static int argumentsSize(final Type[] types) {
+        int size = 0;
+        for (Type type : types) {
+            size += type.getSize();
+        }
+        return size;
+    }
+    
+    private static void unbox(final MethodVisitor mv, final String wrapper, final String method, final Type type) {
+        mv.visitTypeInsn(Opcodes.CHECKCAST, wrapper);
+        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, wrapper, method, Type.getMethodDescriptor(type), false);
+    }
+    
+    private static String getWrapperInternalName(final Type type) {
+        switch (type.getSort()) {
+            case Type.BOOLEAN:
+                return "java/lang/Boolean";
+            case Type.CHAR:
+                return "java/lang/Character";
+            case Type.BYTE:
+                return "java/lang/Byte";
+            case Type.SHORT:
+                return "java/lang/Short";
+            case Type.INT:
+                return "java/lang/Integer";
+            case Type.FLOAT:
+                return "java/lang/Float";
+            case Type.LONG:
+                return "java/lang/Long";
+            case Type.DOUBLE:
+                return "java/lang/Double";
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core.transformers.bytebuddy.testclass;
+
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.jar.asm.AnnotationVisitor;
+import net.bytebuddy.jar.asm.ClassVisitor;
+import net.bytebuddy.jar.asm.MethodVisitor;
+import net.bytebuddy.jar.asm.Opcodes;
+import net.bytebuddy.jar.asm.Type;
+import net.bytebuddy.utility.OpenedClassReader;
+import org.powermock.core.testlisteners.GlobalNotificationBuildSupport;
+import org.powermock.core.transformers.ClassWrapper;
+import org.powermock.core.transformers.MethodSignatureWriter;
+import org.powermock.core.transformers.TestClassTransformer;
+import org.powermock.core.transformers.bytebuddy.support.ByteBuddyClass;
+import org.powermock.core.transformers.bytebuddy.support.ClassVisitorWrapper;
+
+import java.lang.annotation.Annotation;
+
+import static org.powermock.core.transformers.bytebuddy.support.TransformerHelper.CLASS_INITIALIZER_NAME;
+import static org.powermock.core.transformers.bytebuddy.support.TransformerHelper.CONSTRUCTOR_NAME;
+
+public abstract class ByteBuddyTestClassTransformer extends TestClassTransformer<ByteBuddyClass, MethodDescription> {
+    
+    private static final int VISIBILITY = Opcodes.ACC_PUBLIC | Opcodes.ACC_PROTECTED | Opcodes.ACC_PRIVATE;
+    private static final String NOTIFICATION_INTERNAL_NAME = Type.getInternalName(GlobalNotificationBuildSupport.class);
+    
+    ByteBuddyTestClassTransformer(final Class<?> testClass,
+                                  final Class<? extends Annotation> testMethodAnnotationType,
+                                  final MethodSignatureWriter<MethodDescription> signatureWriter) {
+        super(testClass, testMethodAnnotationType, signatureWriter);
+    }
+    
+    protected abstract boolean mustHaveTestAnnotationRemoved(MethodDescription method);
+    
+    @Override
+    public ClassWrapper<ByteBuddyClass> transform(final ClassWrapper<ByteBuddyClass> clazz) {
+        final Object classImpl = clazz.unwrap();
+        if (classImpl instanceof ByteBuddyClass) {
+            return clazz.wrap(transform((ByteBuddyClass) classImpl));
+        }
+        return clazz;
+    }
+    
+    private ByteBuddyClass transform(final ByteBuddyClass clazz) {
+        final String name = clazz.getTypeDescription().getName();
+        final boolean testClass = isTestClass(name);
+        if (!testClass && !isNestedWithinTestClass(name)) {
+            return clazz;
+        }
+        
+        ByteBuddyClass transformed = clazz;
+        if (clazz.isDeferConstructorAdded() && (clazz.getDeferConstructorModifiers() & Opcodes.ACC_PUBLIC) != 0) {
+            transformed = transformed.withDeferConstructor(Opcodes.ACC_PROTECTED);
+        }
+        return transformed.withVisitor(new ClassVisitorWrapper() {
+            @Override
+            public ClassVisitor wrap(final ByteBuddyClass clazz, final ClassVisitor classVisitor) {
+                return new TestClassVisitor(clazz, classVisitor, testClass);
+            }
+        });
+    }
+    
+    private boolean isTestClass(final String name) {
+        try {
+            return Class.forName(name, false, getTestClass().getClassLoader())
+                        .isAssignableFrom(getTestClass());
+        } catch (ClassNotFoundException ex) {
+            return false;
+        }
+    }
+    
+    private boolean isNestedWithinTestClass(final String name) {
+        return name.startsWith(getTestClass().getName() + '$');
+    }
+    
+    private static MethodDescription findMethod(final ByteBuddyClass clazz, final String name, final String descriptor) {
+        for (MethodDescription method : clazz.getTypeDescription().getDeclaredMethods()) {
+            if (method.getInternalName().equals(name) && method.getDescriptor().equals(descriptor)) {
+                return method;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Removes the test method annotations and adds the life cycle notifications to the test class, and
+     * restores the original accesses of the constructors of the test class and the classes nested within it.
+     */
+    private class TestClassVisitor extends ClassVisitor {
+        
+        private final ByteBuddyClass clazz;
+        private final boolean testClass;
+        private final String testMethodAnnotationDescriptor;
+        private boolean classInitializerVisited;
+        
+        private TestClassVisitor(final ByteBuddyClass clazz, final ClassVisitor classVisitor, final boolean testClass) {
+            super(OpenedClassReader.ASM_API, classVisitor);
+            this.clazz = clazz;
+            this.testClass = testClass;
+            this.testMethodAnnotationDescriptor = Type.getDescriptor(getTestMethodAnnotationType());
+        }
+        
+        @Override
+        public MethodVisitor visitMethod(final int access, final String name, final String descriptor,
+                                         final String signature, final String[] exceptions) {
+            if (CONSTRUCTOR_NAME.equals(name)) {
+                final MethodVisitor mv = super.visitMethod(restoreAccess(access, name, descriptor), name, descriptor, signature, exceptions);
+                return mv == null || !testClass ? mv : new ConstructorNotificationMethodVisitor(mv);
+            }
+            
+            final MethodVisitor mv = super.visitMethod(access, name, descriptor, signature, exceptions);
+            if (mv == null || !testClass) {
+                return mv;
+            }
+            if (CLASS_INITIALIZER_NAME.equals(name)) {
+                classInitializerVisited = true;
+                return new ClassInitializerNotificationMethodVisitor(mv);
+            }
+            return new TestMethodVisitor(mv, name, descriptor);
+        }
+        
+        @Override
+        public void visitEnd() {
+            if (testClass && !classInitializerVisited) {
+                final MethodVisitor mv = super.visitMethod(Opcodes.ACC_STATIC, CLASS_INITIALIZER_NAME, "()V", null, null);
+                mv.visitCode();
+                writeClassInitiatedNotification(mv);
+                mv.visitInsn(Opcodes.RETURN);
+                mv.visitMaxs(1, 0);
+                mv.visitEnd();
+            }
+            super.visitEnd();
+        }
+        
+        private int restoreAccess(final int access, final String name, final String descriptor) {
+            if ((access & Opcodes.ACC_PUBLIC) == 0) {
+                return access;
+            }
+            final MethodDescription constructor = findMethod(clazz, name, descriptor);
+            if (constructor == null) {
+                return access;
+            }
+            return access & ~VISIBILITY | constructor.getModifiers() & VISIBILITY;
+        }
+        
+        private void writeClassInitiatedNotification(final MethodVisitor mv) {
+            mv.visitLdcInsn(Type.getType(clazz.getTypeDescription().getDescriptor()));
+            mv.visitMethodInsn(Opcodes.INVOKESTATIC, NOTIFICATION_INTERNAL_NAME, "testClassInitiated", "(Ljava/lang/Class;)V", false);
+        }
+        
+        private class ClassInitializerNotificationMethodVisitor extends MethodVisitor {
+            
+            private ClassInitializerNotificationMethodVisitor(final MethodVisitor mv) {
+                super(OpenedClassReader.ASM_API, mv);
+            }
+            
+            @Override
+            public void visitCode() {
+                super.visitCode();
+                writeClassInitiatedNotification(mv);
+            }
+        }
+        
+        private class ConstructorNotificationMethodVisitor extends MethodVisitor {
+            
+            private ConstructorNotificationMethodVisitor(final MethodVisitor mv) {
+                super(OpenedClassReader.ASM_API, mv);
+            }
+            
+            @Override
+            public void visitInsn(final int opcode) {
+                if (opcode == Opcodes.RETURN) {
+                    super.visitVarInsn(Opcodes.ALOAD, 0);
+                    super.visitMethodInsn(
+                        Opcodes.INVOKESTATIC, NOTIFICATION_INTERNAL_NAME, "testInstanceCreated", "(Ljava/lang/Object;)V", false
+                    );
+                }
+                super.visitInsn(opcode);
+            }
+        }
+        
+        private class TestMethodVisitor extends MethodVisitor {
+            
+            private final String name;
+            private final String descriptor;
+            
+            private TestMethodVisitor(final MethodVisitor mv, final String name, final String descriptor) {
+                super(OpenedClassReader.ASM_API, mv);
+                this.name = name;
+                this.descriptor = descriptor;
+            }
+            
+            @Override
+            public AnnotationVisitor visitAnnotation(final String annotationDescriptor, final boolean visible) {
+                if (visible && testMethodAnnotationDescriptor.equals(annotationDescriptor)) {
+                    final MethodDescription method = findMethod(clazz, name, descriptor);
+                    if (method != null && mustHaveTestAnnotationRemoved(method)) {
+                        return null;
+                    }
+                }
+                return super.visitAnnotation(annotationDescriptor, visible);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core.transformers.bytebuddy.testclass;
+
+import net.bytebuddy.description.method.MethodDescription;
+import org.powermock.core.transformers.MethodSignatureWriter;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.HashSet;
+
+public class ForMethodsByteBuddyTestClassTransformer extends ByteBuddyTestClassTransformer {
+    
+    private final Collection<Method> testMethodsThatRunOnOtherClassLoaders;
+    /**
+     * Is lazily initilized because of
+     * AbstractTestSuiteChunkerImpl#chunkClass(Class)
+     */
+    private Collection<String> methodsThatRunOnOtherClassLoaders;
+    
+    public ForMethodsByteBuddyTestClassTransformer(final Class<?> testClass,
+                                                   final Class<? extends Annotation> testMethodAnnotation,
+                                                   final MethodSignatureWriter<MethodDescription> methodSignatureWriter,
+                                                   final Collection<Method> testMethodsThatRunOnOtherClassLoaders) {
+        super(testClass, testMethodAnnotation, methodSignatureWriter);
+        this.testMethodsThatRunOnOtherClassLoaders = testMethodsThatRunOnOtherClassLoaders;
+    }
+    
+    @Override
+    protected boolean mustHaveTestAnnotationRemoved(final MethodDescription method) {
+        if (null == methodsThatRunOnOtherClassLoaders) {
+            /* This lazy initialization is necessary - see above */
+            methodsThatRunOnOtherClassLoaders = new HashSet<String>();
+            for (Method m : testMethodsThatRunOnOtherClassLoaders) {
+                methodsThatRunOnOtherClassLoaders.add(signatureOf(m));
+            }
+            testMethodsThatRunOnOtherClassLoaders.clear();
+        }
+        return methodsThatRunOnOtherClassLoaders.contains(signatureOf(method));
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core.transformers.javassist;
+
+import javassist.CtClass;
+import javassist.CtConstructor;
+import javassist.CtField;
+import javassist.CtMethod;
+import javassist.expr.ExprEditor;
+import org.powermock.core.transformers.TransformStrategy;
+
+import java.util.Collections;
+
+/**
+ * Base class for {@link FusibleMockTransformer}s. The callbacks do nothing unless they are overridden.
+ * When the transformer is used on its own, it walks the class just like a {@link FusedMockTransformerChain}
+ * would.
+ */
+public abstract class AbstractFusibleMockTransformer extends AbstractJavaAssistMockTransformer implements FusibleMockTransformer {
+    
+    public AbstractFusibleMockTransformer(final TransformStrategy strategy) {
+        super(strategy);
+    }
+    
+    @Override
+    public CtClass transform(final CtClass clazz) throws Exception {
+        FusedMockTransformerChain.transform(clazz, Collections.<FusibleMockTransformer>singletonList(this));
+        return clazz;
+    }
+    
+    @Override
+    public void beforeMembers(final CtClass clazz) throws Exception {
+    }
+    
+    @Override
+    public void transformConstructor(final CtConstructor constructor) throws Exception {
+    }
+    
+    @Override
+    public ExprEditor getExpressionEditor(final CtClass clazz) {
+        return null;
+    }
+    
+    @Override
+    public void transformField(final CtField field) throws Exception {
+    }
+    
+    @Override
+    public void transformMethod(final CtMethod method) throws Exception {
+    }
+    
+    @Override
+    public void afterMembers(final CtClass clazz) throws Exception {
+    }
+}
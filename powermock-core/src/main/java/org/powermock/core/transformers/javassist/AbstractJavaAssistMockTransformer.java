@@ -46,7 +46,15 @@ public abstract class AbstractJavaAssistMockTransformer implements MockTransform
     
     public abstract CtClass transform(CtClass clazz) throws Exception;
     
-    protected TransformStrategy getStrategy() {
+    public TransformStrategy getStrategy() {
         return strategy;
     }
+    
+    /**
+     * @return the class whose methods the modified classes call to check for mocks or {@code null} if the
+     * transformer doesn't add such calls.
+     */
+    public Class<?> getMockGetawayClass() {
+        return null;
+    }
 }
@@ -27,16 +27,16 @@ import org.powermock.core.transformers.TransformStrategy;
 
 import static org.powermock.core.transformers.TransformStrategy.INST_REDEFINE;
 
-public class ClassFinalModifierMockTransformer extends AbstractJavaAssistMockTransformer {
+public class ClassFinalModifierMockTransformer extends AbstractFusibleMockTransformer {
     
     public ClassFinalModifierMockTransformer(final TransformStrategy strategy) {
         super(strategy);
     }
     
     @Override
-    public CtClass transform(final CtClass clazz) {
+    public void beforeMembers(final CtClass clazz) {
         if (clazz.isInterface()) {
-            return clazz;
+            return;
         }
         
         if (getStrategy() != INST_REDEFINE) {
@@ -60,7 +60,5 @@ public class ClassFinalModifierMockTransformer extends AbstractJavaAssistMockTra
                 }
             }
         }
-        
-        return clazz;
     }
 }
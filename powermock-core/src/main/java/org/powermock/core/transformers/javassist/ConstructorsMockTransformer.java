@@ -29,41 +29,45 @@ import static org.powermock.core.transformers.TransformStrategy.CLASSLOADER;
 /**
  * Convert all constructors to public
  */
-public class ConstructorsMockTransformer extends AbstractJavaAssistMockTransformer {
+public class ConstructorsMockTransformer extends AbstractFusibleMockTransformer {
     
     public ConstructorsMockTransformer(final TransformStrategy strategy) {
         super(strategy);
     }
     
     @Override
-    public CtClass transform(final CtClass clazz) {
+    public void beforeMembers(final CtClass clazz) {
         if (clazz.isInterface()) {
-            return clazz;
+            return;
         }
         
         if (getStrategy() == CLASSLOADER) {
-            transform(new CtClass[]{clazz});
             // we also need to transform nested class at this time due to JEP181 since JDK11
             // otherwise, we might have trouble during further transformation
             // see github #958
             try {
-                CtClass[] nestedClasses = clazz.getDeclaredClasses();
-                transform(nestedClasses);
+                for (CtClass nestedClazz : clazz.getDeclaredClasses()) {
+                    for (CtConstructor c : nestedClazz.getDeclaredConstructors()) {
+                        makePublic(c);
+                    }
+                }
             } catch (NotFoundException ignored) {
                 // ignored
             }
         }
-        return clazz;
     }
-
-    private static void transform(final CtClass[] clazzArray) {
-        for (CtClass nestedClazz : clazzArray) {
-            for (CtConstructor c : nestedClazz.getDeclaredConstructors()) {
-                final int modifiers = c.getModifiers();
-                if (!Modifier.isPublic(modifiers)) {
-                    c.setModifiers(Modifier.setPublic(modifiers));
-                }
-            }
+    
+    @Override
+    public void transformConstructor(final CtConstructor constructor) {
+        if (getStrategy() == CLASSLOADER && !constructor.getDeclaringClass().isInterface()) {
+            makePublic(constructor);
+        }
+    }
+    
+    private static void makePublic(final CtConstructor constructor) {
+        final int modifiers = constructor.getModifiers();
+        if (!Modifier.isPublic(modifiers)) {
+            constructor.setModifiers(Modifier.setPublic(modifiers));
         }
     }
 }
@@ -0,0 +1,149 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core.transformers.javassist;
+
+import javassist.CtClass;
+import javassist.CtConstructor;
+import javassist.CtField;
+import javassist.CtMethod;
+import javassist.expr.ExprEditor;
+import org.powermock.core.transformers.ClassWrapper;
+import org.powermock.core.transformers.MockTransformer;
+import org.powermock.core.transformers.MockTransformerChain;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A {@link MockTransformerChain} which walks a class once for all {@link FusibleMockTransformer}s which
+ * follow each other in the chain, instead of once for each transformer. Other transformers are called
+ * one after another like in a {@link org.powermock.core.transformers.support.DefaultMockTransformerChain}.
+ */
+public class FusedMockTransformerChain implements MockTransformerChain {
+    
+    private final List<MockTransformer> transformers;
+    private final List<MockTransformer> steps;
+    
+    public FusedMockTransformerChain(final List<MockTransformer> transformers) {
+        this.transformers = Collections.unmodifiableList(new ArrayList<MockTransformer>(transformers));
+        this.steps = fuse(transformers);
+    }
+    
+    @Override
+    public <T> ClassWrapper<T> transform(final ClassWrapper<T> clazz) throws Exception {
+        ClassWrapper<T> classWrapper = clazz;
+        for (MockTransformer step : steps) {
+            classWrapper = step.transform(classWrapper);
+        }
+        return classWrapper;
+    }
+    
+    @Override
+    public Collection<MockTransformer> filter(final FilterPredicate predicate) {
+        final ArrayList<MockTransformer> filtered = new ArrayList<MockTransformer>();
+        
+        for (MockTransformer transformer : transformers) {
+            if (predicate.test(transformer)) {
+                filtered.add(transformer);
+            }
+        }
+        
+        return filtered;
+    }
+    
+    @Override
+    public String toString() {
+        return "FusedMockTransformerChain{" + "transformers=" + transformers + '}';
+    }
+    
+    /**
+     * Walk the class once and call back all transformers for the class, its members and its instructions.
+     */
+    static void transform(final CtClass clazz, final List<FusibleMockTransformer> transformers) throws Exception {
+        for (FusibleMockTransformer transformer : transformers) {
+            transformer.beforeMembers(clazz);
+        }
+        
+        for (CtConstructor constructor : clazz.getDeclaredConstructors()) {
+            for (FusibleMockTransformer transformer : transformers) {
+                transformer.transformConstructor(constructor);
+            }
+        }
+        
+        for (FusibleMockTransformer transformer : transformers) {
+            final ExprEditor editor = transformer.getExpressionEditor(clazz);
+            if (editor != null) {
+                clazz.instrument(editor);
+            }
+        }
+        
+        for (CtField field : clazz.getDeclaredFields()) {
+            for (FusibleMockTransformer transformer : transformers) {
+                transformer.transformField(field);
+            }
+        }
+        
+        for (CtMethod method : clazz.getDeclaredMethods()) {
+            for (FusibleMockTransformer transformer : transformers) {
+                transformer.transformMethod(method);
+            }
+        }
+        
+        for (FusibleMockTransformer transformer : transformers) {
+            transformer.afterMembers(clazz);
+        }
+    }
+    
+    private static List<MockTransformer> fuse(final List<MockTransformer> transformers) {
+        final List<MockTransformer> steps = new ArrayList<MockTransformer>();
+        List<FusibleMockTransformer> fused = null;
+        for (MockTransformer transformer : transformers) {
+            if (transformer instanceof FusibleMockTransformer) {
+                if (fused == null) {
+                    fused = new ArrayList<FusibleMockTransformer>();
+                    steps.add(new FusedTransformers(fused));
+                }
+                fused.add((FusibleMockTransformer) transformer);
+            } else {
+                fused = null;
+                steps.add(transformer);
+            }
+        }
+        return steps;
+    }
+    
+    private static class FusedTransformers implements MockTransformer<CtClass> {
+        
+        private final List<FusibleMockTransformer> transformers;
+        
+        private FusedTransformers(final List<FusibleMockTransformer> transformers) {
+            this.transformers = transformers;
+        }
+        
+        @Override
+        public ClassWrapper<CtClass> transform(final ClassWrapper<CtClass> clazz) throws Exception {
+            if (clazz.unwrap() instanceof CtClass) {
+                FusedMockTransformerChain.transform(clazz.unwrap(), transformers);
+            }
+            return clazz;
+        }
+    }
+}
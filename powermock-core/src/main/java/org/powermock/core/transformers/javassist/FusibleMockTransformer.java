@@ -0,0 +1,59 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core.transformers.javassist;
+
+import javassist.CtClass;
+import javassist.CtConstructor;
+import javassist.CtField;
+import javassist.CtMethod;
+import javassist.expr.ExprEditor;
+
+/**
+ * A transformer which doesn't walk a class itself, but is called back for the class, its members and
+ * its instructions. A {@link FusedMockTransformerChain} walks a class once for all fusible transformers
+ * which follow each other in the chain.
+ * <p>
+ * The callbacks are called in the order they are declared. For the class and for each member the
+ * transformers are called in the order of the chain, so a transformer sees the changes which earlier
+ * transformers made to the same member.
+ */
+public interface FusibleMockTransformer {
+    
+    /**
+     * Called before the members of the class are walked.
+     */
+    void beforeMembers(CtClass clazz) throws Exception;
+    
+    void transformConstructor(CtConstructor constructor) throws Exception;
+    
+    /**
+     * @return an editor for the instructions of the class or {@code null} if the transformer doesn't
+     * change instructions.
+     */
+    ExprEditor getExpressionEditor(CtClass clazz);
+    
+    void transformField(CtField field) throws Exception;
+    
+    void transformMethod(CtMethod method) throws Exception;
+    
+    /**
+     * Called after the members of the class have been walked.
+     */
+    void afterMembers(CtClass clazz) throws Exception;
+}
@@ -18,16 +18,13 @@
 
 package org.powermock.core.transformers.javassist;
 
-import javassist.CannotCompileException;
 import javassist.CtClass;
+import javassist.expr.ExprEditor;
 import org.powermock.core.MockGateway;
 import org.powermock.core.transformers.TransformStrategy;
 import org.powermock.core.transformers.javassist.support.PowerMockExpressionEditor;
 
-import java.io.File;
-import java.io.OutputStream;
-
-public class InstrumentMockTransformer extends AbstractJavaAssistMockTransformer {
+public class InstrumentMockTransformer extends AbstractFusibleMockTransformer {
     
     private Class<?> mockGetawayClass;
     
@@ -37,8 +34,12 @@ public class InstrumentMockTransformer extends AbstractJavaAssistMockTransformer
     }
     
     @Override
-    public CtClass transform(final CtClass clazz) throws CannotCompileException {
-        clazz.instrument(new PowerMockExpressionEditor(getStrategy(), clazz, mockGetawayClass));
-        return clazz;
+    public Class<?> getMockGetawayClass() {
+        return mockGetawayClass;
+    }
+    
+    @Override
+    public ExprEditor getExpressionEditor(final CtClass clazz) {
+        return new PowerMockExpressionEditor(getStrategy(), clazz, mockGetawayClass);
     }
 }
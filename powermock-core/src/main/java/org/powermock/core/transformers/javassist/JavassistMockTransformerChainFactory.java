@@ -23,14 +23,28 @@ import org.powermock.core.transformers.MockTransformerChain;
 import org.powermock.core.transformers.MockTransformerChainFactory;
 import org.powermock.core.transformers.TransformStrategy;
 import org.powermock.core.transformers.support.DefaultMockTransformerChain;
-import org.powermock.core.transformers.support.DefaultMockTransformerChain.MockTransformerChainBuilder;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class JavassistMockTransformerChainFactory implements MockTransformerChainFactory {
     
     private static final TransformStrategy DEFAULT = TransformStrategy.CLASSLOADER;
     
+    private final boolean fused;
+    
+    public JavassistMockTransformerChainFactory() {
+        this(true);
+    }
+    
+    /**
+     * @param fused {@code true} if the default transformers should walk a class once together (see
+     *              {@link FusedMockTransformerChain}), {@code false} if each transformer should walk it.
+     */
+    public JavassistMockTransformerChainFactory(final boolean fused) {
+        this.fused = fused;
+    }
+    
     @Override
     public MockTransformerChain createDefaultChain() {
         return createDefaultChain(DEFAULT);
@@ -38,32 +52,42 @@ public class JavassistMockTransformerChainFactory implements MockTransformerChai
     
     @Override
     public MockTransformerChain createDefaultChain(final TransformStrategy transformStrategy) {
-        return createDefaultChainBuilder(transformStrategy).build();
+        return createChain(createDefaultTransformers(transformStrategy));
     }
     
     @Override
     public MockTransformerChain createDefaultChain(final List<MockTransformer> extraMockTransformers) {
-        return createDefaultChainBuilder(DEFAULT)
-                   .append(extraMockTransformers)
-                   .build();
+        final List<MockTransformer> transformers = createDefaultTransformers(DEFAULT);
+        transformers.addAll(extraMockTransformers);
+        return createChain(transformers);
     }
     
     @Override
     public MockTransformerChain createTestClassChain(final MockTransformer testClassTransformer) {
-        return createDefaultChainBuilder(DEFAULT)
-                   .append(testClassTransformer)
-                   .build();
+        final List<MockTransformer> transformers = createDefaultTransformers(DEFAULT);
+        transformers.add(testClassTransformer);
+        return createChain(transformers);
     }
     
-    private MockTransformerChainBuilder createDefaultChainBuilder(final TransformStrategy transformStrategy) {
+    private MockTransformerChain createChain(final List<MockTransformer> transformers) {
+        if (fused) {
+            return new FusedMockTransformerChain(transformers);
+        }
         return DefaultMockTransformerChain.newBuilder()
-                                          .append(new ClassFinalModifierMockTransformer(transformStrategy))
-                                          .append(new ConstructorsMockTransformer(transformStrategy))
-                                          .append(new InstrumentMockTransformer(transformStrategy))
-                                          .append(new PackagePrivateClassesMockTransformer(transformStrategy))
-                                          .append(new StaticFinalFieldsMockTransformer(transformStrategy))
-                                          .append(new StaticFinalNativeMethodMockTransformer(transformStrategy))
-                                          .append(new SuppressStaticInitializerMockTransformer(transformStrategy))
-                                          .append(new MethodSizeMockTransformer(transformStrategy));
+                                          .append(transformers)
+                                          .build();
+    }
+    
+    private List<MockTransformer> createDefaultTransformers(final TransformStrategy transformStrategy) {
+        final List<MockTransformer> transformers = new ArrayList<MockTransformer>();
+        transformers.add(new ClassFinalModifierMockTransformer(transformStrategy));
+        transformers.add(new ConstructorsMockTransformer(transformStrategy));
+        transformers.add(new InstrumentMockTransformer(transformStrategy));
+        transformers.add(new PackagePrivateClassesMockTransformer(transformStrategy));
+        transformers.add(new StaticFinalFieldsMockTransformer(transformStrategy));
+        transformers.add(new StaticFinalNativeMethodMockTransformer(transformStrategy));
+        transformers.add(new SuppressStaticInitializerMockTransformer(transformStrategy));
+        transformers.add(new MethodSizeMockTransformer(transformStrategy));
+        return transformers;
     }
 }
@@ -27,11 +27,14 @@ import org.powermock.core.MockGateway;
 import org.powermock.core.transformers.TransformStrategy;
 
 import static org.powermock.core.transformers.javassist.support.TransformerHelper.VOID;
+import static org.powermock.core.transformers.javassist.support.TransformerHelper.addCallSiteField;
+import static org.powermock.core.transformers.javassist.support.TransformerHelper.canAddCallSiteField;
+import static org.powermock.core.transformers.javassist.support.TransformerHelper.getCallSiteInitializer;
 import static org.powermock.core.transformers.javassist.support.TransformerHelper.getCorrectReturnValueType;
 import static org.powermock.core.transformers.javassist.support.TransformerHelper.getReturnTypeAsString;
 import static org.powermock.core.transformers.javassist.support.TransformerHelper.shouldSkipMethod;
 
-abstract class MethodMockTransformer extends AbstractJavaAssistMockTransformer {
+abstract class MethodMockTransformer extends AbstractFusibleMockTransformer {
     
     private Class<?> mockGetawayClass;
     
@@ -40,6 +43,11 @@ abstract class MethodMockTransformer extends AbstractJavaAssistMockTransformer {
         this.mockGetawayClass = MockGateway.class;
     }
     
+    @Override
+    public Class<?> getMockGetawayClass() {
+        return mockGetawayClass;
+    }
+    
     void modifyMethod(final CtMethod method) throws NotFoundException, CannotCompileException {
         
         if (!shouldSkipMethod(method)) {
@@ -67,17 +75,8 @@ abstract class MethodMockTransformer extends AbstractJavaAssistMockTransformer {
             returnValue = VOID;
         }
         
-        String classOrInstance = classOrInstance(method);
         method.setModifiers(method.getModifiers() - Modifier.NATIVE);
-        String code = "Object value = "
-                          + mockGetawayClass.getName()
-                          + ".methodCall("
-                          + classOrInstance
-                          + ", \""
-                          + method.getName()
-                          + "\", $args, $sig, \""
-                          + returnTypeAsString
-                          + "\");"
+        String code = mockGetawayCall(method, returnTypeAsString)
                           + "if (value != "
                           + MockGateway.class.getName() + ".PROCEED) "
                           + "return "
@@ -86,6 +85,36 @@ abstract class MethodMockTransformer extends AbstractJavaAssistMockTransformer {
         method.setBody("{" + code + "}");
     }
     
+    /**
+     * Code which calls the mock gateway and stores the result in the local variable {@code value}. When possible the
+     * method is described by a {@link org.powermock.core.MethodCallSite} stored in the class, otherwise it's described by
+     * its name, signature and return type.
+     */
+    private String mockGetawayCall(CtMethod method, String returnTypeAsString) throws CannotCompileException {
+        final String classOrInstance = classOrInstance(method);
+        final CtClass declaringClass = method.getDeclaringClass();
+        
+        if (canAddCallSiteField(getStrategy(), declaringClass)) {
+            final String callSiteField = addCallSiteField(declaringClass);
+            return getCallSiteInitializer(callSiteField, method.getName(), returnTypeAsString)
+                       + "Object value = "
+                       + mockGetawayClass.getName()
+                       + ".methodCall("
+                       + classOrInstance + ", "
+                       + callSiteField
+                       + ", $args);";
+        }
+        
+        return "Object value = "
+                   + mockGetawayClass.getName()
+                   + ".methodCall("
+                   + classOrInstance + ", \""
+                   + method.getName()
+                   + "\", $args, $sig, \""
+                   + returnTypeAsString
+                   + "\");";
+    }
+    
     private String classOrInstance(CtMethod method) {
         String classOrInstance = "this";
         if (Modifier.isStatic(method.getModifiers())) {
@@ -98,16 +127,7 @@ abstract class MethodMockTransformer extends AbstractJavaAssistMockTransformer {
                               String returnTypeAsString) throws CannotCompileException {
         final String returnValue = getCorrectReturnValueType(returnTypeAsCtClass);
         
-        String classOrInstance = classOrInstance(method);
-        
-        String code = "Object value = "
-                          + mockGetawayClass.getName()
-                          + ".methodCall("
-                          + classOrInstance + ", \""
-                          + method.getName()
-                          + "\", $args, $sig, \""
-                          + returnTypeAsString
-                          + "\");"
+        String code = mockGetawayCall(method, returnTypeAsString)
                           + "if (value != " + MockGateway.class.getName() + ".PROCEED) " + "return "
                           + returnValue + "; ";
         
@@ -19,7 +19,6 @@
 package org.powermock.core.transformers.javassist;
 
 import javassist.CannotCompileException;
-import javassist.CtClass;
 import javassist.CtMethod;
 import javassist.NotFoundException;
 import javassist.bytecode.CodeAttribute;
@@ -44,19 +43,17 @@ public class MethodSizeMockTransformer extends MethodMockTransformer {
         super(strategy);
     }
     
-    public CtClass transform(final CtClass clazz) throws CannotCompileException, NotFoundException {
-        for (CtMethod method : clazz.getDeclaredMethods()) {
-            if (isMethodSizeExceeded(method)) {
-                String code = "{throw new IllegalAccessException(\"" +
-                                  "Method was too large and after instrumentation exceeded JVM limit. " +
-                                  "PowerMock modified the method to allow JVM to load the class. " +
-                                  "You can use PowerMock API to suppress or mock this method behaviour." +
-                                  "\");}";
-                method.setBody(code);
-                modifyMethod(method);
-            }
+    @Override
+    public void transformMethod(final CtMethod method) throws CannotCompileException, NotFoundException {
+        if (isMethodSizeExceeded(method)) {
+            String code = "{throw new IllegalAccessException(\"" +
+                              "Method was too large and after instrumentation exceeded JVM limit. " +
+                              "PowerMock modified the method to allow JVM to load the class. " +
+                              "You can use PowerMock API to suppress or mock this method behaviour." +
+                              "\");}";
+            method.setBody(code);
+            modifyMethod(method);
         }
-        return clazz;
     }
     
     private boolean isMethodSizeExceeded(CtMethod method) {
@@ -30,19 +30,18 @@ import static org.powermock.core.transformers.TransformStrategy.INST_REDEFINE;
  * classes. This is needed because we've changed to CgLib naming policy
  * to allow for mocking of signed classes.
  */
-public class PackagePrivateClassesMockTransformer extends AbstractJavaAssistMockTransformer {
+public class PackagePrivateClassesMockTransformer extends AbstractFusibleMockTransformer {
     
     public PackagePrivateClassesMockTransformer(final TransformStrategy strategy) {
         super(strategy);
     }
     
     @Override
-    public CtClass transform(final CtClass clazz) {
+    public void afterMembers(final CtClass clazz) {
         final String name = clazz.getName();
         if (getStrategy() != INST_REDEFINE) {
             transform(clazz, name);
         }
-        return clazz;
     }
     
     private static void transform(final CtClass clazz, final String name) {
@@ -18,7 +18,6 @@
 
 package org.powermock.core.transformers.javassist;
 
-import javassist.CtClass;
 import javassist.CtField;
 import javassist.Modifier;
 import org.powermock.core.transformers.TransformStrategy;
@@ -29,26 +28,20 @@ import static org.powermock.core.transformers.TransformStrategy.INST_REDEFINE;
 /**
  * Remove final from all static final fields. Not possible if using a java agent.
  */
-public class StaticFinalFieldsMockTransformer extends AbstractJavaAssistMockTransformer {
+public class StaticFinalFieldsMockTransformer extends AbstractFusibleMockTransformer {
     
     public StaticFinalFieldsMockTransformer(final TransformStrategy strategy) {
         super(strategy);
     }
     
-    public CtClass transform(final CtClass clazz) {
-        if (clazz.isInterface()) {
-            return clazz;
-        }
-        
-        if (getStrategy() != INST_REDEFINE) {
-            for (CtField f : clazz.getDeclaredFields()) {
-                final int modifiers = f.getModifiers();
-                if (Modifier.isFinal(modifiers) && Modifier.isStatic(modifiers)) {
-                    f.setModifiers(modifiers ^ Modifier.FINAL);
-                }
+    @Override
+    public void transformField(final CtField f) {
+        if (getStrategy() != INST_REDEFINE && !f.getDeclaringClass().isInterface()) {
+            final int modifiers = f.getModifiers();
+            if (Modifier.isFinal(modifiers) && Modifier.isStatic(modifiers)) {
+                f.setModifiers(modifiers ^ Modifier.FINAL);
             }
         }
-        return clazz;
     }
     
 }
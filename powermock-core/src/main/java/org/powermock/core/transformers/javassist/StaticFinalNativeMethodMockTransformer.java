@@ -19,7 +19,6 @@
 package org.powermock.core.transformers.javassist;
 
 import javassist.CannotCompileException;
-import javassist.CtClass;
 import javassist.CtMethod;
 import javassist.NotFoundException;
 import org.powermock.core.transformers.TransformStrategy;
@@ -32,10 +31,7 @@ public class StaticFinalNativeMethodMockTransformer extends MethodMockTransforme
     }
     
     @Override
-    public CtClass transform(final CtClass clazz) throws NotFoundException, CannotCompileException {
-            for (CtMethod m : clazz.getDeclaredMethods()) {
-                modifyMethod(m);
-            }
-        return clazz;
+    public void transformMethod(final CtMethod method) throws NotFoundException, CannotCompileException {
+        modifyMethod(method);
     }
 }
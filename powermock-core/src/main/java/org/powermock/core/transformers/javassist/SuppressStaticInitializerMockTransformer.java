@@ -26,20 +26,19 @@ import org.powermock.core.transformers.TransformStrategy;
 
 import static org.powermock.core.transformers.TransformStrategy.CLASSLOADER;
 
-public class SuppressStaticInitializerMockTransformer extends AbstractJavaAssistMockTransformer {
+public class SuppressStaticInitializerMockTransformer extends AbstractFusibleMockTransformer {
     
     public SuppressStaticInitializerMockTransformer(final TransformStrategy strategy) {
         super(strategy);
     }
     
     @Override
-    public CtClass transform(final CtClass clazz) throws CannotCompileException {
+    public void afterMembers(final CtClass clazz) throws CannotCompileException {
         if (getStrategy() == CLASSLOADER) {
             if (MockGateway.staticConstructorCall(clazz.getName()) != MockGateway.PROCEED) {
                 CtConstructor classInitializer = clazz.makeClassInitializer();
                 classInitializer.setBody("{}");
             }
         }
-        return clazz;
     }
 }
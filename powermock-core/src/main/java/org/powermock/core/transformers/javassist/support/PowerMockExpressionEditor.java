@@ -19,13 +19,10 @@
 package org.powermock.core.transformers.javassist.support;
 
 import javassist.CannotCompileException;
-import javassist.ClassPool;
 import javassist.CtClass;
 import javassist.CtField;
 import javassist.CtMethod;
-import javassist.CtNewConstructor;
 import javassist.NotFoundException;
-import javassist.bytecode.DuplicateMemberException;
 import javassist.bytecode.FieldInfo;
 import javassist.expr.ConstructorCall;
 import javassist.expr.ExprEditor;
@@ -38,6 +35,10 @@ import org.powermock.core.transformers.TransformStrategy;
 
 import static org.powermock.core.transformers.TransformStrategy.INST_REDEFINE;
 import static org.powermock.core.transformers.javassist.support.TransformerHelper.VOID;
+import static org.powermock.core.transformers.javassist.support.TransformerHelper.addNewDeferConstructor;
+import static org.powermock.core.transformers.javassist.support.TransformerHelper.addCallSiteField;
+import static org.powermock.core.transformers.javassist.support.TransformerHelper.canAddCallSiteField;
+import static org.powermock.core.transformers.javassist.support.TransformerHelper.getCallSiteInitializer;
 import static org.powermock.core.transformers.javassist.support.TransformerHelper.getCorrectReturnValueType;
 import static org.powermock.core.transformers.javassist.support.TransformerHelper.getReturnTypeAsString;
 import static org.powermock.core.transformers.javassist.support.TransformerHelper.isNotSyntheticField;
@@ -83,14 +84,25 @@ public final class PowerMockExpressionEditor extends ExprEditor {
                 if (TransformerHelper.shouldTreatAsSystemClassCall(declaringClass)) {
                     StringBuilder code = new StringBuilder();
                     code.append("{Object classOrInstance = null; if($0!=null){classOrInstance = $0;} else { classOrInstance = $class;}");
-                    code.append("Object value =  ")
-                        .append(MockGateway.class.getName())
-                        .append(".methodCall(")
-                        .append("classOrInstance,\"")
-                        .append(m.getMethodName())
-                        .append("\",$args, $sig,\"")
-                        .append(getReturnTypeAsString(method))
-                        .append("\");");
+                    if (canAddCallSiteField(strategy, clazz)) {
+                        final String callSiteField = addCallSiteField(clazz);
+                        code.append(getCallSiteInitializer(callSiteField, m.getMethodName(), getReturnTypeAsString(method)));
+                        code.append("Object value =  ")
+                            .append(MockGateway.class.getName())
+                            .append(".methodCall(")
+                            .append("classOrInstance,")
+                            .append(callSiteField)
+                            .append(",$args);");
+                    } else {
+                        code.append("Object value =  ")
+                            .append(MockGateway.class.getName())
+                            .append(".methodCall(")
+                            .append("classOrInstance,\"")
+                            .append(m.getMethodName())
+                            .append("\",$args, $sig,\"")
+                            .append(getReturnTypeAsString(method))
+                            .append("\");");
+                    }
                     code.append("if(value == ").append(MockGateway.class.getName()).append(".PROCEED) {");
                     code.append("	$_ = $proceed($$);");
                     code.append("} else {");
@@ -198,52 +210,4 @@ public final class PowerMockExpressionEditor extends ExprEditor {
             }
         }
     }
-    
-    /**
-     * Create a defer constructor in the class which will be called when the
-     * constructor is suppressed.
-     *
-     * @param clazz The class whose super constructor will get a new defer
-     *              constructor if it doesn't already have one.
-     * @throws CannotCompileException If an unexpected compilation error occurs.
-     */
-    private void addNewDeferConstructor(final CtClass clazz) throws CannotCompileException {
-        final CtClass superClass;
-        try {
-            superClass = clazz.getSuperclass();
-        } catch (NotFoundException e1) {
-            throw new IllegalArgumentException("Internal error: Failed to get superclass for " + clazz.getName() + " when about to create a new default constructor.");
-        }
-        
-        ClassPool classPool = clazz.getClassPool();
-        /*
-         * To make a unique defer constructor we create a new constructor
-         * with one argument (IndicateReloadClass). So we get this class a
-         * Javassist class below.
-         */
-        final CtClass constructorType;
-        try {
-            constructorType = classPool.get(IndicateReloadClass.class.getName());
-        } catch (NotFoundException e) {
-            throw new IllegalArgumentException("Internal error: failed to get the " + IndicateReloadClass.class.getName()
-                                                   + " when added defer constructor.");
-        }
-        clazz.defrost();
-        if (superClass.getName().equals(Object.class.getName())) {
-            try {
-                clazz.addConstructor(CtNewConstructor.make(new CtClass[]{constructorType}, new CtClass[0], "{super();}", clazz));
-            } catch (DuplicateMemberException e) {
-                // OK, the constructor has already been added.
-            }
-        } else {
-            addNewDeferConstructor(superClass);
-            try {
-                clazz.addConstructor(CtNewConstructor.make(new CtClass[]{constructorType}, new CtClass[0], "{super($$);}", clazz));
-            } catch (DuplicateMemberException e) {
-                // OK, the constructor has already been added.
-            }
-        }
-    }
-    
-    
 }
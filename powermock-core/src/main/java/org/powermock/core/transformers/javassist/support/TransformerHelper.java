@@ -18,17 +18,39 @@
 
 package org.powermock.core.transformers.javassist.support;
 
+import javassist.CannotCompileException;
+import javassist.ClassPool;
 import javassist.CtClass;
+import javassist.CtField;
 import javassist.CtMethod;
+import javassist.CtNewConstructor;
 import javassist.Modifier;
 import javassist.NotFoundException;
 import javassist.bytecode.AccessFlag;
+import javassist.bytecode.DuplicateMemberException;
 import javassist.bytecode.FieldInfo;
+import org.powermock.core.IndicateReloadClass;
+import org.powermock.core.MethodCallSite;
+import org.powermock.core.transformers.TransformStrategy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 public class TransformerHelper {
     
     public static final String VOID = "";
     
+    private static final String CALL_SITE_FIELD_PREFIX = "__powermockCallSite";
+    
+    /**
+     * The index of the next {@link MethodCallSite} field of a class. Classes are compared by identity and
+     * forgotten once they are no longer used.
+     */
+    private static final Map<CtClass, int[]> NEXT_CALL_SITE_INDEX = new WeakHashMap<CtClass, int[]>();
+    
     private static boolean isAccessFlagSynthetic(CtMethod method) {
         int accessFlags = method.getMethodInfo2().getAccessFlags();
         return ((accessFlags & AccessFlag.SYNTHETIC) != 0) && !isBridgeMethod(method);
@@ -83,4 +105,140 @@ public class TransformerHelper {
         final String className = declaringClass.getName();
         return className.startsWith("java.");
     }
+    
+    /**
+     * A {@link MethodCallSite} field can only be added when a class is loaded by a mock class loader, since a java agent
+     * is not allowed to add fields to an already loaded class. Interfaces cannot have non-final static fields.
+     */
+    public static boolean canAddCallSiteField(final TransformStrategy strategy, final CtClass clazz) {
+        return strategy.isClassloaderMode() && !clazz.isInterface();
+    }
+    
+    /**
+     * Add a synthetic static field which holds the {@link MethodCallSite} of one instrumented method or call.
+     *
+     * @return the name of the new field.
+     */
+    public static String addCallSiteField(final CtClass clazz) throws CannotCompileException {
+        final String fieldName = CALL_SITE_FIELD_PREFIX + nextCallSiteIndex(clazz);
+        final CtField field = CtField.make("private static " + MethodCallSite.class.getName() + " " + fieldName + ";", clazz);
+        field.getFieldInfo2().setAccessFlags(AccessFlag.PRIVATE | AccessFlag.STATIC | AccessFlag.SYNTHETIC);
+        clazz.addField(field);
+        return fieldName;
+    }
+    
+    /**
+     * The fields which a class already has are only counted when the first field is added to it, since
+     * counting them for every field would take time quadratic in the number of methods.
+     */
+    private static int nextCallSiteIndex(final CtClass clazz) {
+        synchronized (NEXT_CALL_SITE_INDEX) {
+            int[] nextIndex = NEXT_CALL_SITE_INDEX.get(clazz);
+            if (nextIndex == null) {
+                nextIndex = new int[]{countCallSiteFields(clazz)};
+                NEXT_CALL_SITE_INDEX.put(clazz, nextIndex);
+            }
+            return nextIndex[0]++;
+        }
+    }
+    
+    private static int countCallSiteFields(final CtClass clazz) {
+        int count = 0;
+        for (CtField field : clazz.getDeclaredFields()) {
+            if (field.getName().startsWith(CALL_SITE_FIELD_PREFIX)) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * @return code which creates the {@link MethodCallSite} stored in {@code fieldName} the first time it's executed.
+     * The code is expected to be inserted where {@code $class} and {@code $sig} refer to the called method.
+     */
+    public static String getCallSiteInitializer(final String fieldName, final String methodName, final String returnTypeAsString) {
+        return "if (" + fieldName + " == null) { "
+                   + fieldName + " = new " + MethodCallSite.class.getName()
+                   + "($class, \"" + methodName + "\", $sig, \"" + returnTypeAsString + "\"); }";
+    }
+    
+    /**
+     * Create a defer constructor in the class which will be called when the
+     * constructor is suppressed.
+     *
+     * Super classes which have been read by a parent class pool are copied
+     * into the class pool of the class before they get a defer constructor,
+     * see {@link #getModifiableClass(ClassPool, CtClass)}.
+     *
+     * @param clazz The class whose super constructor will get a new defer
+     *              constructor if it doesn't already have one.
+     * @throws CannotCompileException If an unexpected compilation error occurs.
+     */
+    public static void addNewDeferConstructor(final CtClass clazz) throws CannotCompileException {
+        final CtClass superClass;
+        try {
+            superClass = clazz.getSuperclass();
+        } catch (NotFoundException e1) {
+            throw new IllegalArgumentException("Internal error: Failed to get superclass for " + clazz.getName() + " when about to create a new default constructor.");
+        }
+        
+        ClassPool classPool = clazz.getClassPool();
+        /*
+         * To make a unique defer constructor we create a new constructor
+         * with one argument (IndicateReloadClass). So we get this class a
+         * Javassist class below.
+         */
+        final CtClass constructorType;
+        try {
+            constructorType = classPool.get(IndicateReloadClass.class.getName());
+        } catch (NotFoundException e) {
+            throw new IllegalArgumentException("Internal error: failed to get the " + IndicateReloadClass.class.getName()
+                                                   + " when added defer constructor.");
+        }
+        clazz.defrost();
+        if (superClass.getName().equals(Object.class.getName())) {
+            try {
+                clazz.addConstructor(CtNewConstructor.make(new CtClass[]{constructorType}, new CtClass[0], "{super();}", clazz));
+            } catch (DuplicateMemberException e) {
+                // OK, the constructor has already been added.
+            }
+        } else {
+            addNewDeferConstructor(getModifiableClass(classPool, superClass));
+            try {
+                clazz.addConstructor(CtNewConstructor.make(new CtClass[]{constructorType}, new CtClass[0], "{super($$);}", clazz));
+            } catch (DuplicateMemberException e) {
+                // OK, the constructor has already been added.
+            }
+        }
+    }
+    
+    /**
+     * The class pools of mock class loaders share a parent class pool, whose classes are read by several
+     * threads and must never be modified. A class which has been read by another class pool is copied into
+     * the given class pool, which finds the copy from then on.
+     *
+     * @param classPool the class pool in which the class is going to be modified.
+     * @param clazz     the class to modify.
+     * @return the class itself if it belongs to the class pool, otherwise a copy of it in the class pool.
+     * @throws CannotCompileException If the class file of the class cannot be read.
+     */
+    public static CtClass getModifiableClass(final ClassPool classPool, final CtClass clazz) throws CannotCompileException {
+        if (clazz.getClassPool() == classPool) {
+            return clazz;
+        }
+        final URL classFile = clazz.getClassPool().find(clazz.getName());
+        if (classFile == null) {
+            throw new CannotCompileException("Failed to find the class file of " + clazz.getName() + ".");
+        }
+        try {
+            final InputStream in = classFile.openStream();
+            try {
+                return classPool.makeClass(in);
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            throw new CannotCompileException(e);
+        }
+    }
 }
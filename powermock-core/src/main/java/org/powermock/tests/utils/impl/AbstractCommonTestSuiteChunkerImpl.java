@@ -84,12 +84,15 @@ public abstract class AbstractCommonTestSuiteChunkerImpl implements TestSuiteChu
     
     private void chunkClass(final Class<?> testClass) throws Exception {
 
-        List<Method> testMethodsForOtherClassLoaders = new ArrayList<Method>();
-        
-        final ClassLoader defaultMockLoader = createDefaultMockLoader(testClass, testMethodsForOtherClassLoaders);
+        final List<Method> testMethodsForOtherClassLoaders = new ArrayList<Method>();
     
         List<Method> currentClassloaderMethods = new LinkedList<Method>();
-        TestChunk defaultTestChunk = new TestChunkImpl(defaultMockLoader, currentClassloaderMethods);
+        TestChunk defaultTestChunk = new TestChunkImpl(currentClassloaderMethods) {
+            @Override
+            protected ClassLoader createClassLoader() {
+                return createDefaultMockLoader(testClass, testMethodsForOtherClassLoaders);
+            }
+        };
         
         // Put the first suite in the map of internal suites.
         List<TestChunk> testChunks = new LinkedList<TestChunk>();
@@ -128,16 +131,19 @@ public abstract class AbstractCommonTestSuiteChunkerImpl implements TestSuiteChu
         return new MockClassLoaderFactory(testClass).createForClass(extraMockTransformer);
     }
     
-    private void putMethodToChunk(TestCaseEntry testCaseEntry, Class<?> testClass, Method method) {
+    private void putMethodToChunk(TestCaseEntry testCaseEntry, final Class<?> testClass, final Method method) {
         if (shouldExecuteTestForMethod(testClass, method)) {
             currentTestIndex++;
             if (hasChunkAnnotation(method)) {
                 LinkedList<Method> methodsInThisChunk = new LinkedList<Method>();
                 methodsInThisChunk.add(method);
                 
-                final ClassLoader mockClassloader = createClassLoaderForMethod(testClass, method);
-                
-                final TestChunkImpl chunk = new TestChunkImpl(mockClassloader, methodsInThisChunk);
+                final TestChunkImpl chunk = new TestChunkImpl(methodsInThisChunk) {
+                    @Override
+                    protected ClassLoader createClassLoader() {
+                        return createClassLoaderForMethod(testClass, method);
+                    }
+                };
                 testCaseEntry.getTestChunks().add(chunk);
                 updatedIndexes();
             } else {
@@ -161,7 +161,15 @@ public class MockPolicyInitializerImpl implements MockPolicyInitializer {
             final Class<?> thisTypeLoadedByMockClassLoader = Class.forName(this.getClass()
                                                                                .getName(), false, classLoader);
             Object mockPolicyHandler = Whitebox.invokeConstructor(thisTypeLoadedByMockClassLoader, mockPolicies, true);
-            Whitebox.invokeMethod(mockPolicyHandler, "initializeInterceptionSettings");
+            // The settings are kept in the scope of the mock class loader
+            final Thread currentThread = Thread.currentThread();
+            final ClassLoader originalClassLoader = currentThread.getContextClassLoader();
+            currentThread.setContextClassLoader(classLoader);
+            try {
+                Whitebox.invokeMethod(mockPolicyHandler, "initializeInterceptionSettings");
+            } finally {
+                currentThread.setContextClassLoader(originalClassLoader);
+            }
         } catch (InvocationTargetException e) {
             final Throwable targetException = e.getTargetException();
             if (targetException instanceof RuntimeException) {
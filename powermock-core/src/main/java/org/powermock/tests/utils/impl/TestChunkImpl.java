@@ -23,10 +23,13 @@ import java.util.List;
 /**
  * A test chunk consists of a list of methods that should be executed by a
  * particular classloader.
+ * <p>
+ * The classloader may be created lazily by overriding {@link #createClassLoader()},
+ * so that a chunk which is never executed never allocates a classloader.
  */
 public class TestChunkImpl implements TestChunk {
 
-	private final ClassLoader classLoader;
+	private ClassLoader classLoader;
 	private final List<Method> testMethodsToBeExecutedByThisClassloader;
 
     public TestChunkImpl(ClassLoader classLoader, List<Method> testMethodsToBeExecutedByThisClassloader) {
@@ -34,11 +37,33 @@ public class TestChunkImpl implements TestChunk {
 		this.testMethodsToBeExecutedByThisClassloader = testMethodsToBeExecutedByThisClassloader;
     }
 
+	/**
+	 * Create a chunk which creates its classloader by {@link #createClassLoader()} when it's
+	 * requested the first time.
+	 */
+	protected TestChunkImpl(List<Method> testMethodsToBeExecutedByThisClassloader) {
+		this(null, testMethodsToBeExecutedByThisClassloader);
+	}
+
 	@Override
-	public ClassLoader getClassLoader() {
+	public synchronized ClassLoader getClassLoader() {
+		if (classLoader == null) {
+			classLoader = createClassLoader();
+		}
 		return classLoader;
 	}
 
+	/**
+	 * @return {@code true} if the classloader of this chunk has been created.
+	 */
+	public synchronized boolean isClassLoaderCreated() {
+		return classLoader != null;
+	}
+
+	protected ClassLoader createClassLoader() {
+		throw new IllegalStateException("Internal error: No classloader for test chunk " + testMethodsToBeExecutedByThisClassloader);
+	}
+
 	@Override
 	public List<Method> getTestMethodsToBeExecutedByThisClassloader() {
 		return testMethodsToBeExecutedByThisClassloader;
@@ -52,7 +77,7 @@ public class TestChunkImpl implements TestChunk {
     @Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
-		sb.append("Classloader = ").append(classLoader).append("\n");
+		sb.append("Classloader = ").append(isClassLoaderCreated() ? classLoader : "not created yet").append("\n");
 		sb.append("Methods:\n");
 		for (Method method : testMethodsToBeExecutedByThisClassloader) {
 			sb.append("  ").append(method).append("\n");
@@ -51,4 +51,10 @@ public class WildcardMatcherTest {
     public void exactMatch() throws Exception {
         assertTrue(WildcardMatcher.matches("org.mytest.java", "org.mytest.java"));
     }
+
+    @Test
+    public void matchesMultipleWildcards() throws Exception {
+        assertTrue(WildcardMatcher.matches("org.mytest.MyClass$$EnhancerByCGLIB$$1", "org.*CGLIB$$*"));
+        assertFalse(WildcardMatcher.matches("org.mytest.MyClass", "org.*CGLIB$$*"));
+    }
 }
@@ -0,0 +1,65 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock;
+
+import org.junit.Test;
+import org.powermock.core.WildcardPatternSet;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class WildcardPatternSetTest {
+
+    private final WildcardPatternSet patterns = new WildcardPatternSet(
+        "org.mytest.MyClass", "java.*", "org.powermock.core*", "*.Generated", "*CGLIB$$*", "org.*.internal.*"
+    );
+
+    @Test
+    public void should_match_exact_names() {
+        assertThat(patterns.matches("org.mytest.MyClass")).isTrue();
+        assertThat(patterns.matches("org.mytest.MyClass2")).isFalse();
+        assertThat(patterns.matches("org.mytest.My")).isFalse();
+    }
+
+    @Test
+    public void should_match_prefixes() {
+        assertThat(patterns.matches("java.lang.String")).isTrue();
+        assertThat(patterns.matches("org.powermock.core")).isTrue();
+        assertThat(patterns.matches("org.powermock.core.MockGateway")).isTrue();
+        assertThat(patterns.matches("javassist.runtime.Desc")).isFalse();
+    }
+
+    @Test
+    public void should_match_suffixes_and_infixes() {
+        assertThat(patterns.matches("org.mytest.Generated")).isTrue();
+        assertThat(patterns.matches("org.mytest.MyClass$$EnhancerByCGLIB$$1")).isTrue();
+        assertThat(patterns.matches("org.mytest.Generated.Inner")).isFalse();
+    }
+
+    @Test
+    public void should_fall_back_to_general_patterns() {
+        assertThat(patterns.matches("org.mytest.internal.Impl")).isTrue();
+        assertThat(patterns.matches("org.mytest.Impl")).isFalse();
+    }
+
+    @Test
+    public void should_match_everything_with_single_wildcard() {
+        assertThat(new WildcardPatternSet("*").matches("any.Class")).isTrue();
+        assertThat(new WildcardPatternSet().matches("any.Class")).isFalse();
+    }
+}
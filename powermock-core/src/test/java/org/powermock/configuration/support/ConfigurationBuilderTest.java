@@ -99,4 +99,40 @@ public class ConfigurationBuilderTest {
             .as("Configuration is map")
             .containsExactly("org.somepacckage.*","org.other.Class");
     }
+    
+    @Test
+    public void should_read_powermock_prewarm_threads_as_integer() {
+        
+        PowerMockConfiguration configuration = createConfigurationFor(PowerMockConfiguration.class)
+                                                   .fromFile(CONFIGURATION_FILE);
+        
+        assertThat(configuration.getPrewarmThreads())
+            .as("Configuration is map")
+            .isEqualTo(4);
+    }
+    
+    @Test
+    public void should_read_powermock_shared_byte_code_cache_size_as_integer() {
+        
+        PowerMockConfiguration configuration = createConfigurationFor(PowerMockConfiguration.class)
+                                                   .fromFile(CONFIGURATION_FILE);
+        
+        assertThat(configuration.getSharedByteCodeCacheSize())
+            .as("Shared byte code cache size is read")
+            .isEqualTo(16);
+    }
+    
+    @Test
+    public void should_read_powermock_class_loader_pool_configuration() {
+        
+        PowerMockConfiguration configuration = createConfigurationFor(PowerMockConfiguration.class)
+                                                   .fromFile(CONFIGURATION_FILE);
+        
+        assertThat(configuration.getClassLoaderPoolSize())
+            .as("Pool size is read")
+            .isEqualTo(8);
+        assertThat(configuration.getClassLoaderReinitializer())
+            .as("Reinitializer is read")
+            .isEqualTo("org.somepacckage.Reinitializer");
+    }
 }
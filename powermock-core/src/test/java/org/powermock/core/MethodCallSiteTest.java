@@ -0,0 +1,81 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class MethodCallSiteTest {
+
+    @After
+    public void tearDown() {
+        MockInvocation.clearMethodCache();
+    }
+
+    @Test
+    public void should_resolve_method_of_declaring_type_once() {
+        final MethodCallSite callSite = new MethodCallSite(Parent.class, "value", new Class<?>[]{int.class}, "int");
+
+        final Method method = callSite.getMethod(Parent.class);
+        MockInvocation.clearMethodCache();
+
+        assertThat(method.getDeclaringClass()).isSameAs(Parent.class);
+        assertThat(callSite.getMethod(Parent.class)).isSameAs(method);
+    }
+
+    @Test
+    public void should_resolve_overriding_method_for_sub_type() {
+        final MethodCallSite callSite = new MethodCallSite(Parent.class, "value", new Class<?>[]{int.class}, "int");
+
+        callSite.getMethod(Parent.class);
+
+        assertThat(callSite.getMethod(Child.class).getDeclaringClass()).isSameAs(Child.class);
+    }
+
+    @Test
+    public void should_describe_called_method() {
+        final MethodCallSite callSite = new MethodCallSite(Parent.class, "value", new Class<?>[]{int.class}, "int");
+
+        assertThat(callSite.getDeclaringType()).isSameAs(Parent.class);
+        assertThat(callSite.getMethodName()).isEqualTo("value");
+        assertThat(callSite.getSignature()).containsExactly(int.class);
+        assertThat(callSite.getDefaultReturnValue()).isEqualTo(0);
+        assertThat(callSite.isJavaStandardMethod()).isFalse();
+        assertThat(new MethodCallSite(Parent.class, "equals", new Class<?>[]{Object.class}, "boolean").isJavaStandardMethod()).isTrue();
+    }
+
+    public static class Parent {
+
+        public int value(final int value) {
+            return value;
+        }
+    }
+
+    public static class Child extends Parent {
+
+        @Override
+        public int value(final int value) {
+            return value + 1;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.core.spi.MethodInvocationControl;
+
+import java.lang.reflect.Method;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class MockGatewayTest {
+
+    private Mocked instance;
+
+    @Before
+    public void setUp() {
+        instance = new Mocked();
+        MockRepository.putInstanceMethodInvocationControl(instance, new MockedValues());
+    }
+
+    @After
+    public void tearDown() {
+        MockRepository.clear();
+    }
+
+    @Test
+    public void should_call_mock_for_equals_outside_of_mock_framework() throws Throwable {
+        assertThat(callEquals()).isEqualTo(Boolean.TRUE);
+    }
+
+    @Test
+    public void should_proceed_to_real_equals_while_mock_framework_handles_invocation() throws Throwable {
+        MockGateway.mockFrameworkInvocationStarted();
+        try {
+            assertThat(callEquals()).isSameAs(MockGateway.PROCEED);
+        } finally {
+            MockGateway.mockFrameworkInvocationFinished();
+        }
+
+        assertThat(callEquals()).isEqualTo(Boolean.TRUE);
+    }
+
+    @Test
+    public void should_proceed_to_real_equals_until_outermost_mock_framework_invocation_has_finished() throws Throwable {
+        MockGateway.mockFrameworkInvocationStarted();
+        MockGateway.mockFrameworkInvocationStarted();
+        MockGateway.mockFrameworkInvocationFinished();
+        try {
+            assertThat(callEquals()).isSameAs(MockGateway.PROCEED);
+        } finally {
+            MockGateway.mockFrameworkInvocationFinished();
+        }
+
+        assertThat(callEquals()).isEqualTo(Boolean.TRUE);
+    }
+
+    private Object callEquals() throws Throwable {
+        return MockGateway.methodCall(instance, "equals", new Object[]{new Object()}, new Class<?>[]{Object.class}, "boolean");
+    }
+
+    public static class Mocked {
+
+        @Override
+        public boolean equals(final Object obj) {
+            return super.equals(obj);
+        }
+    }
+
+    private static class MockedValues implements MethodInvocationControl {
+        @Override
+        public boolean isMocked(Method method) {
+            return true;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            return Boolean.TRUE;
+        }
+
+        @Override
+        public Object replay(Object... mocks) {
+            return null;
+        }
+
+        @Override
+        public Object reset(Object... mocks) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core;
+
+import org.junit.After;
+import org.junit.Test;
+import org.powermock.reflect.Whitebox;
+
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Map;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class MockInvocationTest {
+
+    @After
+    public void tearDown() {
+        MockInvocation.clearMethodCache();
+    }
+
+    @Test
+    public void should_resolve_overloaded_methods_by_signature_and_return_cached_method_for_same_signature() {
+        final Method withInt = MockInvocation.findMethodToInvoke("overloaded", new Class<?>[]{int.class}, Overloaded.class);
+        final Method withString = MockInvocation.findMethodToInvoke("overloaded", new Class<?>[]{String.class}, Overloaded.class);
+
+        assertThat(withInt.getParameterTypes()).containsExactly(int.class);
+        assertThat(withString.getParameterTypes()).containsExactly(String.class);
+        assertThat(MockInvocation.findMethodToInvoke("overloaded", new Class<?>[]{int.class}, Overloaded.class)).isSameAs(withInt);
+        assertThat(MockInvocation.findMethodToInvoke("overloaded", new Class<?>[]{String.class}, Overloaded.class)).isSameAs(withString);
+    }
+
+    @Test
+    public void should_resolve_methods_of_classes_with_same_name_from_different_class_loaders_separately() throws Exception {
+        final Class<?> first = loadWithOwnClassLoader(Overloaded.class);
+        final Class<?> second = loadWithOwnClassLoader(Overloaded.class);
+
+        final Method firstMethod = MockInvocation.findMethodToInvoke("overloaded", new Class<?>[]{int.class}, first);
+        final Method secondMethod = MockInvocation.findMethodToInvoke("overloaded", new Class<?>[]{int.class}, second);
+
+        assertThat(second.getName()).isEqualTo(first.getName());
+        assertThat(firstMethod.getDeclaringClass()).isSameAs(first);
+        assertThat(secondMethod.getDeclaringClass()).isSameAs(second);
+    }
+
+    @Test
+    public void should_clear_method_cache_when_maximum_size_is_reached() {
+        final Map<Object, Method> methodCache = Whitebox.getInternalState(MockInvocation.class, "METHOD_CACHE");
+        final int maximumSize = Whitebox.<Integer>getInternalState(MockInvocation.class, "METHOD_CACHE_MAX_SIZE");
+        final Method cachedMethod = MockInvocation.findMethodToInvoke("overloaded", new Class<?>[]{int.class}, Overloaded.class);
+        for (int i = methodCache.size(); i < maximumSize; i++) {
+            methodCache.put(new Object(), cachedMethod);
+        }
+
+        MockInvocation.findMethodToInvoke("overloaded", new Class<?>[]{String.class}, Overloaded.class);
+
+        assertThat(methodCache).hasSize(1);
+    }
+
+    private static Class<?> loadWithOwnClassLoader(final Class<?> type) throws Exception {
+        final URL classPath = type.getProtectionDomain().getCodeSource().getLocation();
+        return Class.forName(type.getName(), false, new URLClassLoader(new URL[]{classPath}, null));
+    }
+
+    public static class Overloaded {
+
+        public void overloaded(final int value) {
+        }
+
+        public void overloaded(final String value) {
+        }
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core;
+
+import org.junit.After;
+import org.junit.Test;
+import org.powermock.core.classloader.MockClassLoader;
+import org.powermock.core.classloader.javassist.JavassistMockClassLoader;
+import org.powermock.core.spi.MethodInvocationControl;
+import org.powermock.core.transformers.javassist.JavassistMockTransformerChainFactory;
+import org.powermock.reflect.Whitebox;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class MockRepositoryTest {
+
+    private static final String MOCKED_CLASS = "powermock.test.support.ClassForMockClassLoaderTestCase";
+
+    @After
+    public void tearDown() {
+        MockRepository.clear();
+    }
+
+    @Test
+    public void should_stub_method_with_null_value() throws Exception {
+        final Method method = Object.class.getMethod("toString");
+
+        MockRepository.putMethodToStub(method, null);
+
+        assertThat(MockRepository.shouldStubMethod(method)).isTrue();
+        assertThat(MockRepository.getMethodToStub(method)).isNull();
+    }
+
+    @Test
+    public void should_return_snapshot_of_objects_to_replay_and_verify() {
+        final Object first = new Object();
+        final Object second = new Object();
+
+        MockRepository.addObjectsToAutomaticallyReplayAndVerify(first);
+        final Set<Object> snapshot = MockRepository.getObjectsToAutomaticallyReplayAndVerify();
+        MockRepository.addObjectsToAutomaticallyReplayAndVerify(second);
+
+        assertThat(snapshot).containsOnly(first);
+        assertThat(MockRepository.getObjectsToAutomaticallyReplayAndVerify()).containsOnly(first, second);
+    }
+
+    @Test
+    public void should_keep_suppressed_static_initializers_after_clear() {
+        MockRepository.addSuppressStaticInitializer("org.powermock.SomeClass");
+        MockRepository.putAdditionalState("key", "value");
+
+        MockRepository.clear();
+
+        assertThat(MockRepository.shouldSuppressStaticInitializerFor("org.powermock.SomeClass")).isTrue();
+        assertThat(MockRepository.<Object>getAdditionalState("key")).isNull();
+
+        MockRepository.removeSuppressStaticInitializer("org.powermock.SomeClass");
+    }
+
+    @Test
+    public void should_intercept_only_types_with_registered_state() throws Exception {
+        MockRepository.putInstanceMethodInvocationControl(new StringBuilder(), null);
+        MockRepository.putStaticMethodInvocationControl(Long.class, null);
+        MockRepository.addConstructorToSuppress(Integer.class.getConstructor(int.class));
+
+        assertThat(MockRepository.isIntercepted(StringBuilder.class)).isTrue();
+        assertThat(MockRepository.isIntercepted(Long.class)).isTrue();
+        assertThat(MockRepository.isIntercepted(Integer.class)).isTrue();
+        assertThat(MockRepository.isIntercepted(String.class)).isFalse();
+
+        MockRepository.remove(Long.class);
+
+        assertThat(MockRepository.isIntercepted(Long.class)).isFalse();
+    }
+
+    @Test
+    public void should_look_up_instance_mocks_by_identity() {
+        final String instance = new String("mock");
+        final MethodInvocationControl control = new MethodInvocationControlStub();
+
+        MockRepository.putInstanceMethodInvocationControl(instance, control);
+
+        assertThat(MockRepository.getInstanceMethodInvocationControl(instance)).isSameAs(control);
+        assertThat(MockRepository.getInstanceMethodInvocationControl(new String("mock"))).isNull();
+
+        MockRepository.remove(instance);
+
+        assertThat(MockRepository.getInstanceMethodInvocationControl(instance)).isNull();
+        assertThat(MockRepository.isIntercepted(String.class)).isFalse();
+    }
+
+    @Test
+    public void should_keep_instance_registered_with_null_control_until_it_is_removed() {
+        final Object instance = new Object();
+        final MethodInvocationControl control = new MethodInvocationControlStub();
+
+        assertThat(MockRepository.putInstanceMethodInvocationControl(instance, null)).isNull();
+
+        assertThat(MockRepository.getInstanceMethodInvocationControl(instance)).isNull();
+        assertThat(MockRepository.isIntercepted(Object.class)).isTrue();
+        assertThat(MockRepository.putInstanceMethodInvocationControl(instance, control)).isNull();
+        assertThat(MockRepository.putInstanceMethodInvocationControl(instance, null)).isSameAs(control);
+
+        MockRepository.remove(instance);
+
+        assertThat(MockRepository.isIntercepted(Object.class)).isFalse();
+    }
+
+    @Test
+    public void should_intercept_all_types_when_a_method_is_suppressed() throws Exception {
+        MockRepository.addMethodToSuppress(Object.class.getMethod("toString"));
+
+        assertThat(MockRepository.isIntercepted(String.class)).isTrue();
+
+        MockRepository.clear();
+
+        assertThat(MockRepository.isIntercepted(String.class)).isFalse();
+    }
+
+    @Test
+    public void should_not_lose_writes_from_concurrent_threads() throws Exception {
+        final int threadCount = 8;
+        final int writesPerThread = 200;
+        final Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            final int thread = i;
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < writesPerThread; j++) {
+                        MockRepository.putAdditionalState(thread + "-" + j, j);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (int i = 0; i < threadCount; i++) {
+            for (int j = 0; j < writesPerThread; j++) {
+                assertThat(MockRepository.<Object>getAdditionalState(i + "-" + j)).isEqualTo(j);
+            }
+        }
+    }
+
+    @Test
+    public void should_keep_state_in_scope_of_context_mock_class_loader() throws Exception {
+        final MockClassLoader first = new JavassistMockClassLoader(new String[0]);
+        final MockClassLoader second = new JavassistMockClassLoader(new String[0]);
+
+        putAdditionalStateWithContextClassLoader(first, "first");
+        putAdditionalStateWithContextClassLoader(second, "second");
+
+        assertThat(getAdditionalStateWithContextClassLoader(first)).isEqualTo("first");
+        assertThat(getAdditionalStateWithContextClassLoader(second)).isEqualTo("second");
+        assertThat(MockRepository.<Object>getAdditionalState("key")).isNull();
+    }
+
+    @Test
+    public void should_clear_only_state_of_current_scope() throws Exception {
+        final MockClassLoader classLoader = new JavassistMockClassLoader(new String[0]);
+        putAdditionalStateWithContextClassLoader(classLoader, "scoped");
+        MockRepository.putAdditionalState("key", "shared");
+
+        MockRepository.clear();
+
+        assertThat(MockRepository.<Object>getAdditionalState("key")).isNull();
+        assertThat(getAdditionalStateWithContextClassLoader(classLoader)).isEqualTo("scoped");
+    }
+
+    @Test
+    public void should_find_mocks_of_class_loaded_by_mock_class_loader_from_any_thread() throws Exception {
+        final MockClassLoader classLoader = newMockClassLoader();
+        final Class<?> type = classLoader.loadClass(MOCKED_CLASS);
+        final MethodInvocationControl control = new MethodInvocationControlStub();
+        putStaticMethodInvocationControlWithContextClassLoader(classLoader, type, control);
+
+        final Object[] found = new Object[2];
+        final Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                found[0] = MockRepository.getStaticMethodInvocationControl(type);
+                found[1] = MockRepository.isIntercepted(type);
+            }
+        });
+        thread.setContextClassLoader(ClassLoader.getSystemClassLoader());
+        thread.start();
+        thread.join();
+
+        assertThat(found[0]).isSameAs(control);
+        assertThat(found[1]).isEqualTo(Boolean.TRUE);
+        assertThat(MockRepository.getStaticMethodInvocationControl(type)).isSameAs(control);
+    }
+
+    @Test
+    public void should_clear_scope_of_class_loader_which_is_not_context_class_loader() throws Exception {
+        final MockClassLoader classLoader = newMockClassLoader();
+        final Class<?> type = classLoader.loadClass(MOCKED_CLASS);
+        putStaticMethodInvocationControlWithContextClassLoader(classLoader, type, new MethodInvocationControlStub());
+        MockRepository.putAdditionalState("key", "shared");
+
+        MockRepository.clear(classLoader);
+
+        assertThat(MockRepository.getStaticMethodInvocationControl(type)).isNull();
+        assertThat(MockRepository.isIntercepted(type)).isFalse();
+        assertThat(MockRepository.<Object>getAdditionalState("key")).isEqualTo("shared");
+    }
+
+    @Test
+    public void should_remove_only_cached_methods_of_classes_of_cleared_scope() throws Exception {
+        final Class<?> type = newMockClassLoader().loadClass(MOCKED_CLASS);
+        final Map<Object, Method> methodCache = Whitebox.getInternalState(MockInvocation.class, "METHOD_CACHE");
+        MockInvocation.clearMethodCache();
+        MockInvocation.findMethodToInvoke("toString", new Class<?>[0], type);
+        final Method sharedMethod = MockInvocation.findMethodToInvoke("toString", new Class<?>[0], StringBuilder.class);
+
+        MockRepository.clear(type.getClassLoader());
+
+        assertThat(methodCache.values()).containsExactly(sharedMethod);
+        MockInvocation.clearMethodCache();
+    }
+
+    private static MockClassLoader newMockClassLoader() {
+        final MockClassLoader classLoader = new JavassistMockClassLoader(new String[]{MOCKED_CLASS});
+        classLoader.setMockTransformerChain(new JavassistMockTransformerChainFactory().createDefaultChain());
+        return classLoader;
+    }
+
+    private static void putStaticMethodInvocationControlWithContextClassLoader(final ClassLoader classLoader, final Class<?> type,
+                                                                               final MethodInvocationControl control) {
+        final Thread currentThread = Thread.currentThread();
+        final ClassLoader originalClassLoader = currentThread.getContextClassLoader();
+        currentThread.setContextClassLoader(classLoader);
+        try {
+            MockRepository.putStaticMethodInvocationControl(type, control);
+        } finally {
+            currentThread.setContextClassLoader(originalClassLoader);
+        }
+    }
+
+    private static void putAdditionalStateWithContextClassLoader(final ClassLoader classLoader, final Object value) {
+        final Thread currentThread = Thread.currentThread();
+        final ClassLoader originalClassLoader = currentThread.getContextClassLoader();
+        currentThread.setContextClassLoader(classLoader);
+        try {
+            MockRepository.putAdditionalState("key", value);
+        } finally {
+            currentThread.setContextClassLoader(originalClassLoader);
+        }
+    }
+
+    private static Object getAdditionalStateWithContextClassLoader(final ClassLoader classLoader) {
+        final Thread currentThread = Thread.currentThread();
+        final ClassLoader originalClassLoader = currentThread.getContextClassLoader();
+        currentThread.setContextClassLoader(classLoader);
+        try {
+            return MockRepository.getAdditionalState("key");
+        } finally {
+            currentThread.setContextClassLoader(originalClassLoader);
+        }
+    }
+
+    private static class MethodInvocationControlStub implements MethodInvocationControl {
+        @Override
+        public boolean isMocked(Method method) {
+            return true;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            return null;
+        }
+
+        @Override
+        public Object replay(Object... mocks) {
+            return null;
+        }
+
+        @Override
+        public Object reset(Object... mocks) {
+            return null;
+        }
+    }
+}
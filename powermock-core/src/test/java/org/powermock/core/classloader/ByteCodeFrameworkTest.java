@@ -0,0 +1,66 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core.classloader;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.configuration.GlobalConfiguration;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class ByteCodeFrameworkTest {
+
+    @Before
+    public void setUp() {
+        GlobalConfiguration.powerMockConfiguration().setByteCodeFramework(ByteCodeFramework.ByteBuddy);
+    }
+
+    @After
+    public void tearDown() {
+        GlobalConfiguration.clear();
+    }
+
+    @Test
+    public void should_use_configured_byte_code_framework_when_annotation_keeps_default() {
+        assertThat(ByteCodeFramework.getByteCodeFrameworkForTestClass(PreparedWithDefault.class)).isEqualTo(ByteCodeFramework.ByteBuddy);
+    }
+
+    @Test
+    public void should_use_byte_code_framework_set_explicitly_by_annotation() {
+        assertThat(ByteCodeFramework.getByteCodeFrameworkForTestClass(PreparedWithJavassist.class)).isEqualTo(ByteCodeFramework.Javassist);
+    }
+
+    @Test
+    public void should_use_javassist_when_no_byte_code_framework_is_configured() {
+        GlobalConfiguration.powerMockConfiguration().setByteCodeFramework(null);
+
+        assertThat(ByteCodeFramework.getByteCodeFrameworkForTestClass(PreparedWithDefault.class)).isEqualTo(ByteCodeFramework.Javassist);
+        assertThat(ByteCodeFramework.getByteCodeFrameworkForTestClass(ByteCodeFrameworkTest.class)).isEqualTo(ByteCodeFramework.Javassist);
+    }
+
+    @PrepareForTest(Collaborator.class)
+    private static class PreparedWithDefault {
+    }
+
+    @PrepareForTest(value = Collaborator.class, byteCodeFramework = ByteCodeFramework.Javassist)
+    private static class PreparedWithJavassist {
+    }
+}
@@ -8,9 +8,9 @@ import org.powermock.PowerMockInternalException;
 import org.powermock.core.classloader.javassist.JavassistMockClassLoader;
 import org.powermock.core.transformers.ClassWrapper;
 import org.powermock.core.transformers.MockTransformer;
+import org.powermock.core.transformers.MockTransformerChain;
 import org.powermock.core.transformers.MockTransformerChain.FilterPredicate;
 import org.powermock.core.transformers.TestClassAwareTransformer;
-import org.powermock.core.transformers.support.DefaultMockTransformerChain;
 import org.powermock.reflect.internal.WhiteboxImpl;
 
 import java.lang.reflect.Method;
@@ -73,12 +73,12 @@ public class MockClassLoaderBuilderTest {
     }
     
     private void assertThatJavassistMockTransformerChainCreated(final MockClassLoader classLoader) {
-        final DefaultMockTransformerChain mockTransformerChain = (DefaultMockTransformerChain) classLoader.getMockTransformerChain();
+        final MockTransformerChain mockTransformerChain = classLoader.getMockTransformerChain();
         assertThatMockTransformerChainWorksWithExpectedClassRepresentation(CtClass.class, mockTransformerChain);
     }
     
     private void assertThatMockTransformerChainWorksWithExpectedClassRepresentation(final Class<?> expectedParameterClass,
-                                                                                    final DefaultMockTransformerChain mockTransformerChain) {
+                                                                                    final MockTransformerChain mockTransformerChain) {
         final Method method = WhiteboxImpl.findMethod(
             mockTransformerChain.filter(new FilterPredicate() {
                 @Override
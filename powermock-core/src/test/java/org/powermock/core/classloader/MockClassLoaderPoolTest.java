@@ -0,0 +1,176 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core.classloader;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.configuration.GlobalConfiguration;
+import org.powermock.core.MockRepository;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.core.classloader.annotations.SuppressStaticInitializationFor;
+import org.powermock.core.classloader.javassist.JavassistMockClassLoader;
+import org.powermock.core.transformers.ClassWrapper;
+import org.powermock.core.transformers.MockTransformer;
+import org.powermock.core.transformers.MockTransformerChain;
+import org.powermock.core.transformers.javassist.JavassistMockTransformerChainFactory;
+import powermock.test.support.TestWithTwoTestMethods;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class MockClassLoaderPoolTest {
+
+    private static final String KEY = "javassist\npowermock.test.support.ClassForMockClassLoaderTestCase";
+
+    @Before
+    public void setUp() {
+        MockClassLoaderPool.clear();
+    }
+
+    @After
+    public void tearDown() {
+        MockClassLoaderPool.clear();
+    }
+
+    @Test
+    public void should_reuse_class_loader_for_test_class_with_same_configuration() {
+        final MockClassLoader classLoader = newClassLoader();
+        MockClassLoaderPool.put(KEY, classLoader, FirstTest.class, 2);
+
+        final MockClassLoader reused = MockClassLoaderPool.reuse(KEY, SecondTest.class, newChain());
+
+        assertThat(reused).isSameAs(classLoader);
+        assertThat(MockClassLoaderPool.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void should_not_reuse_class_loader_for_other_configuration() {
+        MockClassLoaderPool.put(KEY, newClassLoader(), FirstTest.class, 2);
+
+        assertThat(MockClassLoaderPool.reuse(KEY + "\nother", SecondTest.class, newChain())).isNull();
+        assertThat(MockClassLoaderPool.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void should_not_reuse_class_loader_if_test_class_hierarchies_overlap() {
+        MockClassLoaderPool.put(KEY, newClassLoader(), FirstTest.class, 2);
+
+        assertThat(MockClassLoaderPool.reuse(KEY, FirstSubTest.class, newChain())).isNull();
+    }
+
+    @Test
+    public void should_not_reuse_class_loader_which_has_already_loaded_test_class() throws Exception {
+        final MockClassLoader classLoader = newClassLoader();
+        classLoader.loadClass(TestWithTwoTestMethods.class.getName());
+        MockClassLoaderPool.put(KEY, classLoader, FirstTest.class, 2);
+
+        assertThat(MockClassLoaderPool.reuse(KEY, TestWithTwoTestMethods.class, newChain())).isNull();
+    }
+
+    @Test
+    public void should_release_least_recently_used_class_loader_if_pool_is_exceeded() {
+        MockClassLoaderPool.put("first", newClassLoader(), FirstTest.class, 2);
+        MockClassLoaderPool.put("second", newClassLoader(), FirstTest.class, 2);
+        MockClassLoaderPool.reuse("first", SecondTest.class, newChain());
+        MockClassLoaderPool.put("third", newClassLoader(), FirstTest.class, 2);
+
+        assertThat(MockClassLoaderPool.getSize()).isEqualTo(2);
+        assertThat(MockClassLoaderPool.getReleaseCount()).isEqualTo(1);
+        assertThat(MockClassLoaderPool.reuse("second", SecondTest.class, newChain())).isNull();
+    }
+
+    @Test
+    public void should_modify_test_class_by_the_chain_which_is_created_for_it() {
+        final MockClassLoader classLoader = newClassLoader();
+        MockClassLoaderPool.put(KEY, classLoader, FirstTest.class, 2);
+        final MockTransformerChain chain = newChain();
+
+        MockClassLoaderPool.reuse(KEY, SecondTest.class, chain);
+
+        assertThat(classLoader.getMockTransformerChain(SecondTest.class.getName())).isSameAs(chain);
+        assertThat(classLoader.getMockTransformerChain(SecondTest.Nested.class.getName())).isSameAs(chain);
+        assertThat(classLoader.getMockTransformerChain(FirstTest.class.getName())).isSameAs(classLoader.getMockTransformerChain());
+    }
+
+    @Test
+    public void should_not_reuse_class_loader_of_test_which_prepares_class_for_test_which_suppresses_its_static_initializer() {
+        GlobalConfiguration.powerMockConfiguration().setClassLoaderPoolSize(2);
+        try {
+            final ClassLoader preparing = new MockClassLoaderFactory(PreparingTest.class).createForClass();
+            final ClassLoader suppressing = new MockClassLoaderFactory(SuppressingTest.class).createForClass();
+
+            assertThat(suppressing).isNotSameAs(preparing);
+            assertThat(MockClassLoaderPool.getSize()).isEqualTo(2);
+        } finally {
+            MockRepository.removeSuppressStaticInitializer(Collaborator.class.getName());
+            GlobalConfiguration.clear();
+        }
+    }
+
+    @Test
+    public void should_not_pool_class_loader_with_extra_transformers_other_than_test_class_transformers() {
+        GlobalConfiguration.powerMockConfiguration().setClassLoaderPoolSize(2);
+        try {
+            final ClassLoader first = new MockClassLoaderFactory(FirstTest.class).createForClass(new ExtraTransformer());
+            final ClassLoader second = new MockClassLoaderFactory(SecondTest.class).createForClass(new ExtraTransformer());
+
+            assertThat(second).isNotSameAs(first);
+            assertThat(MockClassLoaderPool.getSize()).isEqualTo(0);
+        } finally {
+            GlobalConfiguration.clear();
+        }
+    }
+
+    private static MockClassLoader newClassLoader() {
+        final MockClassLoader classLoader = new JavassistMockClassLoader(new String[]{"powermock.test.support.ClassForMockClassLoaderTestCase"});
+        classLoader.setMockTransformerChain(newChain());
+        return classLoader;
+    }
+
+    private static MockTransformerChain newChain() {
+        return new JavassistMockTransformerChainFactory().createDefaultChain();
+    }
+
+    public static class FirstTest {
+    }
+
+    public static class FirstSubTest extends FirstTest {
+    }
+
+    public static class SecondTest {
+
+        public static class Nested {
+        }
+    }
+
+    @PrepareForTest(Collaborator.class)
+    public static class PreparingTest {
+    }
+
+    private static class ExtraTransformer implements MockTransformer<Object> {
+        @Override
+        public ClassWrapper<Object> transform(final ClassWrapper<Object> clazz) {
+            return clazz;
+        }
+    }
+
+    @SuppressStaticInitializationFor("org.powermock.core.classloader.Collaborator")
+    public static class SuppressingTest {
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core.classloader;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.core.IndicateReloadClass;
+import org.powermock.core.MockRepository;
+import org.powermock.core.classloader.javassist.JavassistMockClassLoader;
+import org.powermock.core.transformers.javassist.JavassistMockTransformerChainFactory;
+
+import java.security.ProtectionDomain;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class MockClassLoaderPrewarmTest {
+
+    private static final String CLASS_NAME = "powermock.test.support.ClassForMockClassLoaderTestCase";
+    private static final String SUB_CLASS_NAME = "powermock.test.support.MainMockTransformerTestSupport$SuperClassCallSuperConstructor";
+    private static final String SUPER_CLASS_NAME = "powermock.test.support.MainMockTransformerTestSupport$ConstructorCall$SupperClassThrowsException";
+
+    @Before
+    public void setUp() {
+        SharedByteCodeCache.setMaximumSize(0);
+    }
+
+    @After
+    public void tearDown() {
+        SharedByteCodeCache.setMaximumSize(SharedByteCodeCache.DEFAULT_MAXIMUM_SIZE);
+        MockRepository.clear();
+    }
+
+    @Test
+    public void should_load_classes_modified_ahead_of_time() throws Exception {
+        final AtomicInteger transformations = new AtomicInteger();
+        final MockClassLoader classLoader = newClassLoader(transformations, CLASS_NAME, SUB_CLASS_NAME);
+
+        classLoader.prewarm(new String[]{CLASS_NAME, SUB_CLASS_NAME}, 2);
+        final Class<?> prewarmed = classLoader.loadClass(CLASS_NAME);
+
+        assertThat(transformations.get()).isEqualTo(0);
+        assertThat(prewarmed.getInterfaces()).contains(PowerMockModified.class);
+    }
+
+    @Test
+    public void should_add_defer_constructor_to_super_class_of_class_modified_ahead_of_time() throws Exception {
+        final AtomicInteger transformations = new AtomicInteger();
+        final MockClassLoader classLoader = newClassLoader(transformations, SUB_CLASS_NAME);
+
+        classLoader.prewarm(new String[]{SUB_CLASS_NAME}, 1);
+        final Class<?> prewarmed = classLoader.loadClass(SUB_CLASS_NAME);
+
+        assertThat(transformations.get()).isEqualTo(0);
+        assertThat(prewarmed.getSuperclass().getDeclaredConstructor(IndicateReloadClass.class)).isNotNull();
+    }
+
+    @Test
+    public void should_modify_super_class_again_when_sub_class_has_added_defer_constructor_to_it() throws Exception {
+        final AtomicInteger transformations = new AtomicInteger();
+        final MockClassLoader classLoader = newClassLoader(transformations, SUB_CLASS_NAME, SUPER_CLASS_NAME);
+
+        classLoader.prewarm(new String[]{SUB_CLASS_NAME, SUPER_CLASS_NAME}, 2);
+        final Class<?> prewarmed = classLoader.loadClass(SUB_CLASS_NAME);
+
+        assertThat(transformations.get()).isEqualTo(1);
+        assertThat(prewarmed.getSuperclass().getDeclaredConstructor(IndicateReloadClass.class)).isNotNull();
+    }
+
+    @Test
+    public void should_modify_classes_ahead_of_time_like_when_they_are_loaded() throws Exception {
+        for (String name : new String[]{CLASS_NAME, SUB_CLASS_NAME, SUPER_CLASS_NAME}) {
+            final MockClassLoader prewarming = newClassLoader(new AtomicInteger(), CLASS_NAME, SUB_CLASS_NAME, SUPER_CLASS_NAME);
+            final MockClassLoader loading = newClassLoader(new AtomicInteger(), CLASS_NAME, SUB_CLASS_NAME, SUPER_CLASS_NAME);
+
+            assertThat(prewarming.transformClassAheadOfTime(name))
+                .as("Class %s modified ahead of time", name)
+                .isEqualTo(loading.defineAndTransformClass(name, null));
+        }
+    }
+
+    @Test
+    public void should_modify_class_when_loaded_if_static_initializer_suppression_has_changed() throws Exception {
+        final AtomicInteger transformations = new AtomicInteger();
+        final MockClassLoader classLoader = newClassLoader(transformations, CLASS_NAME);
+
+        classLoader.prewarm(new String[]{CLASS_NAME}, 1);
+        MockRepository.addSuppressStaticInitializer(CLASS_NAME);
+        classLoader.loadClass(CLASS_NAME);
+
+        assertThat(transformations.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void should_skip_classes_which_are_not_modified_or_have_wildcards() throws Exception {
+        final AtomicInteger transformations = new AtomicInteger();
+        final MockClassLoader classLoader = newClassLoader(transformations, "powermock.test.support.*");
+
+        classLoader.prewarm(new String[]{"powermock.test.support.*", "org.powermock.core.classloader.Collaborator"}, 2);
+        classLoader.loadClass(CLASS_NAME);
+
+        assertThat(transformations.get()).isEqualTo(1);
+    }
+
+    private MockClassLoader newClassLoader(final AtomicInteger transformations, final String... classesToMock) {
+        final MockClassLoader classLoader = new JavassistMockClassLoader(classesToMock) {
+            @Override
+            protected byte[] defineAndTransformClass(final String name, final ProtectionDomain protectionDomain) {
+                transformations.incrementAndGet();
+                return super.defineAndTransformClass(name, protectionDomain);
+            }
+        };
+        classLoader.setMockTransformerChain(new JavassistMockTransformerChainFactory().createDefaultChain());
+        return classLoader;
+    }
+}
@@ -26,6 +26,7 @@ import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
+import org.powermock.core.IndicateReloadClass;
 import org.powermock.core.classloader.annotations.UseClassPathAdjuster;
 import org.powermock.core.classloader.javassist.ClassPathAdjuster;
 import org.powermock.core.classloader.javassist.JavassistMockClassLoader;
@@ -33,6 +34,7 @@ import org.powermock.core.test.MockClassLoaderFactory;
 import org.powermock.core.transformers.ClassWrapper;
 import org.powermock.core.transformers.MockTransformer;
 import org.powermock.core.transformers.MockTransformerChain;
+import org.powermock.core.transformers.javassist.JavassistMockTransformerChainFactory;
 import org.powermock.core.transformers.support.DefaultMockTransformerChain;
 import org.powermock.reflect.Whitebox;
 
@@ -226,6 +228,21 @@ public class MockClassLoaderTest {
         assertThat(dynamicTestClass).isNotSameAs(DynamicClassHolder.clazz);
     }
     
+    @Test
+    public void should_load_not_modified_super_class_with_defer_constructor_added_while_sub_class_is_modified() throws Exception {
+        
+        assumeThat(clazz.getName(), equalTo(JavassistMockClassLoader.class.getName()));
+        
+        final String className = "powermock.test.support.MainMockTransformerTestSupport$SuperClassCallSuperConstructor";
+        final MockClassLoader mockClassLoader = mockClassLoaderFactory.getInstance(new String[]{className});
+        mockClassLoader.setMockTransformerChain(new JavassistMockTransformerChainFactory().createDefaultChain());
+        
+        final Class<?> superClass = Class.forName(className, false, mockClassLoader).getSuperclass();
+        
+        assertThat(superClass.getClassLoader()).isSameAs(mockClassLoader);
+        assertThat(superClass.getDeclaredConstructor(IndicateReloadClass.class)).isNotNull();
+    }
+    
     @Test(expected = ClassNotFoundException.class)
     @Ignore("Has to be decided desirable behaviour in this case")
     public void should_throw_ClassNotFoundException_if_cannot_find_dynamic_class_in_deferred_class_loader() throws Exception {
@@ -0,0 +1,129 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core.classloader;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.powermock.core.IndicateReloadClass;
+import org.powermock.core.classloader.javassist.JavassistMockClassLoader;
+import org.powermock.core.transformers.javassist.JavassistMockTransformerChainFactory;
+import org.powermock.reflect.Whitebox;
+import powermock.test.support.MainMockTransformerTestSupport.ConstructorCall.SupperClassThrowsException;
+import powermock.test.support.MainMockTransformerTestSupport.SuperClassCallSuperConstructor;
+
+import java.nio.ByteBuffer;
+import java.security.ProtectionDomain;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class PersistentByteCodeCacheTest {
+
+    private static final String CLASS_NAME = "powermock.test.support.ClassForMockClassLoaderTestCase";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private PersistentByteCodeCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new PersistentByteCodeCache(folder.getRoot());
+        SharedByteCodeCache.clear();
+    }
+
+    @After
+    public void tearDown() {
+        SharedByteCodeCache.clear();
+    }
+
+    @Test
+    public void should_return_stored_class() {
+        final String key = ByteCodeCacheKey.create("Type", new byte[]{1, 2, 3}, "chain", false);
+
+        cache.put(key, new byte[]{4, 5});
+
+        final ByteBuffer cached = cache.get(key);
+        assertThat(cached.remaining()).isEqualTo(2);
+        assertThat(cached.get(0)).isEqualTo((byte) 4);
+        assertThat(cached.get(1)).isEqualTo((byte) 5);
+    }
+
+    @Test
+    public void should_return_null_for_unknown_key() {
+        assertThat(cache.get(ByteCodeCacheKey.create("Type", new byte[]{1}, "chain", false))).isNull();
+    }
+
+    @Test
+    public void should_load_cached_class_without_transforming_it_again() throws Exception {
+        final AtomicInteger transformations = new AtomicInteger();
+
+        final Class<?> transformed = newClassLoader(transformations).loadClass(CLASS_NAME);
+        SharedByteCodeCache.clear();
+        final Class<?> cached = newClassLoader(transformations).loadClass(CLASS_NAME);
+
+        assertThat(transformations.get()).isEqualTo(1);
+        assertThat(cached).isNotSameAs(transformed);
+        assertThat(cached.getInterfaces()).contains(PowerMockModified.class);
+    }
+
+    @Test
+    public void should_add_defer_constructor_to_super_class_of_cached_class() throws Exception {
+        final AtomicInteger transformations = new AtomicInteger();
+        final String[] classesToMock = {SuperClassCallSuperConstructor.class.getName(), SupperClassThrowsException.class.getName()};
+
+        newClassLoader(transformations, classesToMock).loadClass(SuperClassCallSuperConstructor.class.getName());
+        SharedByteCodeCache.clear();
+        final Class<?> cached = newClassLoader(transformations, classesToMock).loadClass(SuperClassCallSuperConstructor.class.getName());
+
+        assertThat(cached.getSuperclass().getDeclaredConstructor(IndicateReloadClass.class)).isNotNull();
+    }
+
+    @Test
+    public void should_not_take_cached_super_class_without_defer_constructor_for_modified_sub_class() throws Exception {
+        final AtomicInteger transformations = new AtomicInteger();
+        final String[] classesToMock = {SuperClassCallSuperConstructor.class.getName(), SupperClassThrowsException.class.getName()};
+
+        newClassLoader(transformations, classesToMock).loadClass(SupperClassThrowsException.class.getName());
+        SharedByteCodeCache.clear();
+        final Class<?> subClass = newClassLoader(transformations, classesToMock).loadClass(SuperClassCallSuperConstructor.class.getName());
+
+        assertThat(subClass.getSuperclass().getDeclaredConstructor(IndicateReloadClass.class)).isNotNull();
+    }
+
+    private MockClassLoader newClassLoader(final AtomicInteger transformations) {
+        return newClassLoader(transformations, new String[]{CLASS_NAME});
+    }
+
+    private MockClassLoader newClassLoader(final AtomicInteger transformations, final String[] classesToMock) {
+        final MockClassLoader classLoader = new JavassistMockClassLoader(classesToMock) {
+            @Override
+            protected byte[] defineAndTransformClass(final String name, final ProtectionDomain protectionDomain) {
+                transformations.incrementAndGet();
+                return super.defineAndTransformClass(name, protectionDomain);
+            }
+        };
+        classLoader.setMockTransformerChain(new JavassistMockTransformerChainFactory().createDefaultChain());
+        Whitebox.setInternalState(classLoader, "byteCodeCache", cache);
+        return classLoader;
+    }
+}
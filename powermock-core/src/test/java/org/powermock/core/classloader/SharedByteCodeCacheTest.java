@@ -0,0 +1,188 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core.classloader;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.core.IndicateReloadClass;
+import org.powermock.core.MockRepository;
+import org.powermock.core.classloader.javassist.JavassistMockClassLoader;
+import org.powermock.core.transformers.TransformStrategy;
+import org.powermock.core.transformers.javassist.InstrumentMockTransformer;
+import org.powermock.core.transformers.javassist.JavassistMockTransformerChainFactory;
+import org.powermock.core.transformers.mock.MockGatewaySpy;
+import org.powermock.core.transformers.support.DefaultMockTransformerChain;
+import org.powermock.reflect.Whitebox;
+import powermock.test.support.MainMockTransformerTestSupport.ConstructorCall.SupperClassThrowsException;
+import powermock.test.support.MainMockTransformerTestSupport.SuperClassCallSuperConstructor;
+
+import java.lang.reflect.Constructor;
+import java.security.ProtectionDomain;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class SharedByteCodeCacheTest {
+
+    private static final String CLASS_NAME = "powermock.test.support.ClassForMockClassLoaderTestCase";
+
+    private static final String[] CLASS_WITH_SUPER_CLASS = {
+        SuperClassCallSuperConstructor.class.getName(), SupperClassThrowsException.class.getName()
+    };
+
+    @Before
+    public void setUp() {
+        SharedByteCodeCache.clear();
+    }
+
+    @After
+    public void tearDown() {
+        SharedByteCodeCache.setMaximumSize(SharedByteCodeCache.DEFAULT_MAXIMUM_SIZE);
+        SharedByteCodeCache.clear();
+        MockRepository.clear();
+    }
+
+    @Test
+    public void should_count_hits_and_misses() {
+        SharedByteCodeCache.put("first", new byte[10]);
+
+        assertThat(SharedByteCodeCache.get("first")).hasSize(10);
+        assertThat(SharedByteCodeCache.get("second")).isNull();
+        assertThat(SharedByteCodeCache.getHitCount()).isEqualTo(1);
+        assertThat(SharedByteCodeCache.getMissCount()).isEqualTo(1);
+        assertThat(SharedByteCodeCache.getSize()).isEqualTo(10);
+    }
+
+    @Test
+    public void should_evict_least_recently_used_classes_when_maximum_size_is_exceeded() {
+        SharedByteCodeCache.setMaximumSize(25);
+        SharedByteCodeCache.put("first", new byte[10]);
+        SharedByteCodeCache.put("second", new byte[10]);
+        SharedByteCodeCache.get("first");
+
+        SharedByteCodeCache.put("third", new byte[10]);
+
+        assertThat(SharedByteCodeCache.get("first")).isNotNull();
+        assertThat(SharedByteCodeCache.get("second")).isNull();
+        assertThat(SharedByteCodeCache.get("third")).isNotNull();
+        assertThat(SharedByteCodeCache.getEvictionCount()).isEqualTo(1);
+        assertThat(SharedByteCodeCache.getSize()).isEqualTo(20);
+    }
+
+    @Test
+    public void should_derive_different_keys_for_different_classes_transformers_and_static_initializers() {
+        final byte[] originalClass = {1, 2, 3};
+        final String key = ByteCodeCacheKey.create("Type", originalClass, "chain", false);
+
+        assertThat(ByteCodeCacheKey.create("Type", originalClass, "chain", false)).isEqualTo(key);
+        assertThat(ByteCodeCacheKey.create("OtherType", originalClass, "chain", false)).isNotEqualTo(key);
+        assertThat(ByteCodeCacheKey.create("Type", new byte[]{1, 2}, "chain", false)).isNotEqualTo(key);
+        assertThat(ByteCodeCacheKey.create("Type", originalClass, "other chain", false)).isNotEqualTo(key);
+        assertThat(ByteCodeCacheKey.create("Type", originalClass, "chain", true)).isNotEqualTo(key);
+    }
+
+    @Test
+    public void should_derive_different_keys_for_different_powermock_versions() {
+        final byte[] originalClass = {1, 2, 3};
+
+        assertThat(ByteCodeCacheKey.create("2.0.0", "Type", originalClass, "chain", false))
+            .isEqualTo(ByteCodeCacheKey.create("2.0.0", "Type", originalClass, "chain", false))
+            .isNotEqualTo(ByteCodeCacheKey.create("2.0.1", "Type", originalClass, "chain", false));
+    }
+
+    @Test
+    public void should_include_transform_strategy_in_fingerprint() {
+        final JavassistMockTransformerChainFactory factory = new JavassistMockTransformerChainFactory();
+
+        assertThat(ByteCodeCacheKey.fingerprint(factory.createDefaultChain(TransformStrategy.CLASSLOADER)))
+            .isNotEqualTo(ByteCodeCacheKey.fingerprint(factory.createDefaultChain(TransformStrategy.INST_REDEFINE)));
+    }
+
+    @Test
+    public void should_include_mock_gateway_in_fingerprint() {
+        final InstrumentMockTransformer transformer = new InstrumentMockTransformer(TransformStrategy.CLASSLOADER);
+        final InstrumentMockTransformer spyTransformer = new InstrumentMockTransformer(TransformStrategy.CLASSLOADER);
+        Whitebox.setInternalState(spyTransformer, "mockGetawayClass", (Object) MockGatewaySpy.class);
+
+        assertThat(ByteCodeCacheKey.fingerprint(DefaultMockTransformerChain.newBuilder().append(transformer).build()))
+            .isNotEqualTo(ByteCodeCacheKey.fingerprint(DefaultMockTransformerChain.newBuilder().append(spyTransformer).build()));
+    }
+
+    @Test
+    public void should_modify_class_once_for_all_class_loaders() throws Exception {
+        final AtomicInteger transformations = new AtomicInteger();
+
+        final Class<?> transformed = newClassLoader(transformations).loadClass(CLASS_NAME);
+        final Class<?> cached = newClassLoader(transformations).loadClass(CLASS_NAME);
+
+        assertThat(transformations.get()).isEqualTo(1);
+        assertThat(cached).isNotSameAs(transformed);
+        assertThat(cached.getInterfaces()).contains(PowerMockModified.class);
+    }
+
+    @Test
+    public void should_add_defer_constructor_to_super_class_of_cached_class() throws Exception {
+        final AtomicInteger transformations = new AtomicInteger();
+
+        newClassLoader(transformations, CLASS_WITH_SUPER_CLASS).loadClass(SuperClassCallSuperConstructor.class.getName());
+        final Class<?> cached = newClassLoader(transformations, CLASS_WITH_SUPER_CLASS).loadClass(SuperClassCallSuperConstructor.class.getName());
+
+        assertThat(cached.getSuperclass().getDeclaredConstructor(IndicateReloadClass.class)).isNotNull();
+    }
+
+    @Test
+    public void should_suppress_super_constructor_when_super_class_has_been_cached_by_other_class_loader() throws Exception {
+        final AtomicInteger transformations = new AtomicInteger();
+        newClassLoader(transformations, CLASS_WITH_SUPER_CLASS).loadClass(SupperClassThrowsException.class.getName());
+
+        final Class<?> subClass = newClassLoader(transformations, CLASS_WITH_SUPER_CLASS).loadClass(SuperClassCallSuperConstructor.class.getName());
+        MockRepository.addConstructorToSuppress(subClass.getSuperclass().getConstructor(String.class, double.class));
+        final Constructor<?> constructor = subClass.getConstructor(String.class, String.class, double.class);
+
+        assertThat(constructor.newInstance("name", "field", 100)).isNotNull();
+    }
+
+    @Test
+    public void should_modify_class_for_each_class_loader_when_disabled() throws Exception {
+        final AtomicInteger transformations = new AtomicInteger();
+        SharedByteCodeCache.setMaximumSize(0);
+
+        newClassLoader(transformations).loadClass(CLASS_NAME);
+        newClassLoader(transformations).loadClass(CLASS_NAME);
+
+        assertThat(transformations.get()).isEqualTo(2);
+    }
+
+    private MockClassLoader newClassLoader(final AtomicInteger transformations) {
+        return newClassLoader(transformations, new String[]{CLASS_NAME});
+    }
+
+    private MockClassLoader newClassLoader(final AtomicInteger transformations, final String[] classesToMock) {
+        final MockClassLoader classLoader = new JavassistMockClassLoader(classesToMock) {
+            @Override
+            protected byte[] defineAndTransformClass(final String name, final ProtectionDomain protectionDomain) {
+                transformations.incrementAndGet();
+                return super.defineAndTransformClass(name, protectionDomain);
+            }
+        };
+        classLoader.setMockTransformerChain(new JavassistMockTransformerChainFactory().createDefaultChain());
+        return classLoader;
+    }
+}
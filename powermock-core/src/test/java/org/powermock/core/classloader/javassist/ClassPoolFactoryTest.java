@@ -0,0 +1,64 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core.classloader.javassist;
+
+import javassist.CtClass;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.core.MockRepository;
+import org.powermock.core.classloader.MockClassLoader;
+import org.powermock.core.classloader.SharedByteCodeCache;
+import org.powermock.core.transformers.javassist.JavassistMockTransformerChainFactory;
+import powermock.test.support.MainMockTransformerTestSupport.ConstructorCall.SupperClassThrowsException;
+import powermock.test.support.MainMockTransformerTestSupport.SuperClassCallSuperConstructor;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class ClassPoolFactoryTest {
+
+    private static final String SUB_CLASS_NAME = SuperClassCallSuperConstructor.class.getName();
+    private static final String DEFERRED_SUPER_CLASS_NAME = SupperClassThrowsException.class.getName();
+
+    @Before
+    public void setUp() {
+        SharedByteCodeCache.setMaximumSize(0);
+    }
+
+    @After
+    public void tearDown() {
+        SharedByteCodeCache.setMaximumSize(SharedByteCodeCache.DEFAULT_MAXIMUM_SIZE);
+        MockRepository.clear();
+    }
+
+    @Test
+    public void should_not_modify_deferred_super_class_in_shared_class_pool() throws Exception {
+        final MockClassLoader classLoader = new JavassistMockClassLoader(
+            new String[]{SUB_CLASS_NAME}, new String[]{DEFERRED_SUPER_CLASS_NAME}, null
+        );
+        classLoader.setMockTransformerChain(new JavassistMockTransformerChainFactory().createDefaultChain());
+
+        final Class<?> modified = classLoader.loadClass(SUB_CLASS_NAME);
+
+        final CtClass sharedSuperClass = ClassPoolFactory.getSharedClassPool().get(DEFERRED_SUPER_CLASS_NAME);
+        assertThat(modified.getSuperclass()).isSameAs(SupperClassThrowsException.class);
+        assertThat(sharedSuperClass.isModified()).isFalse();
+        assertThat(sharedSuperClass.isFrozen()).isFalse();
+    }
+}
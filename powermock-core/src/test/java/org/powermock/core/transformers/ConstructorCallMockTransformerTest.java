@@ -62,6 +62,7 @@ public class ConstructorCallMockTransformerTest extends AbstractBaseMockTransfor
         Collection<Object[]> data = new ArrayList<Object[]>();
     
         data.addAll(createTransformerTestDataWithMockGateway(MockGatewaySpy.class, InstrumentMockTransformer.class));
+        data.addAll(createTransformerTestDataWithMockGateway(MockGatewaySpy.class, org.powermock.core.transformers.bytebuddy.InstrumentMockTransformer.class));
         
         return data;
     }
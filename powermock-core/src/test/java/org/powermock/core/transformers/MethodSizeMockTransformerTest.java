@@ -21,10 +21,13 @@ package org.powermock.core.transformers;
 import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
 import org.junit.Test;
 import org.junit.runners.Parameterized;
+import org.powermock.core.classloader.bytebuddy.ByteBuddyMockClassLoader;
 import org.powermock.core.classloader.javassist.JavassistMockClassLoader;
 import org.powermock.core.test.MockClassLoaderFactory;
+import org.powermock.core.transformers.bytebuddy.ByteBuddyMockTransformerChainFactory;
 import org.powermock.core.transformers.javassist.JavassistMockTransformerChainFactory;
 import powermock.test.support.ClassWithLargeMethods;
+import powermock.test.support.ClassWithVeryLargeMethods;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -45,18 +48,29 @@ public class MethodSizeMockTransformerTest extends AbstractBaseMockTransformerTe
             data.add(new Object[]{
                 strategy,
                 new JavassistMockTransformerChainFactory().createDefaultChain(Collections.<MockTransformer>emptyList()),
-                new MockClassLoaderFactory(JavassistMockClassLoader.class)
+                new MockClassLoaderFactory(JavassistMockClassLoader.class),
+                ClassWithLargeMethods.MethodGreaterThanLimit.class
+            });
+            data.add(new Object[]{
+                strategy,
+                new ByteBuddyMockTransformerChainFactory().createDefaultChain(Collections.<MockTransformer>emptyList()),
+                new MockClassLoaderFactory(ByteBuddyMockClassLoader.class),
+                ClassWithVeryLargeMethods.MethodGreaterThanLimit.class
             });
         }
     
         return data;
     }
     
+    private final Class<?> methodGreaterThanLimit;
+    
     public MethodSizeMockTransformerTest(final TransformStrategy strategy,
                                          final MockTransformerChain mockTransformerChain,
-                                         final MockClassLoaderFactory mockClassloaderFactory)
+                                         final MockClassLoaderFactory mockClassloaderFactory,
+                                         final Class<?> methodGreaterThanLimit)
     {
         super(strategy, mockTransformerChain, mockClassloaderFactory);
+        this.methodGreaterThanLimit = methodGreaterThanLimit;
     }
     
     @Test
@@ -69,7 +83,7 @@ public class MethodSizeMockTransformerTest extends AbstractBaseMockTransformerTe
     
     @Test
     public void should_load_class_and_override_method_greater_than_jvm_limit() throws Exception {
-        final Class<?> clazz = loadWithMockClassLoader(ClassWithLargeMethods.MethodGreaterThanLimit.class.getName());
+        final Class<?> clazz = loadWithMockClassLoader(methodGreaterThanLimit.getName());
         
         Throwable throwable = catchThrowable(new ThrowingCallable() {
             @Override
@@ -19,8 +19,10 @@
 package org.powermock.core.transformers;
 
 import org.powermock.core.MockGateway;
+import org.powermock.core.classloader.bytebuddy.ByteBuddyMockClassLoader;
 import org.powermock.core.classloader.javassist.JavassistMockClassLoader;
 import org.powermock.core.test.MockClassLoaderFactory;
+import org.powermock.core.transformers.bytebuddy.AbstractByteBuddyMockTransformer;
 import org.powermock.core.transformers.javassist.AbstractJavaAssistMockTransformer;
 import org.powermock.core.transformers.support.DefaultMockTransformerChain;
 import org.powermock.reflect.internal.WhiteboxImpl;
@@ -41,13 +43,11 @@ class MockTransformerTestHelper {
         List<Object[]> data = new ArrayList<Object[]>();
         
         for (TransformStrategy strategy : TransformStrategy.values()) {
-            List<MockTransformerChain> transformerChains = createTransformers(mockGateway, strategy, transformerClass);
-            
-            for (MockTransformerChain mockTransformer : transformerChains) {
+            for (Class<?> aClass : transformerClass) {
                 data.add(new Object[]{
                     strategy,
-                    mockTransformer,
-                    createClassLoaderFactory(transformerClass[0])
+                    createChainFrom(getInstance(mockGateway, strategy, aClass)),
+                    createClassLoaderFactory(aClass)
                 });
             }
         }
@@ -79,18 +79,10 @@ class MockTransformerTestHelper {
         if (AbstractJavaAssistMockTransformer.class.isAssignableFrom(transformerClass)){
             return new MockClassLoaderFactory(JavassistMockClassLoader.class);
         }
-        throw new UnsupportedOperationException();
-    }
-    
-    private static List<MockTransformerChain> createTransformers(final Class<?> mockGateway, final TransformStrategy strategy, final Class<?>... classes) {
-        List<MockTransformerChain> transformers = new ArrayList<MockTransformerChain>();
-        
-        for (Class<?> transformerClass : classes) {
-            MockTransformer transformer = getInstance(mockGateway, strategy, transformerClass);
-            transformers.add(createChainFrom(transformer));
+        if (AbstractByteBuddyMockTransformer.class.isAssignableFrom(transformerClass)){
+            return new MockClassLoaderFactory(ByteBuddyMockClassLoader.class);
         }
-        
-        return transformers;
+        throw new UnsupportedOperationException();
     }
     
     private static MockTransformer getInstance(final Class<?> mockGateway, final TransformStrategy strategy, final Class<?> transformerClass) {
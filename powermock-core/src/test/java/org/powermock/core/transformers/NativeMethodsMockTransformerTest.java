@@ -46,6 +46,7 @@ public class NativeMethodsMockTransformerTest extends AbstractBaseMockTransforme
         Collection<Object[]> data = new ArrayList<Object[]>();
         
         data.addAll(MockTransformerTestHelper.createOneTransformerTestData(MockGatewaySpy.class, StaticFinalNativeMethodMockTransformer.class));
+        data.addAll(MockTransformerTestHelper.createOneTransformerTestData(MockGatewaySpy.class, org.powermock.core.transformers.bytebuddy.StaticFinalNativeMethodMockTransformer.class));
         
         return data;
     }
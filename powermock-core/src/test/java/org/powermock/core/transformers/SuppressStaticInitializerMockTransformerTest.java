@@ -44,6 +44,7 @@ public class SuppressStaticInitializerMockTransformerTest extends AbstractBaseMo
         Collection<Object[]> data = new ArrayList<Object[]>();
         
         data.addAll(MockTransformerTestHelper.createTransformerTestData(SuppressStaticInitializerMockTransformer.class));
+        data.addAll(MockTransformerTestHelper.createTransformerTestData(org.powermock.core.transformers.bytebuddy.SuppressStaticInitializerMockTransformer.class));
         
         return data;
     }
@@ -0,0 +1,92 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core.transformers.javassist;
+
+import javassist.ClassClassPath;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtField;
+import javassist.Modifier;
+import org.junit.Test;
+import org.powermock.core.MethodCallSite;
+import org.powermock.core.transformers.TransformStrategy;
+import org.powermock.core.transformers.javassist.support.JavaAssistClassWrapperFactory;
+import org.powermock.core.transformers.javassist.support.TransformerHelper;
+import powermock.test.support.MainMockTransformerTestSupport.ReturnMethodsTestClass;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class CallSiteFieldsTest {
+
+    @Test
+    public void should_add_call_site_fields_after_the_ones_the_class_already_has() throws Exception {
+        final ClassPool classPool = getClassPool();
+        final CtClass clazz = classPool.makeClass("powermock.test.support.ClassWithCallSiteField");
+        clazz.addField(CtField.make("private static " + MethodCallSite.class.getName() + " __powermockCallSite0;", clazz));
+
+        assertThat(TransformerHelper.addCallSiteField(clazz)).isEqualTo("__powermockCallSite1");
+        assertThat(TransformerHelper.addCallSiteField(clazz)).isEqualTo("__powermockCallSite2");
+        assertThat(clazz.getDeclaredField("__powermockCallSite2").getType().getName()).isEqualTo(MethodCallSite.class.getName());
+    }
+
+    @Test
+    public void should_add_one_static_call_site_field_for_each_instrumented_method_in_class_loader_mode() throws Exception {
+        final List<CtField> callSiteFields = getCallSiteFields(transform(TransformStrategy.CLASSLOADER));
+
+        assertThat(callSiteFields).isNotEmpty();
+        for (int i = 0; i < callSiteFields.size(); i++) {
+            final CtField field = callSiteFields.get(i);
+            assertThat(field.getName()).isEqualTo("__powermockCallSite" + i);
+            assertThat(Modifier.isStatic(field.getModifiers())).isTrue();
+            assertThat(Modifier.isPrivate(field.getModifiers())).isTrue();
+        }
+    }
+
+    @Test
+    public void should_not_add_call_site_fields_in_agent_mode() throws Exception {
+        assertThat(getCallSiteFields(transform(TransformStrategy.INST_REDEFINE))).isEmpty();
+    }
+
+    private static CtClass transform(final TransformStrategy strategy) throws Exception {
+        final CtClass clazz = getClassPool().get(ReturnMethodsTestClass.class.getName());
+        return new JavassistMockTransformerChainFactory()
+                   .createDefaultChain(strategy)
+                   .transform(new JavaAssistClassWrapperFactory().wrap(clazz))
+                   .unwrap();
+    }
+
+    private static List<CtField> getCallSiteFields(final CtClass clazz) throws Exception {
+        final List<CtField> callSiteFields = new ArrayList<CtField>();
+        for (CtField field : clazz.getDeclaredFields()) {
+            if (field.getType().getName().equals(MethodCallSite.class.getName())) {
+                callSiteFields.add(field);
+            }
+        }
+        return callSiteFields;
+    }
+
+    private static ClassPool getClassPool() {
+        final ClassPool classPool = new ClassPool(true);
+        classPool.appendClassPath(new ClassClassPath(CallSiteFieldsTest.class));
+        return classPool;
+    }
+}
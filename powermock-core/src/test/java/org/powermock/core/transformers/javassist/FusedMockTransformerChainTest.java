@@ -0,0 +1,147 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.core.transformers.javassist;
+
+import javassist.ClassClassPath;
+import javassist.ClassPool;
+import javassist.CtClass;
+import org.junit.Test;
+import org.powermock.core.transformers.ClassWrapper;
+import org.powermock.core.transformers.MockTransformer;
+import org.powermock.core.transformers.MockTransformerChain;
+import org.powermock.core.transformers.TransformStrategy;
+import org.powermock.core.transformers.javassist.support.JavaAssistClassWrapperFactory;
+import org.powermock.core.transformers.support.FilterPredicates;
+import powermock.test.support.ClassForMockClassLoaderTestCase;
+import powermock.test.support.ClassWithLargeMethods;
+import powermock.test.support.MainMockTransformerTestSupport;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class FusedMockTransformerChainTest {
+
+    @Test
+    public void should_modify_classes_like_transformers_which_are_called_one_after_another() throws Exception {
+        final List<Class<?>> classes = new ArrayList<Class<?>>();
+        classes.add(ClassForMockClassLoaderTestCase.class);
+        classes.add(ClassWithLargeMethods.MethodLowerThanLimit.class);
+        addWithNestedClasses(classes, MainMockTransformerTestSupport.class);
+
+        for (TransformStrategy strategy : TransformStrategy.values()) {
+            final MockTransformerChain fused = new JavassistMockTransformerChainFactory(true).createDefaultChain(strategy);
+            final MockTransformerChain sequential = new JavassistMockTransformerChainFactory(false).createDefaultChain(strategy);
+
+            for (Class<?> type : classes) {
+                assertThat(transform(fused, type))
+                    .as("Class %s modified with strategy %s", type.getName(), strategy)
+                    .isEqualTo(transform(sequential, type));
+            }
+        }
+    }
+
+    @Test
+    public void should_walk_class_once_for_fusible_transformers_which_follow_each_other() throws Exception {
+        final List<String> calls = new ArrayList<String>();
+        final MockTransformerChain chain = new FusedMockTransformerChain(Arrays.<MockTransformer>asList(
+            new FusibleTransformerSpy("first", calls),
+            new TransformerSpy("plain", calls),
+            new FusibleTransformerSpy("second", calls),
+            new FusibleTransformerSpy("third", calls)
+        ));
+
+        chain.transform(new JavaAssistClassWrapperFactory().wrap(getClassPool().get(ClassForMockClassLoaderTestCase.class.getName())));
+
+        assertThat(calls).containsExactly(
+            "first before", "first after",
+            "plain",
+            "second before", "third before", "second after", "third after"
+        );
+    }
+
+    @Test
+    public void should_filter_all_transformers() {
+        final MockTransformer fusible = new StaticFinalFieldsMockTransformer(TransformStrategy.CLASSLOADER);
+        final MockTransformer plain = new TransformerSpy("plain", new ArrayList<String>());
+
+        final MockTransformerChain chain = new FusedMockTransformerChain(Arrays.asList(fusible, plain));
+
+        assertThat(chain.filter(FilterPredicates.isInstanceOf(MockTransformer.class))).containsExactly(fusible, plain);
+    }
+
+    private static void addWithNestedClasses(final List<Class<?>> classes, final Class<?> type) {
+        classes.add(type);
+        for (Class<?> nestedType : type.getDeclaredClasses()) {
+            addWithNestedClasses(classes, nestedType);
+        }
+    }
+
+    private static byte[] transform(final MockTransformerChain chain, final Class<?> type) throws Exception {
+        final CtClass ctClass = getClassPool().get(type.getName());
+        return chain.transform(new JavaAssistClassWrapperFactory().wrap(ctClass)).unwrap().toBytecode();
+    }
+
+    private static ClassPool getClassPool() {
+        final ClassPool classPool = new ClassPool(true);
+        classPool.appendClassPath(new ClassClassPath(FusedMockTransformerChainTest.class));
+        return classPool;
+    }
+
+    private static class FusibleTransformerSpy extends AbstractFusibleMockTransformer {
+
+        private final String name;
+        private final List<String> calls;
+
+        private FusibleTransformerSpy(final String name, final List<String> calls) {
+            super(TransformStrategy.CLASSLOADER);
+            this.name = name;
+            this.calls = calls;
+        }
+
+        @Override
+        public void beforeMembers(final CtClass clazz) {
+            calls.add(name + " before");
+        }
+
+        @Override
+        public void afterMembers(final CtClass clazz) {
+            calls.add(name + " after");
+        }
+    }
+
+    private static class TransformerSpy implements MockTransformer<CtClass> {
+
+        private final String name;
+        private final List<String> calls;
+
+        private TransformerSpy(final String name, final List<String> calls) {
+            this.name = name;
+            this.calls = calls;
+        }
+
+        @Override
+        public ClassWrapper<CtClass> transform(final ClassWrapper<CtClass> clazz) {
+            calls.add(name);
+            return clazz;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package org.powermock.core.transformers.mock;
 import org.assertj.core.api.Condition;
 import org.assertj.core.description.Description;
 import org.assertj.core.description.TextDescription;
+import org.powermock.core.MethodCallSite;
 
 import java.util.Arrays;
 import java.util.HashMap;
@@ -43,6 +44,14 @@ public class MockGatewaySpy {
         return doMethodCall(type, methodName, args, sig, returnTypeAsString);
     }
     
+    public static Object methodCall(Object instance, MethodCallSite callSite, Object[] args) throws Throwable {
+        return methodCall(instance, callSite.getMethodName(), args, callSite.getSignature(), callSite.getReturnTypeAsString());
+    }
+    
+    public static Object methodCall(Class<?> type, MethodCallSite callSite, Object[] args) throws Throwable {
+        return methodCall(type, callSite.getMethodName(), args, callSite.getSignature(), callSite.getReturnTypeAsString());
+    }
+    
     private static Object doMethodCall(final Class<?> type, final String methodName, final Object[] args, final Class<?>[] sig,
                                        final String returnTypeAsString) {
         final MethodCall methodCall = new MethodCall();
@@ -0,0 +1,77 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.tests.utils.impl;
+
+import org.junit.Test;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.tests.utils.TestChunk;
+import powermock.test.support.ClassForMockClassLoaderTestCase;
+
+import java.lang.reflect.Method;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class AbstractCommonTestSuiteChunkerImplTest {
+
+    @Test
+    public void should_not_create_class_loaders_when_test_class_is_chunked() throws Exception {
+        final SimpleTestSuiteChunker chunker = new SimpleTestSuiteChunker(ChunkedTestCase.class);
+
+        assertThat(chunker.getChunkSize()).isEqualTo(2);
+        for (TestChunk chunk : chunker.getTestChunks()) {
+            assertThat(((TestChunkImpl) chunk).isClassLoaderCreated()).isFalse();
+        }
+    }
+
+    @Test
+    public void should_create_class_loader_only_for_chunk_which_is_used() throws Exception {
+        final SimpleTestSuiteChunker chunker = new SimpleTestSuiteChunker(ChunkedTestCase.class);
+        final Method preparedMethod = ChunkedTestCase.class.getMethod("prepared");
+
+        final TestChunk preparedChunk = chunker.getTestChunk(preparedMethod);
+        final ClassLoader classLoader = preparedChunk.getClassLoader();
+
+        assertThat(preparedChunk.getClassLoader()).isSameAs(classLoader);
+        assertThat(((TestChunkImpl) chunker.getTestChunk(ChunkedTestCase.class.getMethod("notPrepared"))).isClassLoaderCreated()).isFalse();
+    }
+
+    private static class SimpleTestSuiteChunker extends AbstractCommonTestSuiteChunkerImpl {
+
+        private SimpleTestSuiteChunker(final Class<?> testClass) throws Exception {
+            super(testClass);
+        }
+
+        @Override
+        public boolean shouldExecuteTestForMethod(final Class<?> testClass, final Method potentialTestMethod) {
+            return potentialTestMethod.isAnnotationPresent(Test.class);
+        }
+    }
+
+    public static class ChunkedTestCase {
+
+        @Test
+        public void notPrepared() {
+        }
+
+        @Test
+        @PrepareForTest(ClassForMockClassLoaderTestCase.class)
+        public void prepared() {
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package powermock.test.support;
+
+public class ClassWithVeryLargeMethods {
+
+    public static class MethodGreaterThanLimit {
+        /**
+         * Method size after instrumentation exceeds the JVM limit also when the method is instrumented by ASM
+         * visitors, which produce more compact code than Javassist.
+         */
+        public static String init() {
+            String a = "A";
+            a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";
+            a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";
+            a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";
+            a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";
+            a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";
+            a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";
+            a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";a+="A";
+            String b = "B";
+            b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";
+            b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";
+            b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";
+            b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";
+            b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";
+            b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";
+            b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";b+="B";
+            String c = "C";
+            c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";
+            c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";
+            c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";
+            c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";
+            c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";
+            c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";
+            c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";c+="C";
+            return a + b + c;
+        }
+    }
+}
@@ -16,16 +16,22 @@
 
 package org.powermock.modules.agent;
 
-import org.powermock.core.WildcardMatcher;
+import org.powermock.core.WildcardPatternSet;
 
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
 public abstract class AbstractClassTransformer {
     
     private static final List<String> ALWAYS_IGNORED = new LinkedList<String>();
-    private final List<String> USER_IGNORED = Collections.synchronizedList(new LinkedList<String>());
+    
+    /**
+     * The ignored packages and classes compiled for internal class names (like {@code org/powermock/Foo}),
+     * which the JVM passes to the transformers for every class it loads, so the names don't have to be
+     * converted first.
+     */
+    private volatile WildcardPatternSet ignoredPatterns = compile(ALWAYS_IGNORED);
 
     static {
         ALWAYS_IGNORED.add("org.powermock.*");
@@ -43,26 +49,29 @@ public abstract class AbstractClassTransformer {
         ALWAYS_IGNORED.add("*$$PowerMock*");
     }     
 
-    public synchronized void setPackagesToIgnore(List<String> packagesToIgnore) {
-        USER_IGNORED.clear();
-        USER_IGNORED.addAll(packagesToIgnore);
+    public void setPackagesToIgnore(List<String> packagesToIgnore) {
+        final List<String> patterns = new ArrayList<String>(ALWAYS_IGNORED);
+        patterns.addAll(packagesToIgnore);
+        ignoredPatterns = compile(patterns);
     }
 
     public void resetPackagesToIgnore() {
-        USER_IGNORED.clear();
+        ignoredPatterns = compile(ALWAYS_IGNORED);
     }
 
+    /**
+     * @param className the internal name of the class, {@code null} for classes without a name
+     *                  (e.g. hidden classes), which are always ignored.
+     */
     protected boolean shouldIgnore(String className) {
-        return WildcardMatcher.matchesAny(merge(USER_IGNORED), replaceSlashWithDots(className));
-    }
-
-    private List<String> merge(List<String> userIgnored) {
-        List<String> list = new LinkedList<String>(AbstractClassTransformer.ALWAYS_IGNORED);
-        list.addAll(userIgnored);
-        return Collections.unmodifiableList(list);
+        return className == null || ignoredPatterns.matches(className);
     }
 
-    String replaceSlashWithDots(String className) {
-        return className.replaceAll("/", ".");
+    private static WildcardPatternSet compile(List<String> patterns) {
+        final List<String> internalNamePatterns = new ArrayList<String>(patterns.size());
+        for (String pattern : patterns) {
+            internalNamePatterns.add(pattern.replace('.', '/'));
+        }
+        return new WildcardPatternSet(internalNamePatterns);
     }
 }
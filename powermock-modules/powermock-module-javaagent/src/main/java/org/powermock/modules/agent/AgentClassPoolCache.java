@@ -0,0 +1,142 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.modules.agent;
+
+import javassist.ClassPool;
+import javassist.LoaderClassPath;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The class pools which the agent uses to modify classes, one for each class loader which defines a
+ * modified class. A class pool looks up classes through its class loader first, so the types which a
+ * modified class refers to are resolved like the JVM resolves them. The class loaders are weakly
+ * referenced, a class pool is released with its class loader.
+ * <p>
+ * A class pool keeps every class it has read. When it holds more than the maximum number of classes
+ * after a class has been modified, it's discarded and a new one is created for the next class.
+ */
+public final class AgentClassPoolCache {
+
+    /**
+     * The default maximum number of classes held by a class pool.
+     */
+    public static final int DEFAULT_MAXIMUM_CLASSES = 4096;
+
+    private static final Map<ClassLoader, CountingClassPool> CLASS_POOLS = new WeakHashMap<ClassLoader, CountingClassPool>();
+
+    private static final AtomicLong CREATED = new AtomicLong();
+    private static final AtomicLong DISCARDED = new AtomicLong();
+
+    private static int maximumClasses = DEFAULT_MAXIMUM_CLASSES;
+
+    private AgentClassPoolCache() {
+    }
+
+    /**
+     * @return how many class pools have been created.
+     */
+    public static long getCreatedCount() {
+        return CREATED.get();
+    }
+
+    /**
+     * @return how many class pools have been discarded because they held too many classes.
+     */
+    public static long getDiscardedCount() {
+        return DISCARDED.get();
+    }
+
+    /**
+     * @return the number of class pools which are currently cached.
+     */
+    public static synchronized int getClassPoolCount() {
+        return CLASS_POOLS.size();
+    }
+
+    /**
+     * @return the total number of classes held by the cached class pools.
+     */
+    public static synchronized int getClassCount() {
+        int classCount = 0;
+        for (CountingClassPool classPool : CLASS_POOLS.values()) {
+            classCount += classPool.getClassCount();
+        }
+        return classCount;
+    }
+
+    public static synchronized int getMaximumClasses() {
+        return maximumClasses;
+    }
+
+    /**
+     * Set the maximum number of classes held by a class pool. Class pools which hold more classes are
+     * discarded after they have been used the next time.
+     *
+     * @param maximumClasses the maximum number of classes, {@code 0} creates a new class pool for every
+     *                       modified class.
+     */
+    public static synchronized void setMaximumClasses(final int maximumClasses) {
+        if (maximumClasses < 0) {
+            throw new IllegalArgumentException("Maximum number of classes cannot be negative.");
+        }
+        AgentClassPoolCache.maximumClasses = maximumClasses;
+    }
+
+    /**
+     * Remove all class pools and reset the counters.
+     */
+    public static synchronized void clear() {
+        CLASS_POOLS.clear();
+        CREATED.set(0);
+        DISCARDED.set(0);
+    }
+
+    static synchronized ClassPool get(final ClassLoader classLoader) {
+        CountingClassPool classPool = CLASS_POOLS.get(classLoader);
+        if (classPool == null) {
+            classPool = new CountingClassPool();
+            classPool.appendClassPath(new LoaderClassPath(classLoader));
+            classPool.appendSystemPath();
+            CLASS_POOLS.put(classLoader, classPool);
+            CREATED.incrementAndGet();
+        }
+        return classPool;
+    }
+
+    /**
+     * Called after the class pool of the class loader has been used to modify a class.
+     */
+    static synchronized void release(final ClassLoader classLoader) {
+        final CountingClassPool classPool = CLASS_POOLS.get(classLoader);
+        if (classPool != null && classPool.getClassCount() > maximumClasses) {
+            CLASS_POOLS.remove(classLoader);
+            DISCARDED.incrementAndGet();
+        }
+    }
+
+    private static class CountingClassPool extends ClassPool {
+
+        private int getClassCount() {
+            return classes.size();
+        }
+    }
+}
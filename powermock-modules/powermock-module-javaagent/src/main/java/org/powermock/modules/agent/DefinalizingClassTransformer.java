@@ -18,20 +18,87 @@ package org.powermock.modules.agent;
 
 import net.bytebuddy.jar.asm.ClassReader;
 import net.bytebuddy.jar.asm.ClassWriter;
+import net.bytebuddy.jar.asm.Opcodes;
 
 import java.lang.instrument.ClassFileTransformer;
 import java.security.ProtectionDomain;
 
 public class DefinalizingClassTransformer extends AbstractClassTransformer implements ClassFileTransformer {
     private static final int NO_FLAGS_OR_OPTIONS = 0;
+    private static final String INNER_CLASSES = "InnerClasses";
 
     public byte[] transform(ClassLoader loader, String className, Class<?> classBeingRedefined, ProtectionDomain protectionDomain, byte[] classfileBuffer) {
         if (loader == null || shouldIgnore(className)) {
             return null;
         }
         final ClassReader reader = new ClassReader(classfileBuffer);
-        final ClassWriter writer = new ClassWriter(NO_FLAGS_OR_OPTIONS);
+        if (!hasFinalModifiers(reader)) {
+            return null;
+        }
+        // The constant pool and the methods are copied as they are, only the modifiers are written again
+        final ClassWriter writer = new ClassWriter(reader, NO_FLAGS_OR_OPTIONS);
         reader.accept(new DefinalizingClassVisitor(writer), NO_FLAGS_OR_OPTIONS);
         return writer.toByteArray();
     }
+
+    /**
+     * Reads the modifiers which {@link DefinalizingClassVisitor} changes, the ones of the class, its methods
+     * and its inner classes, straight from the class file without visiting it.
+     */
+    private static boolean hasFinalModifiers(final ClassReader reader) {
+        if (isFinal(reader.getAccess())) {
+            return true;
+        }
+        int offset = reader.header + 6;
+        offset += 2 + 2 * reader.readUnsignedShort(offset);
+
+        final int fieldsCount = reader.readUnsignedShort(offset);
+        offset += 2;
+        for (int i = 0; i < fieldsCount; i++) {
+            offset = skipAttributes(reader, offset + 6);
+        }
+
+        final int methodsCount = reader.readUnsignedShort(offset);
+        offset += 2;
+        for (int i = 0; i < methodsCount; i++) {
+            if (isFinal(reader.readUnsignedShort(offset))) {
+                return true;
+            }
+            offset = skipAttributes(reader, offset + 6);
+        }
+
+        final char[] buffer = new char[reader.getMaxStringLength()];
+        final int attributesCount = reader.readUnsignedShort(offset);
+        offset += 2;
+        for (int i = 0; i < attributesCount; i++) {
+            final int length = reader.readInt(offset + 2);
+            if (INNER_CLASSES.equals(reader.readUTF8(offset, buffer))) {
+                final int classesCount = reader.readUnsignedShort(offset + 6);
+                for (int j = 0; j < classesCount; j++) {
+                    if (isFinal(reader.readUnsignedShort(offset + 8 + j * 8 + 6))) {
+                        return true;
+                    }
+                }
+            }
+            offset += 6 + length;
+        }
+        return false;
+    }
+
+    /**
+     * @param offset the offset of the attributes count of a field or a method.
+     * @return the offset following the attributes.
+     */
+    private static int skipAttributes(final ClassReader reader, int offset) {
+        final int attributesCount = reader.readUnsignedShort(offset);
+        offset += 2;
+        for (int i = 0; i < attributesCount; i++) {
+            offset += 6 + reader.readInt(offset + 2);
+        }
+        return offset;
+    }
+
+    private static boolean isFinal(final int access) {
+        return (access & Opcodes.ACC_FINAL) != 0;
+    }
 }
@@ -18,7 +18,10 @@ package org.powermock.modules.agent;
 
 import org.powermock.core.agent.JavaAgentClassRegister;
 
+import java.lang.instrument.Instrumentation;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 public class PowerMockClassRedefiner {
 
@@ -29,19 +32,41 @@ public class PowerMockClassRedefiner {
         transformer.setJavaAgentClassRegister(agentClassRegister);
 
         try {
-            for (int i = classes.length - 1; i >= 0; i--) {
-                String className = classes[i];
-                Class<?> clazz;
-                try {
-                    clazz = Class.forName(className);
+            retransform(loadClasses(classes));
+        } finally {
+            transformer.resetPackagesToIgnore();
+        }
+    }
 
-                    PowerMockAgent.instrumentation().retransformClasses(clazz);
+    private static Class<?>[] loadClasses(String[] classes) {
+        final Set<Class<?>> loadedClasses = new LinkedHashSet<Class<?>>();
+        for (int i = classes.length - 1; i >= 0; i--) {
+            try {
+                loadedClasses.add(Class.forName(classes[i]));
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return loadedClasses.toArray(new Class<?>[loadedClasses.size()]);
+    }
+
+    /**
+     * All classes are retransformed at once, so the JVM reaches a safepoint only once. If that fails none
+     * of the classes has been changed, so they are retransformed one by one to report the class which
+     * cannot be.
+     */
+    private static void retransform(Class<?>[] classes) {
+        final Instrumentation instrumentation = PowerMockAgent.instrumentation();
+        try {
+            instrumentation.retransformClasses(classes);
+        } catch (Exception batchFailure) {
+            for (Class<?> clazz : classes) {
+                try {
+                    instrumentation.retransformClasses(clazz);
                 } catch (Exception e) {
                     throw new RuntimeException(e);
                 }
             }
-        } finally {
-            transformer.resetPackagesToIgnore();
         }
     }
 }
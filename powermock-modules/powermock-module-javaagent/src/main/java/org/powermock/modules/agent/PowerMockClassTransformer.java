@@ -17,7 +17,6 @@
 
 package org.powermock.modules.agent;
 
-import javassist.ClassPool;
 import javassist.CtClass;
 import org.powermock.core.agent.JavaAgentClassRegister;
 import org.powermock.core.transformers.ClassWrapper;
@@ -49,8 +48,16 @@ class PowerMockClassTransformer extends AbstractClassTransformer implements Clas
         wrapperFactory = new JavaAssistClassWrapperFactory();
     }
     
+    /**
+     * The names are kept as internal names (like {@code org/powermock/Foo}), which are passed to
+     * {@link #transform(ClassLoader, String, Class, ProtectionDomain, byte[])}.
+     */
     public void setClassesToTransform(Collection<String> classesToTransform) {
-        this.classesToTransform = new HashSet<String>(classesToTransform);
+        final Set<String> internalNames = new HashSet<String>();
+        for (String className : classesToTransform) {
+            internalNames.add(className.replace('.', '/'));
+        }
+        this.classesToTransform = internalNames;
     }
     
     public void setJavaAgentClassRegister(JavaAgentClassRegister javaAgentClassRegister) {
@@ -66,23 +73,26 @@ class PowerMockClassTransformer extends AbstractClassTransformer implements Clas
             return null;
         }
         try {
-            String normalizedClassName = className.replace("/", ".");
-            if (classesToTransform != null && classesToTransform.contains(normalizedClassName)) {
-                CtClass ctClass = getCtClass(classfileBuffer);
+            if (classesToTransform != null && classesToTransform.contains(className)) {
+                CtClass ctClass = getCtClass(loader, classfileBuffer);
                 
-                ctClass = transform(ctClass);
+                try {
+                    ctClass = transform(ctClass);
 
-                /*
-                 * ClassPool may cause huge memory consumption if the number of CtClass
-                 * objects becomes amazingly large (this rarely happens since Javassist
-                 * tries to reduce memory consumption in various ways). To avoid this
-                 * problem, you can explicitly remove an unnecessary CtClass object from
-                 * the ClassPool. If you call detach() on a CtClass object, then that
-                 * CtClass object is removed from the ClassPool.
-                 */
-                ctClass.detach();
+                    /*
+                     * ClassPool may cause huge memory consumption if the number of CtClass
+                     * objects becomes amazingly large (this rarely happens since Javassist
+                     * tries to reduce memory consumption in various ways). To avoid this
+                     * problem, you can explicitly remove an unnecessary CtClass object from
+                     * the ClassPool. If you call detach() on a CtClass object, then that
+                     * CtClass object is removed from the ClassPool.
+                     */
+                    ctClass.detach();
+                } finally {
+                    AgentClassPoolCache.release(loader);
+                }
                 
-                javaAgentClassRegister.registerClass(loader, normalizedClassName);
+                javaAgentClassRegister.registerClass(loader, className.replace('/', '.'));
                 
                 return ctClass.toBytecode();
             }
@@ -93,12 +103,12 @@ class PowerMockClassTransformer extends AbstractClassTransformer implements Clas
         }
     }
     
-    private CtClass getCtClass(final byte[] classfileBuffer) throws IOException {
+    private CtClass getCtClass(final ClassLoader loader, final byte[] classfileBuffer) throws IOException {
         final CtClass ctClass;
         
         ByteArrayInputStream is = new ByteArrayInputStream(classfileBuffer);
         try {
-            ctClass = ClassPool.getDefault().makeClass(is);
+            ctClass = AgentClassPoolCache.get(loader).makeClass(is);
         } finally {
             is.close();
         }
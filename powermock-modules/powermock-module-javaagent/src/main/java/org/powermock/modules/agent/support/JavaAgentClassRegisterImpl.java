@@ -19,42 +19,95 @@ package org.powermock.modules.agent.support;
 
 import org.powermock.core.agent.JavaAgentClassRegister;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
- *  Basic not thread-safety implementation of  the  {@link JavaAgentClassRegister}
+ * Thread-safe implementation of the {@link JavaAgentClassRegister}. Classes are registered by the agent
+ * while they are loaded, possibly on several threads at once, and looked up by tests without locking.
+ * <p>
+ * The class loaders are weakly referenced and compared by identity, so the register doesn't keep class
+ * loaders which are no longer used from being collected. The entries of collected class loaders are
+ * removed when the next class is registered.
  */
 public class JavaAgentClassRegisterImpl implements JavaAgentClassRegister {
 
-    private final Map<ClassLoader, Set<String>> modifiedClasses;
+    private final ConcurrentMap<ClassLoaderKey, Set<String>> modifiedClasses;
+    private final ReferenceQueue<ClassLoader> collectedClassLoaders;
 
     public JavaAgentClassRegisterImpl() {
-        modifiedClasses = new HashMap<ClassLoader, Set<String>>();
+        modifiedClasses = new ConcurrentHashMap<ClassLoaderKey, Set<String>>();
+        collectedClassLoaders = new ReferenceQueue<ClassLoader>();
     }
 
     @Override
     public boolean isModifiedByAgent(ClassLoader classLoader, String className) {
-        return modifiedClasses.containsKey(classLoader) && modifiedClasses.get(classLoader).contains(className);
+        final Set<String> names = modifiedClasses.get(new ClassLoaderKey(classLoader, null));
+        return names != null && names.contains(className);
     }
 
     @Override
     public void registerClass(ClassLoader loader, String className) {
+        removeCollectedClassLoaders();
 
-        Set<String> names = modifiedClasses.get(loader);
-        if (names == null){
-            names = new HashSet<String>();
-            modifiedClasses.put(loader, names);
+        final ClassLoaderKey key = new ClassLoaderKey(loader, collectedClassLoaders);
+        Set<String> names = modifiedClasses.get(key);
+        if (names == null) {
+            final Set<String> newNames = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+            names = modifiedClasses.putIfAbsent(key, newNames);
+            if (names == null) {
+                names = newNames;
+            }
         }
 
         names.add(className);
-
     }
 
     @Override
     public void clear() {
         modifiedClasses.clear();
     }
+
+    private void removeCollectedClassLoaders() {
+        Reference<? extends ClassLoader> reference;
+        while ((reference = collectedClassLoaders.poll()) != null) {
+            modifiedClasses.remove(reference);
+        }
+    }
+
+    /**
+     * A weak reference to a class loader which is equal to references to the same class loader. A
+     * reference to a collected class loader is only equal to itself.
+     */
+    private static class ClassLoaderKey extends WeakReference<ClassLoader> {
+
+        private final int hashCode;
+
+        private ClassLoaderKey(ClassLoader classLoader, ReferenceQueue<ClassLoader> queue) {
+            super(classLoader, queue);
+            hashCode = System.identityHashCode(classLoader);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ClassLoaderKey)) {
+                return false;
+            }
+            final ClassLoader classLoader = get();
+            return classLoader != null && classLoader == ((ClassLoaderKey) o).get();
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
 }
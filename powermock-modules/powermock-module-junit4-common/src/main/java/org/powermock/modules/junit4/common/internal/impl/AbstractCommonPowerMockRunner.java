@@ -33,7 +33,18 @@ public abstract class AbstractCommonPowerMockRunner extends Runner implements Fi
 
     public AbstractCommonPowerMockRunner(Class<?> klass,
                                          Class<? extends PowerMockJUnitRunnerDelegate> runnerDelegateImplClass) throws Exception {
-        suiteChunker = new JUnit4TestSuiteChunkerImpl(klass, runnerDelegateImplClass);
+        this(klass, runnerDelegateImplClass, false);
+    }
+    
+    /**
+     * @param describesTestMethodsByName {@code true} if the runner delegates describe test methods by their names,
+     *                                   so the class loaders of chunks whose test methods are filtered out are
+     *                                   never created.
+     */
+    protected AbstractCommonPowerMockRunner(Class<?> klass,
+                                            Class<? extends PowerMockJUnitRunnerDelegate> runnerDelegateImplClass,
+                                            boolean describesTestMethodsByName) throws Exception {
+        suiteChunker = new JUnit4TestSuiteChunkerImpl(klass, runnerDelegateImplClass, describesTestMethodsByName);
         /*
            * For extra safety clear the MockitoRepository on each new
            * instantiation of the runner. This is good in cases where a previous
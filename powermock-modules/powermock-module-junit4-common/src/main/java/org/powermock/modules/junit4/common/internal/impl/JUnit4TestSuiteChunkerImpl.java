@@ -22,7 +22,9 @@ import org.junit.runner.manipulation.Filterable;
 import org.junit.runner.manipulation.NoTestsRemainException;
 import org.junit.runner.manipulation.Sortable;
 import org.junit.runner.manipulation.Sorter;
+import org.junit.runner.notification.Failure;
 import org.junit.runner.notification.RunNotifier;
+import org.powermock.core.MockRepository;
 import org.powermock.core.spi.PowerMockTestListener;
 import org.powermock.core.spi.testresult.TestSuiteResult;
 import org.powermock.core.spi.testresult.impl.TestSuiteResultImpl;
@@ -54,6 +56,17 @@ public class JUnit4TestSuiteChunkerImpl extends AbstractTestSuiteChunkerImpl<Pow
 
 
 	JUnit4TestSuiteChunkerImpl(Class<?> testClass, Class<? extends PowerMockJUnitRunnerDelegate> runnerDelegateImplementationType) throws Exception {
+		this(testClass, runnerDelegateImplementationType, false);
+	}
+
+	/**
+	 * @param describesTestMethodsByName {@code true} if the runner delegates describe each test method
+	 *                                   like {@code Description.createTestDescription(testClass, method.getName(), method.getAnnotations())}.
+	 *                                   The delegates and class loaders of chunks are then created lazily and chunks
+	 *                                   whose test methods are all filtered out are never created.
+	 */
+	JUnit4TestSuiteChunkerImpl(Class<?> testClass, Class<? extends PowerMockJUnitRunnerDelegate> runnerDelegateImplementationType,
+							   boolean describesTestMethodsByName) throws Exception {
 		super(testClass);
 		if (testClass == null) {
 			throw new IllegalArgumentException("You must supply a test class");
@@ -65,8 +78,16 @@ public class JUnit4TestSuiteChunkerImpl extends AbstractTestSuiteChunkerImpl<Pow
 
 		this.runnerDelegateImplementationType = runnerDelegateImplementationType;
 
+		for (TestChunk chunk : getTestChunksEntries(testClass)) {
+			delegates.add(new LazyRunnerDelegate(testClass, chunk));
+		}
+		delegatesCreatedForTheseClasses.add(testClass);
+
+		if (describesTestMethodsByName) {
+			return;
+		}
 		try {
-			createTestDelegators(testClass, getTestChunksEntries(testClass));
+			createDelegates(false);
 		} catch (InvocationTargetException e) {
 			final Throwable cause = e.getCause();
 			if (cause instanceof Exception) {
@@ -108,6 +129,9 @@ public class JUnit4TestSuiteChunkerImpl extends AbstractTestSuiteChunkerImpl<Pow
 
 		for (PowerMockJUnitRunnerDelegate delegate : delegates) {
 			TestChunk next = iterator.next();
+			if (isFilteredOut(delegate)) {
+				continue;
+			}
 			final ClassLoader key = next.getClassLoader();
 			PowerMockJUnit4RunListener powerMockListener = new PowerMockJUnit4RunListener(key, powerMockTestNotifier);
 			notifier.addListener(powerMockListener);
@@ -171,7 +195,7 @@ public class JUnit4TestSuiteChunkerImpl extends AbstractTestSuiteChunkerImpl<Pow
 	public synchronized int getTestCount() {
 		if (testCount == NOT_INITIALIZED) {
 			testCount = 0;
-			for (PowerMockJUnitRunnerDelegate delegate : delegates) {
+			for (PowerMockJUnitRunnerDelegate delegate : getRemainingDelegates()) {
 				testCount += delegate.getTestCount();
 			}
 		}
@@ -181,7 +205,8 @@ public class JUnit4TestSuiteChunkerImpl extends AbstractTestSuiteChunkerImpl<Pow
 	@Override
 	public Description getDescription() {
 		if (description == null) {
-			if (delegates.size() == 0) {
+			final List<PowerMockJUnitRunnerDelegate> remainingDelegates = getRemainingDelegates();
+			if (remainingDelegates.size() == 0) {
 				/*
 				 * This happens if Test A extends Test B and B uses the @RunWith
 				 * annotation and there are no tests defined in class B.
@@ -190,7 +215,7 @@ public class JUnit4TestSuiteChunkerImpl extends AbstractTestSuiteChunkerImpl<Pow
 			}
 
 			// Use the first delegator as the base for the description.
-			PowerMockJUnitRunnerDelegate delegate = delegates.get(0);
+			PowerMockJUnitRunnerDelegate delegate = remainingDelegates.get(0);
 			description = delegate.getDescription();
 
 			/*
@@ -198,9 +223,9 @@ public class JUnit4TestSuiteChunkerImpl extends AbstractTestSuiteChunkerImpl<Pow
 			 * do this to make sure that we avoid adding chunks as "Unrooted
 			 * tests".
 			 */
-			for (int i = 1; i < delegates.size(); i++) {
+			for (int i = 1; i < remainingDelegates.size(); i++) {
 				// Get the method-level descriptions
-				ArrayList<Description> children = delegates.get(i).getDescription().getChildren();
+				ArrayList<Description> children = remainingDelegates.get(i).getDescription().getChildren();
 				// Add all method-level descriptions to the main description.
 				for (Description methodDescription : children) {
 					description.addChild(methodDescription);
@@ -210,22 +235,255 @@ public class JUnit4TestSuiteChunkerImpl extends AbstractTestSuiteChunkerImpl<Pow
 		return description;
 	}
 
+	/**
+	 * Filter the test methods of all chunks. A chunk whose test methods are all filtered out is skipped,
+	 * {@link NoTestsRemainException} is only thrown if no test method of any chunk remains.
+	 */
 	@Override
-	public void filter(Filter filter) throws NoTestsRemainException {
-		for (Object delegate : delegates) {
-			if (delegate instanceof Filterable) {
-				((Filterable) delegate).filter(filter);
-			}
+	public synchronized void filter(Filter filter) throws NoTestsRemainException {
+		for (PowerMockJUnitRunnerDelegate delegate : delegates) {
+			((LazyRunnerDelegate) delegate).filter(filter);
+		}
+		description = null;
+		testCount = NOT_INITIALIZED;
+		if (getRemainingDelegates().isEmpty()) {
+			throw new NoTestsRemainException();
 		}
 	}
 
 	@Override
-	public void sort(Sorter sorter) {
-		for (Object delegate : delegates) {
+	public synchronized void sort(Sorter sorter) {
+		for (PowerMockJUnitRunnerDelegate delegate : getRemainingDelegates()) {
+			((LazyRunnerDelegate) delegate).sort(sorter);
+		}
+	}
+
+	private List<PowerMockJUnitRunnerDelegate> getRemainingDelegates() {
+		final List<PowerMockJUnitRunnerDelegate> remainingDelegates = new ArrayList<PowerMockJUnitRunnerDelegate>();
+		for (PowerMockJUnitRunnerDelegate delegate : delegates) {
+			if (!isFilteredOut(delegate)) {
+				remainingDelegates.add(delegate);
+			}
+		}
+		return remainingDelegates;
+	}
+
+	private static boolean isFilteredOut(PowerMockJUnitRunnerDelegate delegate) {
+		return ((LazyRunnerDelegate) delegate).isFilteredOut();
+	}
+
+	/**
+	 * Create the class loaders and then the runner delegates of all chunks which have not been created
+	 * or filtered out yet.
+	 * <p>
+	 * Creating a class loader registers the classes whose static initializers are suppressed in the
+	 * MockRepository, so all class loaders are created before the first delegate loads the test class,
+	 * like they were when all delegates were created by the constructor of the runner. Other state which
+	 * creating the delegates leaves in the MockRepository, in the shared scope or in the scopes of the new
+	 * class loaders, is cleared, like the runner clears it after the delegates have been created by its
+	 * constructor.
+	 *
+	 * @param reportFailures {@code true} if a delegate which cannot be created should report the failure
+	 *                       when it runs, otherwise the failure is thrown.
+	 */
+	private synchronized void createDelegates(boolean reportFailures) throws Exception {
+		final List<LazyRunnerDelegate> delegatesToCreate = new ArrayList<LazyRunnerDelegate>();
+		for (PowerMockJUnitRunnerDelegate delegate : delegates) {
+			final LazyRunnerDelegate lazyDelegate = (LazyRunnerDelegate) delegate;
+			if (!lazyDelegate.isCreated() && !lazyDelegate.isFilteredOut()) {
+				delegatesToCreate.add(lazyDelegate);
+			}
+		}
+
+		for (LazyRunnerDelegate delegate : delegatesToCreate) {
+			try {
+				delegate.chunk.getClassLoader();
+			} catch (RuntimeException e) {
+				if (!reportFailures) {
+					throw e;
+				}
+				delegate.fail(e);
+			}
+		}
+		for (LazyRunnerDelegate delegate : delegatesToCreate) {
+			if (delegate.isCreated()) {
+				continue;
+			}
+			try {
+				delegate.create();
+			} catch (Exception e) {
+				if (!reportFailures) {
+					throw e;
+				}
+				delegate.fail(e instanceof InvocationTargetException ? e.getCause() : e);
+			}
+		}
+		if (!delegatesToCreate.isEmpty()) {
+			MockRepository.clear();
+			for (LazyRunnerDelegate delegate : delegatesToCreate) {
+				if (delegate.isCreated()) {
+					MockRepository.clear(delegate.chunk.getClassLoader());
+				}
+			}
+		}
+	}
+
+	/**
+	 * The runner delegate of a test chunk. The delegate and the class loader of the chunk are created
+	 * when a delegate is used the first time, filters and sorters which are applied before are
+	 * remembered and applied when the delegate is created.
+	 */
+	private class LazyRunnerDelegate implements PowerMockJUnitRunnerDelegate {
+
+		private final Class<?> testClass;
+		private final TestChunk chunk;
+		private final List<Filter> filters = new ArrayList<Filter>();
+		private final List<Sorter> sorters = new ArrayList<Sorter>();
+		private PowerMockJUnitRunnerDelegate delegate;
+		private boolean filteredOut;
+
+		private LazyRunnerDelegate(Class<?> testClass, TestChunk chunk) {
+			this.testClass = testClass;
+			this.chunk = chunk;
+		}
+
+		private void create() throws Exception {
+			delegate = createDelegatorFromClassloader(chunk.getClassLoader(), testClass,
+					chunk.getTestMethodsToBeExecutedByThisClassloader());
+			for (Filter filter : filters) {
+				filterDelegate(filter);
+			}
+			for (Sorter sorter : sorters) {
+				sortDelegate(sorter);
+			}
+		}
+
+		private void fail(Throwable cause) {
+			delegate = new FailedRunnerDelegate(testClass, cause);
+		}
+
+		private boolean isCreated() {
+			return delegate != null;
+		}
+
+		private PowerMockJUnitRunnerDelegate getDelegate() {
+			if (delegate == null) {
+				try {
+					createDelegates(true);
+				} catch (Exception e) {
+					fail(e);
+				}
+			}
+			return delegate;
+		}
+
+		private boolean isFilteredOut() {
+			return filteredOut;
+		}
+
+		private void filter(Filter filter) {
+			if (filteredOut) {
+				return;
+			}
+			if (delegate != null) {
+				filterDelegate(filter);
+			} else if (shouldRunAnyMethod(filter)) {
+				filters.add(filter);
+			} else {
+				filteredOut = true;
+			}
+		}
+
+		private void sort(Sorter sorter) {
+			if (delegate != null) {
+				sortDelegate(sorter);
+			} else {
+				sorters.add(sorter);
+			}
+		}
+
+		private boolean shouldRunAnyMethod(Filter filter) {
+			for (Method method : chunk.getTestMethodsToBeExecutedByThisClassloader()) {
+				if (filter.shouldRun(Description.createTestDescription(testClass, method.getName(), method.getAnnotations()))) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private void filterDelegate(Filter filter) {
+			if (delegate instanceof Filterable) {
+				try {
+					((Filterable) delegate).filter(filter);
+				} catch (NoTestsRemainException e) {
+					filteredOut = true;
+				}
+			}
+		}
+
+		private void sortDelegate(Sorter sorter) {
 			if (delegate instanceof Sortable) {
 				((Sortable) delegate).sort(sorter);
 			}
 		}
+
+		@Override
+		public void run(RunNotifier notifier) {
+			getDelegate().run(notifier);
+		}
+
+		@Override
+		public Description getDescription() {
+			return getDelegate().getDescription();
+		}
+
+		@Override
+		public int getTestCount() {
+			return getDelegate().getTestCount();
+		}
+
+		@Override
+		public Class<?> getTestClass() {
+			return getDelegate().getTestClass();
+		}
+	}
+
+	/**
+	 * Reports the failure to create the runner delegate of a chunk like JUnit reports a runner which
+	 * cannot be created.
+	 */
+	private static class FailedRunnerDelegate implements PowerMockJUnitRunnerDelegate {
+
+		private final Class<?> testClass;
+		private final Throwable cause;
+
+		private FailedRunnerDelegate(Class<?> testClass, Throwable cause) {
+			this.testClass = testClass;
+			this.cause = cause;
+		}
+
+		@Override
+		public void run(RunNotifier notifier) {
+			final Description description = getDescription();
+			notifier.fireTestStarted(description);
+			notifier.fireTestFailure(new Failure(description, cause));
+			notifier.fireTestFinished(description);
+		}
+
+		@Override
+		public Description getDescription() {
+			return Description.createTestDescription(testClass, "initializationError");
+		}
+
+		@Override
+		public int getTestCount() {
+			return 1;
+		}
+
+		@Override
+		public Class<?> getTestClass() {
+			return testClass;
+		}
 	}
 
 }
@@ -19,7 +19,6 @@ import org.junit.runner.Description;
 import org.junit.runner.notification.Failure;
 import org.junit.runner.notification.RunListener;
 import org.powermock.core.MockRepository;
-import org.powermock.reflect.Whitebox;
 import org.powermock.tests.utils.PowerMockTestNotifier;
 
 public class PowerMockJUnit4RunListener extends RunListener {
@@ -40,19 +39,17 @@ public class PowerMockJUnit4RunListener extends RunListener {
 	}
 
 	/**
-	 * Performs clean up after each test. The {@link MockRepository#clear()}
-	 * methods has to be called by the correct class loader for the state to be
-	 * cleared. Therefore it is invoked using reflection when the class is
-	 * loaded from the correct class loader.
+	 * Performs clean up after each test. The state of the {@link MockRepository}
+	 * is kept per mock class loader, so the state of the mock class loader of
+	 * the test is cleared.
 	 */
 	@Override
 	public void testFinished(Description description1) throws Exception {
-		Class<?> mockRepositoryClass = mockClassLoader.loadClass(MockRepository.class.getName());
 		try {
 			notifyListenersOfTestResult();
 		} finally {
 			// Clear state
-			Whitebox.invokeMethod(mockRepositoryClass, "clear");
+			MockRepository.clear(mockClassLoader);
 		}
 	}
 
@@ -31,12 +31,16 @@ import java.lang.annotation.Annotation;
 public class PowerMockRunner extends AbstractCommonPowerMockRunner {
 
     public PowerMockRunner(Class<?> klass) throws Exception {
-        super(klass, getRunnerDelegateImplClass(klass));
+        super(klass, getRunnerDelegateImplClass(klass), !isDelegating(klass));
+    }
+    
+    private static boolean isDelegating(Class<?> klass) {
+        return klass.isAnnotationPresent(PowerMockRunnerDelegate.class)
+                || Boolean.getBoolean("powermock.implicitDelegateAnnotation");
     }
     
     private static Class<? extends PowerMockJUnitRunnerDelegate> getRunnerDelegateImplClass(Class<?> klass) {
-        if (klass.isAnnotationPresent(PowerMockRunnerDelegate.class)
-                || Boolean.getBoolean("powermock.implicitDelegateAnnotation")) {
+        if (isDelegating(klass)) {
             return DelegatingPowerMockRunner.class;
         }
 
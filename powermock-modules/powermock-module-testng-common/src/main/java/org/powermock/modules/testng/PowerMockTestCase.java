@@ -52,8 +52,9 @@ public class PowerMockTestCase {
 
     @BeforeClass
     protected void beforePowerMockTestClass() throws Exception {
-        // To make sure that the mock repository is not in an incorrect state when the test begins
-        MockRepository.clear();
+        // To make sure that the mock repository is not in an incorrect state when the test begins. The context
+        // class loader isn't set yet, so the state of the class loader of the test is cleared explicitly.
+        MockRepository.clear(getClass().getClassLoader());
         if(isLoadedByPowerMockClassloader()) {
             final Thread thread = Thread.currentThread();
             previousCl = thread.getContextClassLoader();
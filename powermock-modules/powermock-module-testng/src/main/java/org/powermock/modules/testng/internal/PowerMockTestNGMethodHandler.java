@@ -56,7 +56,7 @@ public class PowerMockTestNGMethodHandler implements MethodHandler {
         {
             if (thisMethod.isAnnotationPresent(Test.class)) {
                 clearMockFields();
-                MockRepository.clear();
+                MockRepository.clear(self.getClass().getClassLoader());
             }
         }
     }
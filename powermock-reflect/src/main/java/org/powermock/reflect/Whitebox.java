@@ -51,7 +51,7 @@ public class Whitebox {
 	 *             If a field cannot be found in the hierarchy.
 	 */
 	public static Field getField(Class<?> type, String fieldName) {
-		return WhiteboxImpl.getField(type, fieldName);
+		return WhiteboxImpl.copyOf(WhiteboxImpl.getField(type, fieldName));
 	}
 
 	/**
@@ -91,7 +91,7 @@ public class Whitebox {
 	 *             If a method cannot be found in the hierarchy.
 	 */
 	public static Method getMethod(Class<?> type, String methodName, Class<?>... parameterTypes) {
-		return WhiteboxImpl.getMethod(type, methodName, parameterTypes);
+		return WhiteboxImpl.copyOf(WhiteboxImpl.getMethod(type, methodName, parameterTypes));
 	}
 
 	/**
@@ -155,7 +155,7 @@ public class Whitebox {
 	 *             if the constructor cannot be found.
 	 */
 	public static <T> Constructor<T> getConstructor(Class<?> type, Class<?>... parameterTypes) {
-		return (Constructor<T>) WhiteboxImpl.getConstructor(type, parameterTypes);
+		return (Constructor<T>) WhiteboxImpl.copyOf(WhiteboxImpl.getConstructor(type, parameterTypes));
 	}
 
 	/**
@@ -0,0 +1,246 @@
+/*
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.reflect.internal;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of the fields, constructors and methods looked up by {@link WhiteboxImpl}.
+ * <p>
+ * Classes are weakly referenced. The cached members refer to their declaring class,
+ * so the metadata of a class is softly referenced, otherwise the cache would keep
+ * the classes of a discarded class loader from being unloaded. The entries of collected classes are removed when
+ * the metadata of the next class is added, so lookups never take a lock.
+ * <p>
+ * The cached members are shared by all callers and must not be changed, the public {@code Whitebox} API
+ * hands out accessible copies of them.
+ */
+public final class ReflectionCache {
+
+    private static final ConcurrentMap<ClassKey, SoftReference<ClassMetadata>> METADATA =
+        new ConcurrentHashMap<ClassKey, SoftReference<ClassMetadata>>();
+    private static final ReferenceQueue<Class<?>> COLLECTED_CLASSES = new ReferenceQueue<Class<?>>();
+
+    private static final Class<?>[] NO_PARAMETER_TYPES = new Class<?>[0];
+
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+
+    private ReflectionCache() {
+    }
+
+    /**
+     * @return how many lookups have been answered by the cache.
+     */
+    public static long getHitCount() {
+        return HITS.get();
+    }
+
+    /**
+     * @return how many lookups haven't been answered by the cache.
+     */
+    public static long getMissCount() {
+        return MISSES.get();
+    }
+
+    /**
+     * Remove all cached metadata and reset the counters.
+     */
+    public static void clear() {
+        METADATA.clear();
+        HITS.set(0);
+        MISSES.set(0);
+    }
+
+    static Field getField(Class<?> type, String fieldName) {
+        final ClassMetadata metadata = getMetadata(type);
+        return count(metadata == null ? null : metadata.fields.get(fieldName));
+    }
+
+    static void putField(Class<?> type, String fieldName, Field field) {
+        getOrCreateMetadata(type).fields.put(fieldName, field);
+    }
+
+    static Constructor<?> getConstructor(Class<?> type, Class<?>[] parameterTypes) {
+        final ClassMetadata metadata = getMetadata(type);
+        return count(metadata == null ? null : metadata.constructors.get(new Signature(null, parameterTypes)));
+    }
+
+    static void putConstructor(Class<?> type, Class<?>[] parameterTypes, Constructor<?> constructor) {
+        getOrCreateMetadata(type).constructors.put(new Signature(null, copyOf(parameterTypes)), constructor);
+    }
+
+    static Method getMethod(Class<?> type, String methodName, Class<?>[] parameterTypes) {
+        final ClassMetadata metadata = getMetadata(type);
+        return count(metadata == null ? null : metadata.methods.get(new Signature(methodName, parameterTypes)));
+    }
+
+    static void putMethod(Class<?> type, String methodName, Class<?>[] parameterTypes, Method method) {
+        getOrCreateMetadata(type).methods.put(new Signature(methodName, copyOf(parameterTypes)), method);
+    }
+
+    static Method getAccessibleMethod(Method method) {
+        final ClassMetadata metadata = getMetadata(method.getDeclaringClass());
+        return count(metadata == null ? null : metadata.accessibleMethods.get(method));
+    }
+
+    static void putAccessibleMethod(Method method, Method accessibleMethod) {
+        getOrCreateMetadata(method.getDeclaringClass()).accessibleMethods.put(method, accessibleMethod);
+    }
+
+    static Method[] getAllMethods(Class<?> type) {
+        final ClassMetadata metadata = getMetadata(type);
+        return count(metadata == null ? null : metadata.allMethods);
+    }
+
+    static void putAllMethods(Class<?> type, Method[] methods) {
+        getOrCreateMetadata(type).allMethods = methods;
+    }
+
+    private static Class<?>[] copyOf(Class<?>[] parameterTypes) {
+        return parameterTypes == null ? null : parameterTypes.clone();
+    }
+
+    private static <T> T count(T cached) {
+        if (cached == null) {
+            MISSES.incrementAndGet();
+        } else {
+            HITS.incrementAndGet();
+        }
+        return cached;
+    }
+
+    private static ClassMetadata getMetadata(Class<?> type) {
+        final SoftReference<ClassMetadata> reference = METADATA.get(new ClassKey(type, null));
+        return reference == null ? null : reference.get();
+    }
+
+    private static ClassMetadata getOrCreateMetadata(Class<?> type) {
+        ClassMetadata metadata = getMetadata(type);
+        if (metadata != null) {
+            return metadata;
+        }
+        removeCollectedClasses();
+        final ClassKey key = new ClassKey(type, COLLECTED_CLASSES);
+        final ClassMetadata created = new ClassMetadata();
+        final SoftReference<ClassMetadata> reference = new SoftReference<ClassMetadata>(created);
+        while (true) {
+            final SoftReference<ClassMetadata> existing = METADATA.putIfAbsent(key, reference);
+            if (existing == null) {
+                return created;
+            }
+            metadata = existing.get();
+            if (metadata != null) {
+                return metadata;
+            }
+            // The metadata of the class has been collected, replace it unless another thread already has
+            if (METADATA.replace(key, existing, reference)) {
+                return created;
+            }
+        }
+    }
+
+    private static void removeCollectedClasses() {
+        Reference<? extends Class<?>> reference;
+        while ((reference = COLLECTED_CLASSES.poll()) != null) {
+            METADATA.remove(reference);
+        }
+    }
+
+    private static class ClassMetadata {
+        private final ConcurrentMap<String, Field> fields = new ConcurrentHashMap<String, Field>();
+        private final ConcurrentMap<Signature, Constructor<?>> constructors = new ConcurrentHashMap<Signature, Constructor<?>>();
+        private final ConcurrentMap<Signature, Method> methods = new ConcurrentHashMap<Signature, Method>();
+        private final ConcurrentMap<Method, Method> accessibleMethods = new ConcurrentHashMap<Method, Method>();
+        private volatile Method[] allMethods;
+    }
+
+    /**
+     * A weak reference to a class which is equal to references to the same class. A reference to a collected class is
+     * only equal to itself.
+     */
+    private static class ClassKey extends WeakReference<Class<?>> {
+
+        private final int hashCode;
+
+        private ClassKey(Class<?> clazz, ReferenceQueue<Class<?>> queue) {
+            super(clazz, queue);
+            hashCode = System.identityHashCode(clazz);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ClassKey)) {
+                return false;
+            }
+            final Class<?> clazz = get();
+            return clazz != null && clazz == ((ClassKey) o).get();
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * Name (if any) and parameter types of a constructor or method.
+     */
+    private static class Signature {
+        private final String name;
+        private final Class<?>[] parameterTypes;
+        private final int hashCode;
+
+        private Signature(String name, Class<?>[] parameterTypes) {
+            this.name = name;
+            this.parameterTypes = parameterTypes == null ? NO_PARAMETER_TYPES : parameterTypes;
+            this.hashCode = 31 * (name == null ? 0 : name.hashCode()) + Arrays.hashCode(this.parameterTypes);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Signature)) {
+                return false;
+            }
+            final Signature that = (Signature) o;
+            return (name == null ? that.name == null : name.equals(that.name))
+                       && Arrays.equals(parameterTypes, that.parameterTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -58,8 +58,6 @@ import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 import sun.misc.Unsafe;
 
 /**
@@ -73,12 +71,6 @@ public class WhiteboxImpl {
      */
     private static ProxyFrameworks proxyFrameworks = new ProxyFrameworks();
 
-    /**
-     * "Strong" map prevent class and method objects from being GCed and unloaded.
-     * TODO replace with ClassValue when Powermock drops Java 6 support.
-     */
-    private static ConcurrentMap<Class, Method[]> allClassMethodsCache = new ConcurrentHashMap<Class, Method[]>();
-
     /**
      * Convenience method to get a method from a class type without having to
      * catch the checked exceptions otherwise required. These exceptions are
@@ -154,9 +146,19 @@ public class WhiteboxImpl {
      * @param type           The type of the class where the method is located.
      * @param methodName     The method names.
      * @param parameterTypes All parameter types of the method (may be {@code null}).
-     * @return A .
+     * @return A . The method is kept by the {@link ReflectionCache} and shared by all callers, so it must not
+     * be changed; {@link #copyOf(Method)} gives a copy that can be.
      */
     public static Method getMethod(Class<?> type, String methodName, Class<?>... parameterTypes) {
+        Method method = ReflectionCache.getMethod(type, methodName, parameterTypes);
+        if (method == null) {
+            method = doGetMethod(type, methodName, parameterTypes);
+            ReflectionCache.putMethod(type, methodName, parameterTypes, method);
+        }
+        return method;
+    }
+
+    private static Method doGetMethod(Class<?> type, String methodName, Class<?>... parameterTypes) {
         Class<?> thisType = type;
         if (parameterTypes == null) {
             parameterTypes = new Class<?>[0];
@@ -194,10 +196,20 @@ public class WhiteboxImpl {
      *
      * @param type      The type of the class where the method is located.
      * @param fieldName The method names.
-     * @return A .
+     * @return A . The field is kept by the {@link ReflectionCache} and shared by all callers, so it must not
+     * be changed; {@link #copyOf(Field)} gives a copy that can be.
      */
     @SuppressWarnings({"unchecked", "rawtypes"})
     public static Field getField(Class<?> type, String fieldName) {
+        Field field = ReflectionCache.getField(type, fieldName);
+        if (field == null) {
+            field = doGetField(type, fieldName);
+            ReflectionCache.putField(type, fieldName, field);
+        }
+        return field;
+    }
+
+    private static Field doGetField(Class<?> type, String fieldName) {
         LinkedList<Class<?>> examine = new LinkedList<Class<?>>();
         examine.add(type);
         Set<Class<?>> done = new HashSet<Class<?>>();
@@ -272,9 +284,19 @@ public class WhiteboxImpl {
      * @param type           The type of the class where the constructor is located.
      * @param parameterTypes All parameter types of the constructor (may be
      *                       {@code null}).
-     * @return A .
+     * @return A . The constructor is kept by the {@link ReflectionCache} and shared by all callers, so it must not
+     * be changed; {@link #copyOf(Constructor)} gives a copy that can be.
      */
     public static Constructor<?> getConstructor(Class<?> type, Class<?>... parameterTypes) {
+        Constructor<?> constructor = ReflectionCache.getConstructor(type, parameterTypes);
+        if (constructor == null) {
+            constructor = doGetConstructor(type, parameterTypes);
+            ReflectionCache.putConstructor(type, parameterTypes, constructor);
+        }
+        return constructor;
+    }
+
+    private static Constructor<?> doGetConstructor(Class<?> type, Class<?>... parameterTypes) {
         Class<?> unmockedType = WhiteboxImpl.getOriginalUnmockedType(type);
         try {
             final Constructor<?> constructor = unmockedType.getDeclaredConstructor(parameterTypes);
@@ -651,7 +673,7 @@ public class WhiteboxImpl {
      *                   might be useful to test private methods.
      */
     @SuppressWarnings("unchecked")
-    public static synchronized <T> T invokeMethod(Object tested, Object... arguments) throws Exception {
+    public static <T> T invokeMethod(Object tested, Object... arguments) throws Exception {
         return (T) doInvokeMethod(tested, null, null, arguments);
     }
 
@@ -669,7 +691,7 @@ public class WhiteboxImpl {
      *                   might be useful to test private methods.
      */
     @SuppressWarnings("unchecked")
-    public static synchronized <T> T invokeMethod(Class<?> tested, Object... arguments) throws Exception {
+    public static <T> T invokeMethod(Class<?> tested, Object... arguments) throws Exception {
         return (T) doInvokeMethod(tested, null, null, arguments);
     }
 
@@ -685,7 +707,7 @@ public class WhiteboxImpl {
      * @throws Exception the exception
      */
     @SuppressWarnings("unchecked")
-    public static synchronized <T> T invokeMethod(Object tested, String methodToExecute, Object... arguments)
+    public static <T> T invokeMethod(Object tested, String methodToExecute, Object... arguments)
             throws Exception {
         return (T) doInvokeMethod(tested, null, methodToExecute, arguments);
     }
@@ -705,8 +727,8 @@ public class WhiteboxImpl {
      * @throws Exception Exception that may occur when invoking this method.
      */
     @SuppressWarnings("unchecked")
-    public static synchronized <T> T invokeMethod(Object tested, String methodToExecute, Class<?>[] argumentTypes,
-                                                  Object... arguments) throws Exception {
+    public static <T> T invokeMethod(Object tested, String methodToExecute, Class<?>[] argumentTypes,
+                                     Object... arguments) throws Exception {
         final Class<?> unmockedType = getType(tested);
         Method method = getMethod(unmockedType, methodToExecute, argumentTypes);
         if (method == null) {
@@ -732,8 +754,8 @@ public class WhiteboxImpl {
      *                   {@link #invokeMethod(Class, String, Object...)} instead.
      */
     @SuppressWarnings("unchecked")
-    public static synchronized <T> T invokeMethod(Object tested, String methodToExecute, Class<?> definedIn,
-                                                  Class<?>[] argumentTypes, Object... arguments) throws Exception {
+    public static <T> T invokeMethod(Object tested, String methodToExecute, Class<?> definedIn,
+                                     Class<?>[] argumentTypes, Object... arguments) throws Exception {
         Method method = getMethod(definedIn, methodToExecute, argumentTypes);
         if (method == null) {
             throwExceptionIfMethodWasNotFound(definedIn, methodToExecute, null, arguments);
@@ -754,8 +776,8 @@ public class WhiteboxImpl {
      * @throws Exception Exception that may occur when invoking this method.
      */
     @SuppressWarnings("unchecked")
-    public static synchronized <T> T invokeMethod(Object tested, Class<?> declaringClass, String methodToExecute,
-                                                  Object... arguments) throws Exception {
+    public static <T> T invokeMethod(Object tested, Class<?> declaringClass, String methodToExecute,
+                                     Object... arguments) throws Exception {
         return (T) doInvokeMethod(tested, declaringClass, methodToExecute, arguments);
     }
 
@@ -777,8 +799,8 @@ public class WhiteboxImpl {
      *                   {@link #invokeMethod(Object, String, Object...)} instead.
      */
     @SuppressWarnings("unchecked")
-    public static synchronized <T> T invokeMethod(Object object, Class<?> declaringClass, String methodToExecute,
-                                                  Class<?>[] parameterTypes, Object... arguments) throws Exception {
+    public static <T> T invokeMethod(Object object, Class<?> declaringClass, String methodToExecute,
+                                     Class<?>[] parameterTypes, Object... arguments) throws Exception {
         if (object == null) {
             throw new IllegalArgumentException("object cannot be null");
         }
@@ -800,7 +822,7 @@ public class WhiteboxImpl {
      * @throws Exception the exception
      */
     @SuppressWarnings("unchecked")
-    public static synchronized <T> T invokeMethod(Class<?> clazz, String methodToExecute, Object... arguments)
+    public static <T> T invokeMethod(Class<?> clazz, String methodToExecute, Object... arguments)
             throws Exception {
         return (T) doInvokeMethod(clazz, null, methodToExecute, arguments);
     }
@@ -1475,14 +1497,14 @@ public class WhiteboxImpl {
      * @return All methods declared in this class hierarchy.
      */
     public static Method[] getAllMethods(Class<?> clazz) {
-        Method[] allMethods = allClassMethodsCache.get(clazz);
+        Method[] allMethods = ReflectionCache.getAllMethods(clazz);
         if (allMethods == null) {
             // Allows a race between concurrent threads coming for clazz's methods at the same time,
             // but the race seems to be harmless.
             allMethods = doGetAllMethods(clazz);
-            allClassMethodsCache.put(clazz, allMethods);
+            ReflectionCache.putAllMethods(clazz, allMethods);
         }
-        return allMethods;
+        return allMethods.clone();
     }
 
     private static Method[] doGetAllMethods(Class<?> clazz) {
@@ -1846,22 +1868,21 @@ public class WhiteboxImpl {
     @SuppressWarnings("unchecked")
     public static <T> T performMethodInvocation(Object tested, Method methodToInvoke, Object... arguments)
             throws Exception {
-        final boolean accessible = methodToInvoke.isAccessible();
-        if (!accessible) {
-            methodToInvoke.setAccessible(true);
-        }
+        // The supplied method may be shared with other threads, so instead of toggling its accessible
+        // flag an accessible copy, kept by the ReflectionCache, is invoked when needed.
+        final Method accessibleMethod = methodToInvoke.isAccessible() ? methodToInvoke : getAccessibleCopy(methodToInvoke);
         try {
-            if (isPotentialVarArgsMethod(methodToInvoke, arguments)) {
-                Class<?>[] parameterTypes = methodToInvoke.getParameterTypes();
+            if (isPotentialVarArgsMethod(accessibleMethod, arguments)) {
+                Class<?>[] parameterTypes = accessibleMethod.getParameterTypes();
                 final int varArgsIndex = parameterTypes.length - 1;
                 Class<?> varArgsType = parameterTypes[varArgsIndex].getComponentType();
                 Object varArgsArrayInstance = createAndPopulateVarArgsArray(varArgsType, varArgsIndex, arguments);
                 Object[] completeArgumentList = new Object[parameterTypes.length];
                 System.arraycopy(arguments, 0, completeArgumentList, 0, varArgsIndex);
                 completeArgumentList[completeArgumentList.length - 1] = varArgsArrayInstance;
-                return (T) methodToInvoke.invoke(tested, completeArgumentList);
+                return (T) accessibleMethod.invoke(tested, completeArgumentList);
             } else {
-                return (T) methodToInvoke.invoke(tested, arguments == null ? new Object[]{arguments} : arguments);
+                return (T) accessibleMethod.invoke(tested, arguments == null ? new Object[]{arguments} : arguments);
             }
         } catch (InvocationTargetException e) {
             Throwable cause = e.getCause();
@@ -1872,11 +1893,86 @@ public class WhiteboxImpl {
             } else {
                 throw new MethodInvocationException(cause);
             }
-        } finally {
-            if (!accessible) {
-                methodToInvoke.setAccessible(false);
+        }
+    }
+
+    /**
+     * Get an accessible copy of a field, which can be changed without affecting the field kept by the
+     * {@link ReflectionCache}. Looking up a declared field of a known class is much cheaper than searching
+     * the class hierarchy for it.
+     *
+     * @param field the field to copy
+     * @return an accessible copy of the field.
+     */
+    public static Field copyOf(Field field) {
+        final Field copy;
+        try {
+            copy = field.getDeclaringClass().getDeclaredField(field.getName());
+        } catch (NoSuchFieldException e) {
+            throw new FieldNotFoundException(e.getMessage());
+        }
+        copy.setAccessible(true);
+        return copy;
+    }
+
+    /**
+     * Get an accessible copy of a method, which can be changed without affecting the method kept by the
+     * {@link ReflectionCache}.
+     *
+     * @param method the method to copy
+     * @return an accessible copy of the method.
+     */
+    public static Method copyOf(Method method) {
+        final Class<?> declaringClass = method.getDeclaringClass();
+        Method copy = null;
+        try {
+            copy = declaringClass.getDeclaredMethod(method.getName(), method.getParameterTypes());
+        } catch (NoSuchMethodException e) {
+            // handled below
+        }
+        if (!method.equals(copy)) {
+            // Bridge methods have the same parameter types as the method they bridge to
+            copy = null;
+            for (Method declaredMethod : declaringClass.getDeclaredMethods()) {
+                if (method.equals(declaredMethod)) {
+                    copy = declaredMethod;
+                    break;
+                }
             }
+            if (copy == null) {
+                throw new MethodNotFoundException("Method " + method + " is no longer declared by " + declaringClass.getName() + ".");
+            }
+        }
+        copy.setAccessible(true);
+        return copy;
+    }
+
+    /**
+     * Get an accessible copy of a constructor, which can be changed without affecting the constructor kept by
+     * the {@link ReflectionCache}.
+     *
+     * @param constructor the constructor to copy
+     * @return an accessible copy of the constructor.
+     */
+    public static Constructor<?> copyOf(Constructor<?> constructor) {
+        final Constructor<?> copy;
+        try {
+            copy = constructor.getDeclaringClass().getDeclaredConstructor(constructor.getParameterTypes());
+        } catch (NoSuchMethodException e) {
+            throw new ConstructorNotFoundException(e.getMessage(), e);
+        }
+        copy.setAccessible(true);
+        return copy;
+    }
+
+    private static Method getAccessibleCopy(Method method) {
+        // The copy is only ever invoked, so it can be kept by the cache and shared between invocations
+        Method copy = ReflectionCache.getAccessibleMethod(method);
+        if (copy == null) {
+            copy = copyOf(method);
+            ReflectionCache.putAccessibleMethod(method, copy);
         }
+        return copy;
     }
 
     /**
@@ -1,11 +1,25 @@
 package org.powermock.reflect.internal.proxy;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class ProxyFrameworks {
     
     private static final UnproxiedTypeFactory UNPROXIED_TYPE_FACTORY = new UnproxiedTypeFactory();
+    
+    /**
+     * Whether or not a class is a CGLib proxy. Detecting it requires copying all declared methods of the class, so the
+     * result is cached. Classes are weakly referenced (and the values don't refer to them), so the cache doesn't prevent
+     * classes loaded by a discarded class loader from being unloaded. The entries of collected classes are removed when
+     * the next class is added.
+     */
+    private static final ConcurrentMap<ClassKey, Boolean> CGLIB_PROXY_CLASSES = new ConcurrentHashMap<ClassKey, Boolean>();
+    private static final ReferenceQueue<Class<?>> COLLECTED_CLASSES = new ReferenceQueue<Class<?>>();
 
     public UnproxiedType getUnproxiedType(Class<?> type) {
 
@@ -39,6 +53,23 @@ public class ProxyFrameworks {
         if (clazz == null){
             return false;
         }
+        Boolean cglibProxyClass = CGLIB_PROXY_CLASSES.get(new ClassKey(clazz, null));
+        if (cglibProxyClass == null) {
+            cglibProxyClass = hasCglibCallbackMethod(clazz);
+            removeCollectedClasses();
+            CGLIB_PROXY_CLASSES.put(new ClassKey(clazz, COLLECTED_CLASSES), cglibProxyClass);
+        }
+        return cglibProxyClass;
+    }
+    
+    private static void removeCollectedClasses() {
+        Reference<? extends Class<?>> reference;
+        while ((reference = COLLECTED_CLASSES.poll()) != null) {
+            CGLIB_PROXY_CLASSES.remove(reference);
+        }
+    }
+    
+    private boolean hasCglibCallbackMethod(Class<?> clazz) {
         Method[] methods = clazz.getDeclaredMethods();
         for(Method m: methods){
             if(isCglibCallbackMethod(m)) {
@@ -51,4 +82,35 @@ public class ProxyFrameworks {
     private boolean isCglibCallbackMethod(Method m) {
         return "CGLIB$SET_THREAD_CALLBACKS".equals(m.getName()) && m.getParameterTypes().length == 1;
     }
+    
+    /**
+     * A weak reference to a class which is equal to references to the same class. A reference to a collected class is
+     * only equal to itself.
+     */
+    private static class ClassKey extends WeakReference<Class<?>> {
+        
+        private final int hashCode;
+        
+        private ClassKey(Class<?> clazz, ReferenceQueue<Class<?>> queue) {
+            super(clazz, queue);
+            hashCode = System.identityHashCode(clazz);
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ClassKey)) {
+                return false;
+            }
+            final Class<?> clazz = get();
+            return clazz != null && clazz == ((ClassKey) o).get();
+        }
+        
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
 }
@@ -0,0 +1,129 @@
+/*
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package org.powermock.reflect.internal;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.reflect.Whitebox;
+import org.powermock.reflect.testclasses.ClassWithInternalState;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class ReflectionCacheTest {
+
+    @Before
+    public void setUp() {
+        ReflectionCache.clear();
+    }
+
+    @Test
+    public void should_return_cached_field_when_looked_up_twice() {
+        final Field field = WhiteboxImpl.getField(ClassWithInternalState.class, "internalState");
+
+        assertThat(WhiteboxImpl.getField(ClassWithInternalState.class, "internalState")).isSameAs(field);
+        assertThat(field.isAccessible()).isTrue();
+        assertThat(ReflectionCache.getMissCount()).isEqualTo(1);
+        assertThat(ReflectionCache.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void should_return_cached_constructor_when_looked_up_twice() {
+        final Constructor<?> constructor = WhiteboxImpl.getConstructor(ClassWithInternalState.class);
+
+        assertThat(WhiteboxImpl.getConstructor(ClassWithInternalState.class)).isSameAs(constructor);
+        assertThat(ReflectionCache.getMissCount()).isEqualTo(1);
+        assertThat(ReflectionCache.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void should_cache_methods_by_name_and_parameter_types() {
+        final Method withArgument = WhiteboxImpl.getMethod(StringBuilder.class, "append", String.class);
+        final Method withoutArgument = WhiteboxImpl.getMethod(StringBuilder.class, "toString");
+
+        assertThat(WhiteboxImpl.getMethod(StringBuilder.class, "append", String.class)).isSameAs(withArgument);
+        assertThat(WhiteboxImpl.getMethod(StringBuilder.class, "toString")).isSameAs(withoutArgument);
+        assertThat(withArgument).isNotEqualTo(withoutArgument);
+        assertThat(ReflectionCache.getMissCount()).isEqualTo(2);
+        assertThat(ReflectionCache.getHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void should_return_copies_of_cached_members_from_public_api() {
+        final Field field = Whitebox.getField(ClassWithInternalState.class, "internalState");
+        final Method method = Whitebox.getMethod(ClassWithInternalState.class, "getAnotherInternalState");
+        final Constructor<?> constructor = Whitebox.getConstructor(ClassWithInternalState.class);
+
+        assertThat(field).isEqualTo(WhiteboxImpl.getField(ClassWithInternalState.class, "internalState"))
+            .isNotSameAs(WhiteboxImpl.getField(ClassWithInternalState.class, "internalState"));
+        assertThat(method).isEqualTo(WhiteboxImpl.getMethod(ClassWithInternalState.class, "getAnotherInternalState"))
+            .isNotSameAs(WhiteboxImpl.getMethod(ClassWithInternalState.class, "getAnotherInternalState"));
+        assertThat(constructor).isEqualTo(WhiteboxImpl.getConstructor(ClassWithInternalState.class))
+            .isNotSameAs(WhiteboxImpl.getConstructor(ClassWithInternalState.class));
+        assertThat(field.isAccessible()).isTrue();
+        assertThat(method.isAccessible()).isTrue();
+        assertThat(constructor.isAccessible()).isTrue();
+    }
+
+    @Test
+    public void should_not_share_accessible_flag_of_members_from_public_api() {
+        final Field field = Whitebox.getField(ClassWithInternalState.class, "internalState");
+        final Method method = Whitebox.getMethod(ClassWithInternalState.class, "getAnotherInternalState");
+
+        field.setAccessible(false);
+        method.setAccessible(false);
+
+        assertThat(WhiteboxImpl.getField(ClassWithInternalState.class, "internalState").isAccessible()).isTrue();
+        assertThat(WhiteboxImpl.getMethod(ClassWithInternalState.class, "getAnotherInternalState").isAccessible()).isTrue();
+        assertThat(Whitebox.getField(ClassWithInternalState.class, "internalState").isAccessible()).isTrue();
+    }
+
+    @Test
+    public void should_return_copy_of_method_which_has_same_parameter_types_as_bridge_method() {
+        final Method method = WhiteboxImpl.getMethod(ComparableValue.class, "compareTo", Object.class);
+
+        final Method copy = Whitebox.getMethod(ComparableValue.class, "compareTo", Object.class);
+        assertThat(copy).isEqualTo(method).isNotSameAs(method);
+        assertThat(copy.isBridge()).isEqualTo(method.isBridge());
+    }
+
+    @Test
+    public void should_invoke_cached_accessible_copy_of_inaccessible_method() throws Exception {
+        final Method method = ClassWithInternalState.class.getDeclaredMethod("getAnotherInternalState");
+        final ClassWithInternalState tested = new ClassWithInternalState();
+
+        WhiteboxImpl.performMethodInvocation(tested, method);
+        final Method accessibleCopy = ReflectionCache.getAccessibleMethod(method);
+        WhiteboxImpl.performMethodInvocation(tested, method);
+
+        assertThat(method.isAccessible()).isFalse();
+        assertThat(accessibleCopy).isEqualTo(method).isNotSameAs(method);
+        assertThat(accessibleCopy.isAccessible()).isTrue();
+        assertThat(ReflectionCache.getAccessibleMethod(method)).isSameAs(accessibleCopy);
+    }
+
+    private static class ComparableValue implements Comparable<ComparableValue> {
+        @Override
+        public int compareTo(ComparableValue o) {
+            return 0;
+        }
+    }
+}
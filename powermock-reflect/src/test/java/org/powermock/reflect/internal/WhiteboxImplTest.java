@@ -84,6 +84,17 @@ public class WhiteboxImplTest {
         assertThat(methodNames).contains("stream");
     }
 
+	@Test
+	public void performMethodInvocationDoesNotChangeAccessibilityOfTheSuppliedMethod() throws Exception {
+		Method method = ClassWithPrivateMethods.class.getDeclaredMethod("methodWithPrimitiveIntAndString", int.class,
+				String.class);
+
+		String result = WhiteboxImpl.performMethodInvocation(new ClassWithPrivateMethods(), method, 1, "test");
+
+		assertThat(result).isEqualTo("test1");
+		assertThat(method.isAccessible()).isFalse();
+	}
+
     @Test
 	public void testGetMethodNotExactParameterTypeMatch() throws NoSuchMethodException {
 		Method[] methods =
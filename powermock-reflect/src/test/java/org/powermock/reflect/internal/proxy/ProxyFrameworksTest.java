@@ -62,6 +62,16 @@ public class ProxyFrameworksTest {
         assertThatOriginalTypeInstanceOf(unproxiedType, SomeClass.class);
     }
     
+    @Test
+    public void should_return_original_class_if_proxy_created_with_cglib_is_unproxied_twice() {
+        SomeClass someClass = (SomeClass) createCglibProxy(SomeClass.class);
+        
+        proxyFrameworks.getUnproxiedType(someClass);
+        UnproxiedType unproxiedType = proxyFrameworks.getUnproxiedType(someClass);
+        
+        assertThatOriginalTypeInstanceOf(unproxiedType, SomeClass.class);
+    }
+    
     @Test
     public void should_not_detect_synthetic_classes_as_cglib_proxy() throws Exception {
         final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
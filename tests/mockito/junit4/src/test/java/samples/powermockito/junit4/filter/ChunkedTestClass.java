@@ -0,0 +1,58 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package samples.powermockito.junit4.filter;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+import samples.singleton.StaticService;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.mockito.Mockito.when;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+
+/**
+ * A test class which is chunked into a chunk for each test method which prepares classes for test,
+ * it's run by {@link FilteredChunkedTestClassTest}.
+ */
+@RunWith(PowerMockRunner.class)
+public class ChunkedTestClass {
+
+    @Test
+    public void callsStaticMethod() {
+        StaticService.sayHello("hello");
+        assertThat(StaticService.messageStorage).isEqualTo("hello");
+    }
+
+    @Test
+    @PrepareForTest(StaticService.class)
+    public void mocksStaticMethod() {
+        mockStatic(StaticService.class);
+        when(StaticService.say("hello")).thenReturn("mocked");
+
+        assertThat(StaticService.say("hello")).isEqualTo("mocked");
+    }
+
+    @Test
+    @PrepareForTest(StaticService.class)
+    public void doesNotMockStaticMethod() {
+        assertThat(StaticService.say("hello")).isEqualTo("Hello hello");
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ *
+ *   Copyright 2017 the original author or authors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package samples.powermockito.junit4.filter;
+
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Request;
+import org.junit.runner.Result;
+import org.junit.runner.manipulation.Filter;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * Test class chunks are filtered like test methods, so a test method of a chunked test class can be run alone.
+ */
+public class FilteredChunkedTestClassTest {
+
+    @Test
+    public void should_run_all_chunks_if_not_filtered() {
+        final Result result = new JUnitCore().run(ChunkedTestClass.class);
+
+        assertThat(result.getFailures()).isEmpty();
+        assertThat(result.getRunCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void should_run_only_chunk_of_test_method_which_is_not_filtered() {
+        final Result result = new JUnitCore().run(filteredBy("mocksStaticMethod"));
+
+        assertThat(result.getFailures()).isEmpty();
+        assertThat(result.getRunCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void should_run_only_default_chunk_if_other_chunks_are_filtered() {
+        final Result result = new JUnitCore().run(filteredBy("callsStaticMethod"));
+
+        assertThat(result.getFailures()).isEmpty();
+        assertThat(result.getRunCount()).isEqualTo(1);
+    }
+
+    private static Request filteredBy(final String methodName) {
+        return Request.aClass(ChunkedTestClass.class)
+                      .filterWith(Filter.matchMethodDescription(Description.createTestDescription(ChunkedTestClass.class, methodName)));
+    }
+}